@@ -0,0 +1,116 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.TableColumn;
+import com.dbintegrator.service.CoalescingUpdateBuffer;
+import com.dbintegrator.service.DataIntegrationService;
+import com.dbintegrator.util.LatencyInjectingDriver;
+import com.dbintegrator.util.TestDataGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * integrateData for the hand-picked pairings the Resource tab produces:
+ * RSRC rows copied onto HR_ALL_PEOPLE rows chosen by ID. Each invocation
+ * applies PAIRINGS seeded-random pairings, either written one pairing at a
+ * time or staged into one CoalescingUpdateBuffer and flushed together.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Ddbintegrator.log.level=WARN"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class IntegrateDataBenchmark {
+    private static final int PAIRINGS = 1000;
+    private static final long SEED = 42;
+
+    public enum Flush {
+        /** integrateData(mappings, sourceWhere, destWhere): one flush per pairing */
+        PER_PAIRING,
+        /** All pairings staged, then one flushUpdates */
+        COALESCED
+    }
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param
+    public Flush flush;
+
+    // Delay per round-trip, as a LatencyInjectingDriver SPEC; 0 for none
+    @Param({"0"})
+    public String latency;
+
+    private DataIntegrationService service;
+    private List<ColumnMapping> mappings;
+    private String[] sourceWhere;
+    private String[] destWhere;
+
+    @Setup(Level.Trial)
+    public void createSchema() throws SQLException {
+        ScaledTestSchema schema = ScaledTestSchema.create(rows);
+        // Set after the schema is generated, so only the measured work is delayed
+        if ("0".equals(latency)) {
+            System.clearProperty(LatencyInjectingDriver.LATENCY_PROPERTY);
+        } else {
+            System.setProperty(LatencyInjectingDriver.LATENCY_PROPERTY, latency);
+        }
+        service = new DataIntegrationService(schema.getSource(), schema.getDest());
+
+        mappings = Arrays.asList(
+                new ColumnMapping("RSRC", new TableColumn("EMAIL", "VARCHAR2", 100, true),
+                        "HR_ALL_PEOPLE", new TableColumn("EMAIL_ADDRESS", "VARCHAR2", 100, true)),
+                new ColumnMapping("RSRC", new TableColumn("PHONE", "VARCHAR2", 20, true),
+                        "HR_ALL_PEOPLE", new TableColumn("PHONE_NUMBER", "VARCHAR2", 20, true)),
+                new ColumnMapping("RSRC", new TableColumn("DEPARTMENT", "VARCHAR2", 50, true),
+                        "HR_ALL_PEOPLE", new TableColumn("DEPARTMENT_NAME", "VARCHAR2", 50, true)));
+
+        // Pair random source rows with the destination rows they overlap
+        TestDataGenerator generator = schema.getGenerator();
+        Random random = new Random(SEED);
+        sourceWhere = new String[PAIRINGS];
+        destWhere = new String[PAIRINGS];
+        for (int i = 0; i < PAIRINGS; i++) {
+            int index;
+            do {
+                index = random.nextInt(rows);
+            } while (!generator.inDest(index));
+            sourceWhere[i] = "RSRC_ID = " + (ScaledTestSchema.FIRST_ID + index);
+            destWhere[i] = "PERSON_ID = " + (ScaledTestSchema.FIRST_ID + index);
+        }
+    }
+
+    @Benchmark
+    public int integrateData() throws SQLException {
+        int updated = 0;
+        if (flush == Flush.PER_PAIRING) {
+            for (int i = 0; i < PAIRINGS; i++) {
+                updated += service.integrateData(mappings, sourceWhere[i], destWhere[i]);
+            }
+        } else {
+            CoalescingUpdateBuffer updates = new CoalescingUpdateBuffer();
+            for (int i = 0; i < PAIRINGS; i++) {
+                service.integrateData(mappings, sourceWhere[i], destWhere[i], updates);
+            }
+            updated = service.flushUpdates(updates);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dbintegrator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * What one load test scenario measured, stored in and compared against the
+ * baseline file as {@code SCENARIO.rowsPerSecond}, {@code SCENARIO.p99BatchMillis}
+ * and {@code SCENARIO.peakHeapMb}.
+ */
+final class LoadTestResult {
+    static final String ROWS_PER_SECOND = "rowsPerSecond";
+    static final String P99_BATCH_MILLIS = "p99BatchMillis";
+    static final String PEAK_HEAP_MB = "peakHeapMb";
+
+    private final String scenario;
+    private final double rowsPerSecond;
+    private final double p99BatchMillis;
+    private final double peakHeapMb;
+
+    LoadTestResult(String scenario, double rowsPerSecond, double p99BatchMillis, double peakHeapMb) {
+        this.scenario = scenario;
+        this.rowsPerSecond = rowsPerSecond;
+        this.p99BatchMillis = p99BatchMillis;
+        this.peakHeapMb = peakHeapMb;
+    }
+
+    /**
+     * @return The scenario's entry in a baseline, or null if it has none
+     */
+    static LoadTestResult fromProperties(String scenario, Properties properties) {
+        String rowsPerSecond = properties.getProperty(scenario + "." + ROWS_PER_SECOND);
+        if (rowsPerSecond == null) {
+            return null;
+        }
+        return new LoadTestResult(scenario, Double.parseDouble(rowsPerSecond),
+                Double.parseDouble(properties.getProperty(scenario + "." + P99_BATCH_MILLIS, "0")),
+                Double.parseDouble(properties.getProperty(scenario + "." + PEAK_HEAP_MB, "0")));
+    }
+
+    void toProperties(Properties properties) {
+        properties.setProperty(scenario + "." + ROWS_PER_SECOND, String.format(Locale.ROOT, "%.0f", rowsPerSecond));
+        properties.setProperty(scenario + "." + P99_BATCH_MILLIS, String.format(Locale.ROOT, "%.2f", p99BatchMillis));
+        properties.setProperty(scenario + "." + PEAK_HEAP_MB, String.format(Locale.ROOT, "%.1f", peakHeapMb));
+    }
+
+    /**
+     * @param baseline Earlier result of the same scenario
+     * @param minThroughput Lowest acceptable share of the baseline throughput, e.g. 0.8
+     * @param maxP99 Highest acceptable multiple of the baseline p99 batch latency
+     * @param maxHeap Highest acceptable multiple of the baseline peak heap
+     * @return One message per metric outside its threshold; empty if none is
+     */
+    List<String> regressions(LoadTestResult baseline, double minThroughput, double maxP99, double maxHeap) {
+        List<String> regressions = new ArrayList<>();
+        if (rowsPerSecond < baseline.rowsPerSecond * minThroughput) {
+            regressions.add(String.format("throughput %.0f rows/s is below %.0f%% of the baseline %.0f",
+                    rowsPerSecond, minThroughput * 100, baseline.rowsPerSecond));
+        }
+        // A baseline of 0 means the metric was not recorded
+        if (baseline.p99BatchMillis > 0 && p99BatchMillis > baseline.p99BatchMillis * maxP99) {
+            regressions.add(String.format("p99 batch latency %.2f ms is above %.2fx the baseline %.2f ms",
+                    p99BatchMillis, maxP99, baseline.p99BatchMillis));
+        }
+        if (baseline.peakHeapMb > 0 && peakHeapMb > baseline.peakHeapMb * maxHeap) {
+            regressions.add(String.format("peak heap %.1f MB is above %.2fx the baseline %.1f MB",
+                    peakHeapMb, maxHeap, baseline.peakHeapMb));
+        }
+        return regressions;
+    }
+
+    String getScenario() {
+        return scenario;
+    }
+
+    double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    double getP99BatchMillis() {
+        return p99BatchMillis;
+    }
+
+    double getPeakHeapMb() {
+        return peakHeapMb;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.0f rows/s, p99 batch %.2f ms, peak heap %.1f MB",
+                scenario, rowsPerSecond, p99BatchMillis, peakHeapMb);
+    }
+}
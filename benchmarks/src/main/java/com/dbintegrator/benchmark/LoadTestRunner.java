@@ -0,0 +1,392 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.Timer;
+import com.dbintegrator.service.ExecutionPlan;
+import com.dbintegrator.service.IntegrationProgress;
+import com.dbintegrator.service.JobRunner;
+import com.dbintegrator.service.RunRegistry;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.JobDefinitionLoader;
+import com.dbintegrator.util.LatencyInjectingDriver;
+import com.dbintegrator.util.TestDataGenerator;
+import com.dbintegrator.util.TestFixtureStore;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs whole integration jobs, as IntegrationCli would, against generated
+ * H2 datasets and fails when they got slower or hungrier than a stored
+ * baseline. Where the JMH benchmarks time one service call in isolation,
+ * this goes through job loading, JobCompiler, JobRunner and RunRegistry, so
+ * it catches regressions in anything a release would ship.
+ * <pre>
+ * mvn -Ploadtest verify
+ * mvn -Ploadtest verify -Dloadtest.updateBaseline=true
+ * </pre>
+ * The configuration (benchmarks/loadtest/loadtest.properties) lists the
+ * scenarios, each a job file plus the TestDataGenerator settings of the
+ * dataset it runs against:
+ * <pre>
+ * scenarios=merge-projects
+ * iterations=5
+ * threshold.throughput=0.8
+ * scenario.merge-projects.job=jobs/merge-projects.properties
+ * scenario.merge-projects.rows=100000
+ * scenario.merge-projects.duplicates=0.1
+ * scenario.merge-projects.latency=1
+ * </pre>
+ * Datasets are built once into TestFixtureStore fixtures and every
+ * iteration merges into a fresh copy. Each scenario records:
+ * <ul>
+ * <li>throughput: source rows read per second, the median over the iterations</li>
+ * <li>p99 batch latency: of the batches handed to the writer (MetricsRegistry.WRITE_BATCH)</li>
+ * <li>peak heap: the most heap still in use after a collection, i.e. the
+ *     live set rather than however much garbage the collector let pile up</li>
+ * </ul>
+ * A scenario fails if its throughput falls below threshold.throughput times
+ * the baseline, or its p99 or peak heap rise above threshold.p99 or
+ * threshold.heap times the baseline; scenario.NAME.threshold.* overrides
+ * these. Scenarios missing from the baseline only report. The baseline
+ * holds absolute numbers, so refresh it with -Dloadtest.updateBaseline=true
+ * whenever the build machine changes.
+ */
+public final class LoadTestRunner {
+    static final String UPDATE_BASELINE_PROPERTY = "loadtest.updateBaseline";
+
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_REGRESSION = 1;
+    private static final int EXIT_USAGE = 2;
+
+    private static final double DEFAULT_MIN_THROUGHPUT = 0.8;
+    private static final double DEFAULT_MAX_P99 = 1.5;
+    private static final double DEFAULT_MAX_HEAP = 1.25;
+    private static final String RESULTS_FILE = "loadtest-results.properties";
+    // Next to each fixture: the generator settings it was built with
+    private static final String DATASET_EXTENSION = ".dataset";
+
+    private final File configDirectory;
+    private final Properties config;
+    private final File fixtureDirectory;
+    private final TestFixtureStore fixtures;
+    private final HeapWatermark heap = new HeapWatermark();
+
+    private LoadTestRunner(File configFile, Properties config) {
+        this.configDirectory = configFile.getAbsoluteFile().getParentFile();
+        this.config = config;
+        this.fixtureDirectory = new File(config.getProperty("fixtures", "loadtest-fixtures"));
+        this.fixtures = new TestFixtureStore(fixtureDirectory);
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !"--update-baseline".equals(args[1]))) {
+            System.err.println("Usage: LoadTestRunner CONFIG [--update-baseline]");
+            return EXIT_USAGE;
+        }
+        File configFile = new File(args[0]);
+        boolean updateBaseline = args.length == 2 || Boolean.getBoolean(UPDATE_BASELINE_PROPERTY);
+
+        LoadTestRunner runner;
+        List<LoadTestResult> results = new ArrayList<>();
+        try {
+            runner = new LoadTestRunner(configFile, load(configFile));
+            for (String scenario : runner.scenarios()) {
+                LoadTestResult result = runner.runScenario(scenario);
+                System.out.println(result);
+                results.add(result);
+            }
+        } catch (Exception e) {
+            System.err.println("Load test could not run: " + e);
+            return EXIT_USAGE;
+        }
+
+        try {
+            Properties measured = new Properties();
+            results.forEach(result -> result.toProperties(measured));
+            store(measured, new File(RESULTS_FILE), "Load test results");
+            if (updateBaseline) {
+                File baselineFile = runner.baselineFile();
+                Properties baseline = baselineFile.isFile() ? load(baselineFile) : new Properties();
+                results.forEach(result -> result.toProperties(baseline));
+                store(baseline, baselineFile, "Load test baseline; refresh with -D" + UPDATE_BASELINE_PROPERTY + "=true");
+                System.out.println("Baseline written to " + baselineFile);
+                return EXIT_OK;
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot write load test results: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        return runner.compare(results);
+    }
+
+    private List<String> scenarios() {
+        List<String> scenarios = new ArrayList<>();
+        for (String name : config.getProperty("scenarios", "").split(",")) {
+            if (!name.isBlank()) {
+                scenarios.add(name.trim());
+            }
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("No scenarios configured");
+        }
+        return scenarios;
+    }
+
+    private LoadTestResult runScenario(String scenario) throws Exception {
+        String jobPath = scenarioProperty(scenario, "job", null);
+        if (jobPath == null) {
+            throw new IllegalArgumentException("Scenario " + scenario + " has no job");
+        }
+        JobDefinition job = JobDefinitionLoader.load(resolve(jobPath));
+        prepareFixture(scenario, generator(scenario));
+
+        String latency = scenarioProperty(scenario, "latency", "");
+        if (latency.isEmpty() || "0".equals(latency)) {
+            System.clearProperty(LatencyInjectingDriver.LATENCY_PROPERTY);
+        } else {
+            LatencyInjectingDriver.validate(latency);
+            System.setProperty(LatencyInjectingDriver.LATENCY_PROPERTY, latency);
+        }
+
+        try {
+            for (int i = 0; i < intProperty("warmup", 2); i++) {
+                runJob(scenario, job);
+            }
+
+            Timer batches = MetricsRegistry.global().timer(MetricsRegistry.WRITE_BATCH);
+            batches.reset();
+            int iterations = Math.max(1, intProperty("iterations", 5));
+            double[] rowsPerSecond = new double[iterations];
+            long peakHeapBytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                System.gc();
+                heap.reset();
+                rowsPerSecond[i] = runJob(scenario, job);
+                peakHeapBytes = Math.max(peakHeapBytes, heap.getPeakBytes());
+            }
+
+            return new LoadTestResult(scenario, median(rowsPerSecond),
+                    batches.snapshot().getP99Nanos() / 1e6, peakHeapBytes / (1024.0 * 1024.0));
+        } finally {
+            System.clearProperty(LatencyInjectingDriver.LATENCY_PROPERTY);
+        }
+    }
+
+    /**
+     * Run the job once on a fresh copy of the scenario's destination
+     * @return Source rows read per second
+     */
+    private double runJob(String scenario, JobDefinition job) throws Exception {
+        DatabaseConnectionManager source = fixtures.mountSource(scenario, TestFixtureStore.Mount.READ_ONLY);
+        DatabaseConnectionManager dest = fixtures.mountDest(scenario, TestFixtureStore.Mount.COPY);
+        JobRunner runner = new JobRunner(source, dest);
+        ExecutionPlan plan = runner.compile(job);
+
+        IntegrationProgress progress = new IntegrationProgress();
+        RunRegistry.Run run = RunRegistry.global().register(job.getName(), progress);
+        run.started();
+        long started = System.nanoTime();
+        try {
+            runner.run(plan, progress);
+        } catch (Exception e) {
+            run.finished(RunRegistry.Status.FAILED, e.getMessage());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - started;
+        run.finished(RunRegistry.Status.SUCCEEDED, null);
+
+        if (progress.getRowsRead() == 0) {
+            throw new IllegalStateException("Scenario " + scenario + " read no rows");
+        }
+        return progress.getRowsRead() / (elapsed / 1e9);
+    }
+
+    // Build the fixture unless one with the same generator settings exists
+    private void prepareFixture(String scenario, TestDataGenerator generator) throws Exception {
+        File dataset = new File(fixtureDirectory, scenario + DATASET_EXTENSION);
+        String settings = generator.toString();
+        if (fixtures.contains(scenario) && dataset.isFile()
+                && settings.equals(Files.readString(dataset.toPath(), StandardCharsets.UTF_8))) {
+            return;
+        }
+        fixtures.build(scenario, generator);
+        Files.writeString(dataset.toPath(), settings, StandardCharsets.UTF_8);
+    }
+
+    private TestDataGenerator generator(String scenario) {
+        TestDataGenerator generator = new TestDataGenerator(Integer.parseInt(scenarioProperty(scenario, "rows", "100000")));
+        generator.setSeed(Long.parseLong(scenarioProperty(scenario, "seed",
+                String.valueOf(TestDataGenerator.DEFAULT_SEED))));
+        generator.setOverlapRatio(Double.parseDouble(scenarioProperty(scenario, "overlap", "0.5")));
+        generator.setChangeRatio(Double.parseDouble(scenarioProperty(scenario, "change", "0.5")));
+        generator.setDuplicateRatio(Double.parseDouble(scenarioProperty(scenario, "duplicates", "0")));
+        generator.setSkew(Double.parseDouble(scenarioProperty(scenario, "skew", "0")));
+        return generator;
+    }
+
+    private int compare(List<LoadTestResult> results) {
+        File baselineFile = baselineFile();
+        Properties baseline;
+        try {
+            baseline = baselineFile.isFile() ? load(baselineFile) : new Properties();
+        } catch (IOException e) {
+            System.err.println("Cannot read load test baseline: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+
+        int failed = 0;
+        for (LoadTestResult result : results) {
+            String scenario = result.getScenario();
+            LoadTestResult expected = LoadTestResult.fromProperties(scenario, baseline);
+            if (expected == null) {
+                System.out.println(scenario + ": no baseline in " + baselineFile + ", not checked");
+                continue;
+            }
+            List<String> regressions = result.regressions(expected,
+                    threshold(scenario, "throughput", DEFAULT_MIN_THROUGHPUT),
+                    threshold(scenario, "p99", DEFAULT_MAX_P99),
+                    threshold(scenario, "heap", DEFAULT_MAX_HEAP));
+            if (regressions.isEmpty()) {
+                System.out.println(scenario + ": within thresholds of " + expected);
+            } else {
+                failed++;
+                for (String regression : regressions) {
+                    System.err.println(scenario + ": REGRESSION " + regression);
+                }
+            }
+        }
+        if (failed > 0) {
+            System.err.println(failed + " of " + results.size() + " load test scenarios regressed");
+            return EXIT_REGRESSION;
+        }
+        return EXIT_OK;
+    }
+
+    private double threshold(String scenario, String metric, double defaultValue) {
+        String value = scenarioProperty(scenario, "threshold." + metric,
+                config.getProperty("threshold." + metric, String.valueOf(defaultValue)));
+        return Double.parseDouble(value);
+    }
+
+    private String scenarioProperty(String scenario, String key, String defaultValue) {
+        String value = config.getProperty("scenario." + scenario + "." + key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    private int intProperty(String key, int defaultValue) {
+        String value = config.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private File baselineFile() {
+        return resolve(config.getProperty("baseline", "baseline.properties"));
+    }
+
+    // Paths in the configuration are relative to its directory
+    private File resolve(String path) {
+        File file = new File(path.trim());
+        return file.isAbsolute() ? file : new File(configDirectory, path.trim());
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static void store(Properties properties, File file, String comment) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, comment);
+        }
+    }
+
+    /**
+     * Largest heap occupancy right after a collection since the last reset,
+     * from the collectors' notifications
+     */
+    private static final class HeapWatermark implements NotificationListener {
+        private final Set<String> heapPools = new HashSet<>();
+        private final AtomicLong peakBytes = new AtomicLong();
+
+        HeapWatermark() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    heapPools.add(pool.getName());
+                }
+            }
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+                }
+            }
+        }
+
+        /**
+         * Start over from the heap in use now; call straight after System.gc(),
+         * so that runs which never trigger a collection report their live set
+         */
+        void reset() {
+            peakBytes.set(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        }
+
+        long getPeakBytes() {
+            return peakBytes.get();
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            long used = 0;
+            for (Map.Entry<String, MemoryUsage> pool : info.getGcInfo().getMemoryUsageAfterGc().entrySet()) {
+                if (heapPools.contains(pool.getKey())) {
+                    used += pool.getValue().getUsed();
+                }
+            }
+            peakBytes.accumulateAndGet(used, Math::max);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.IntegrationOptions;
+import com.dbintegrator.model.TableColumn;
+import com.dbintegrator.service.DataIntegrationService;
+import com.dbintegrator.util.LatencyInjectingDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mergeData from PROJECT into PA_PROJECTS, matched on NAME, with half of the
+ * source rows already present. Each invocation is one full merge; the
+ * destination is restored before the next.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Ddbintegrator.log.level=WARN"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class MergeDataBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    @Param
+    public WriteStrategy strategy;
+
+    // Delay per round-trip, as a LatencyInjectingDriver SPEC; 0 for none
+    @Param({"0"})
+    public String latency;
+
+    private ScaledTestSchema schema;
+    private DataIntegrationService service;
+    private List<ColumnMapping> mappings;
+    private IntegrationOptions options;
+
+    @Setup(Level.Trial)
+    public void createSchema() throws SQLException {
+        schema = ScaledTestSchema.create(rows);
+        // Set after the schema is generated, so only the measured work is delayed
+        if ("0".equals(latency)) {
+            System.clearProperty(LatencyInjectingDriver.LATENCY_PROPERTY);
+        } else {
+            System.setProperty(LatencyInjectingDriver.LATENCY_PROPERTY, latency);
+        }
+        service = new DataIntegrationService(schema.getSource(), schema.getDest());
+        service.setDestinationWriter(strategy.writer());
+
+        mappings = Arrays.asList(
+                new ColumnMapping("PROJECT", new TableColumn("NAME", "VARCHAR2", 100, false),
+                        "PA_PROJECTS", new TableColumn("NAME", "VARCHAR2", 100, false)),
+                new ColumnMapping("PROJECT", new TableColumn("DESCRIPTION", "VARCHAR2", 500, true),
+                        "PA_PROJECTS", new TableColumn("DESCRIPTION", "VARCHAR2", 500, true)));
+        options = new IntegrationOptions();
+        options.setLoadMode(IntegrationOptions.LoadMode.MERGE);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetDestination() throws SQLException {
+        schema.resetDestination();
+    }
+
+    @Benchmark
+    public int mergeData() throws SQLException {
+        return service.mergeData(mappings, null, "NAME", "NAME", options);
+    }
+}
@@ -0,0 +1,79 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.TestDataGenerator;
+import com.dbintegrator.util.TestDatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The TestDatabaseManager schemas (PROJECT, TASKS, RSRC in sourcedb and
+ * PA_PROJECTS, PA_TASKS, HR_ALL_PEOPLE in destdb) filled by
+ * TestDataGenerator with its default shape: half of the source rows already
+ * exist in the destination and half of those differ, so a merge is a mix of
+ * inserts, updates and unchanged rows.
+ */
+final class ScaledTestSchema {
+    static final int FIRST_ID = TestDataGenerator.DEFAULT_FIRST_ID;
+
+    private final TestDataGenerator generator;
+    private final DatabaseConnectionManager source;
+    private final DatabaseConnectionManager dest;
+
+    private ScaledTestSchema(TestDataGenerator generator, DatabaseConnectionManager source,
+                             DatabaseConnectionManager dest) {
+        this.generator = generator;
+        this.source = source;
+        this.dest = dest;
+    }
+
+    /**
+     * Recreate both test databases and fill them
+     * @param rows Generated rows per source table
+     */
+    static ScaledTestSchema create(int rows) throws SQLException {
+        TestDataGenerator generator = new TestDataGenerator(rows);
+        ScaledTestSchema schema = new ScaledTestSchema(generator,
+                TestDatabaseManager.getSourceTestConnection(generator),
+                TestDatabaseManager.getDestTestConnection(generator));
+        schema.prepareDest();
+        return schema;
+    }
+
+    DatabaseConnectionManager getSource() {
+        return source;
+    }
+
+    DatabaseConnectionManager getDest() {
+        return dest;
+    }
+
+    TestDataGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Undo a merge into PA_PROJECTS: drop the rows it inserted and restore
+     * the ones it updated
+     */
+    void resetDestination() throws SQLException {
+        try (Connection conn = dest.getConnection();
+             Statement stmt = conn.createStatement()) {
+            // Inserted rows get IDs above everything that was there before
+            stmt.executeUpdate("DELETE FROM PA_PROJECTS WHERE ID > (SELECT MAX(ID) FROM PA_PROJECTS_BASE)");
+            // H2 upsert by primary key
+            stmt.executeUpdate("MERGE INTO PA_PROJECTS KEY (ID) SELECT * FROM PA_PROJECTS_BASE");
+        }
+    }
+
+    // Keeps the merged table's starting state for resetDestination
+    private void prepareDest() throws SQLException {
+        try (Connection conn = dest.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS PA_PROJECTS_BASE");
+            stmt.execute("CREATE TABLE PA_PROJECTS_BASE AS SELECT * FROM PA_PROJECTS");
+        }
+    }
+}
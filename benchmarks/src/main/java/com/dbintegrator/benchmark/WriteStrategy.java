@@ -0,0 +1,189 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.service.BatchDestinationWriter;
+import com.dbintegrator.service.DestinationWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ways of applying merged rows to the destination, compared by
+ * MergeDataBenchmark. Each supplies the DestinationWriter that
+ * DataIntegrationService uses for its inserts and updates; the match lookups
+ * before them are the same for every strategy.
+ */
+public enum WriteStrategy {
+    /** One prepared statement executed per row */
+    ROW_AT_A_TIME {
+        @Override
+        DestinationWriter writer() {
+            return new BatchDestinationWriter(1);
+        }
+    },
+    /** JDBC batches, the default for non-Oracle destinations */
+    BATCHED {
+        @Override
+        DestinationWriter writer() {
+            return new BatchDestinationWriter();
+        }
+    },
+    /** Batched MERGE statements keyed on the ID column */
+    MERGE {
+        @Override
+        DestinationWriter writer() {
+            return new MergeWriter();
+        }
+    },
+    /** Batched inserts into a stage table, then one set-based MERGE */
+    STAGED {
+        @Override
+        DestinationWriter writer() {
+            return new StagedWriter();
+        }
+    };
+
+    abstract DestinationWriter writer();
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * MERGE INTO t USING (VALUES (?, ...)) S (cols) ON (t.key = S.key) ...
+     * The VALUES row source works on H2 and Oracle 23; earlier Oracle
+     * releases need SELECT ... FROM DUAL instead.
+     */
+    private static final class MergeWriter implements DestinationWriter {
+        @Override
+        public int insertRows(Connection conn, String table, List<String> columns,
+                              List<Object[]> rows) throws SQLException {
+            String key = columns.get(0);
+            String sql = "MERGE INTO " + table + " T USING (VALUES (" + placeholders(columns.size()) + ")) S (" +
+                    String.join(", ", columns) + ") ON (T." + key + " = S." + key + ") " +
+                    "WHEN NOT MATCHED THEN INSERT (" + String.join(", ", columns) + ") " +
+                    "VALUES (" + prefixed("S.", columns) + ")";
+            return executeBatched(conn, sql, rows);
+        }
+
+        @Override
+        public int updateRows(Connection conn, String table, List<String> setColumns,
+                              String keyColumn, List<Object[]> rows) throws SQLException {
+            List<String> columns = new ArrayList<>(setColumns);
+            columns.add(keyColumn);
+            String sql = "MERGE INTO " + table + " T USING (VALUES (" + placeholders(columns.size()) + ")) S (" +
+                    String.join(", ", columns) + ") ON (T." + keyColumn + " = S." + keyColumn + ") " +
+                    "WHEN MATCHED THEN UPDATE SET " + assignments(setColumns);
+            return executeBatched(conn, sql, rows);
+        }
+    }
+
+    /**
+     * Rows are batch-inserted into TABLE_STAGE (created on first use with the
+     * destination's column types) and applied with a single statement, so the
+     * destination table is touched once per flush rather than once per row.
+     */
+    private static final class StagedWriter implements DestinationWriter {
+        private final DestinationWriter stageWriter = new BatchDestinationWriter();
+
+        @Override
+        public int insertRows(Connection conn, String table, List<String> columns,
+                              List<Object[]> rows) throws SQLException {
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            String stage = stage(conn, table, columns);
+            stageWriter.insertRows(conn, stage, columns, rows);
+            String cols = String.join(", ", columns);
+            return applyAndClear(conn, stage,
+                    "INSERT INTO " + table + " (" + cols + ") SELECT " + cols + " FROM " + stage);
+        }
+
+        @Override
+        public int updateRows(Connection conn, String table, List<String> setColumns,
+                              String keyColumn, List<Object[]> rows) throws SQLException {
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<String> columns = new ArrayList<>(setColumns);
+            columns.add(keyColumn);
+            String stage = stage(conn, table, columns);
+            stageWriter.insertRows(conn, stage, columns, rows);
+            return applyAndClear(conn, stage, "MERGE INTO " + table + " T USING " + stage + " S " +
+                    "ON (T." + keyColumn + " = S." + keyColumn + ") " +
+                    "WHEN MATCHED THEN UPDATE SET " + assignments(setColumns));
+        }
+
+        private static String stage(Connection conn, String table, List<String> columns) throws SQLException {
+            // One stage table per column list, as inserts and updates carry different columns
+            String stage = table + "_STAGE" + Integer.toHexString(columns.hashCode()).toUpperCase();
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + stage + " AS SELECT " +
+                        String.join(", ", columns) + " FROM " + table + " WHERE 1 = 0");
+            }
+            return stage;
+        }
+
+        private static int applyAndClear(Connection conn, String stage, String apply) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                int applied = stmt.executeUpdate(apply);
+                stmt.executeUpdate("DELETE FROM " + stage);
+                return applied;
+            }
+        }
+    }
+
+    private static int executeBatched(Connection conn, String sql, List<Object[]> rows) throws SQLException {
+        int total = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    stmt.setObject(i + 1, row[i]);
+                }
+                stmt.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    total += sum(stmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                total += sum(stmt.executeBatch());
+            }
+        }
+        return total;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.toString();
+    }
+
+    private static String prefixed(String prefix, List<String> columns) {
+        StringBuilder sql = new StringBuilder();
+        for (String column : columns) {
+            sql.append(sql.length() == 0 ? "" : ", ").append(prefix).append(column);
+        }
+        return sql.toString();
+    }
+
+    private static String assignments(List<String> setColumns) {
+        StringBuilder sql = new StringBuilder();
+        for (String column : setColumns) {
+            sql.append(sql.length() == 0 ? "" : ", ").append("T.").append(column).append(" = S.").append(column);
+        }
+        return sql.toString();
+    }
+}
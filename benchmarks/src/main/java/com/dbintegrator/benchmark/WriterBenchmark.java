@@ -0,0 +1,131 @@
+package com.dbintegrator.benchmark;
+
+import com.dbintegrator.service.BatchDestinationWriter;
+import com.dbintegrator.service.DestinationWriter;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.DialectDescriptor;
+import com.dbintegrator.util.TestDatabaseManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares destination write strategies on the RSRC table of the test schema.
+ * <p>
+ * Without arguments the in-memory H2 test database is used, where the
+ * dialect-selected writer is the batch writer. Pass {@code host port sid user password}
+ * to run against an Oracle schema; the RSRC test table is created there first.
+ * The row count defaults to 20000 and can be changed with -Dbenchmark.rows.
+ * <pre>java -cp benchmarks/target/benchmarks.jar com.dbintegrator.benchmark.WriterBenchmark</pre>
+ */
+public class WriterBenchmark {
+    private static final int FIRST_BENCHMARK_ID = 100000;
+    private static final List<String> UPDATE_COLUMNS =
+            Arrays.asList("NAME", "EMAIL", "PHONE", "DEPARTMENT", "ROLE", "COST_RATE", "AVAILABILITY");
+
+    public static void main(String[] args) throws Exception {
+        int rowCount = Integer.getInteger("benchmark.rows", 20000);
+
+        DatabaseConnectionManager dbManager;
+        if (args.length >= 5) {
+            dbManager = new DatabaseConnectionManager(args[0], Integer.parseInt(args[1]), args[2], args[3], args[4]);
+            try (Connection conn = dbManager.getConnection()) {
+                TestDatabaseManager.setupSourceTestData(conn);
+            }
+        } else {
+            dbManager = TestDatabaseManager.getSourceTestConnection();
+        }
+
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+            DialectDescriptor dialect = dbManager.getDialect();
+            System.out.println("Benchmarking " + rowCount + " RSRC rows on " + dialect);
+
+            seedRows(conn, rowCount);
+
+            report("row-at-a-time", rowCount, timeRowAtATime(conn, rowCount));
+            report("jdbc batch", rowCount, timeWriter(conn, new BatchDestinationWriter(), rowCount));
+
+            DestinationWriter selected = DestinationWriter.forDialect(dialect);
+            report(selected.getClass().getSimpleName(), rowCount, timeWriter(conn, selected, rowCount));
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM RSRC WHERE RSRC_ID >= " + FIRST_BENCHMARK_ID);
+            }
+            conn.commit();
+        }
+    }
+
+    private static void seedRows(Connection conn, int rowCount) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        columns.add("RSRC_ID");
+        columns.addAll(UPDATE_COLUMNS);
+
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            Object[] values = updateValues(i, 0);
+            Object[] row = new Object[values.length];
+            row[0] = FIRST_BENCHMARK_ID + i;
+            System.arraycopy(values, 0, row, 1, values.length - 1);
+            rows.add(row);
+        }
+
+        new BatchDestinationWriter().insertRows(conn, "RSRC", columns, rows);
+        conn.commit();
+    }
+
+    // Pre-batching mergeData behaviour: one prepare and one round-trip per row
+    private static long timeRowAtATime(Connection conn, int rowCount) throws SQLException {
+        String sql = "UPDATE RSRC SET NAME = ?, EMAIL = ?, PHONE = ?, DEPARTMENT = ?, ROLE = ?, " +
+                "COST_RATE = ?, AVAILABILITY = ? WHERE RSRC_ID = ?";
+
+        long start = System.nanoTime();
+        for (int i = 0; i < rowCount; i++) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                Object[] row = updateValues(i, 1);
+                for (int p = 0; p < row.length; p++) {
+                    stmt.setObject(p + 1, row[p]);
+                }
+                stmt.executeUpdate();
+            }
+        }
+        conn.commit();
+        return System.nanoTime() - start;
+    }
+
+    private static long timeWriter(Connection conn, DestinationWriter writer, int rowCount) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(updateValues(i, 2));
+        }
+
+        long start = System.nanoTime();
+        writer.updateRows(conn, "RSRC", UPDATE_COLUMNS, "RSRC_ID", rows);
+        conn.commit();
+        return System.nanoTime() - start;
+    }
+
+    // Values for UPDATE_COLUMNS followed by the RSRC_ID key
+    private static Object[] updateValues(int index, int pass) {
+        return new Object[]{
+                "Resource " + index + "/" + pass,
+                "resource" + index + "@example.com",
+                "555-" + (index % 10000),
+                "Department " + (index % 20),
+                "Role " + (index % 7),
+                50 + (index + pass) % 50,
+                100 - pass,
+                FIRST_BENCHMARK_ID + index
+        };
+    }
+
+    private static void report(String strategy, int rowCount, long elapsedNanos) {
+        double millis = elapsedNanos / 1_000_000.0;
+        System.out.printf("%-32s %10.1f ms %12.0f rows/s%n", strategy, millis, rowCount / (millis / 1000.0));
+    }
+}
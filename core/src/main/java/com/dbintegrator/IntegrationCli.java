@@ -0,0 +1,389 @@
+package com.dbintegrator;
+
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.monitoring.SqlProfiler;
+import com.dbintegrator.service.ExecutionPlan;
+import com.dbintegrator.service.IntegrationCancelledException;
+import com.dbintegrator.service.IntegrationProgress;
+import com.dbintegrator.service.JobRunner;
+import com.dbintegrator.service.JobScheduler;
+import com.dbintegrator.service.RunRegistry;
+import com.dbintegrator.util.ConfigurationManager;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.JobDefinitionLoader;
+import com.dbintegrator.util.JobStore;
+import com.dbintegrator.util.LatencyInjectingDriver;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.RunHistoryStore;
+import com.dbintegrator.util.TestDataGenerator;
+import com.dbintegrator.util.TestDatabaseManager;
+import com.dbintegrator.util.TestFixtureStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless entry point for scheduled runs; never touches JavaFX.
+ * <pre>
+ * java -jar core/target/OracleDBIntegrator-core-jar-with-dependencies.jar \
+ *     [--config db_connections.properties] [--test-mode] job.properties
+ * java -jar ... --schedule job1.properties job2.properties
+ * </pre>
+ * A job argument that is not a file names a job saved in ./jobs (JobStore).
+ * Every job is checked against the database schemas before anything runs.
+ * Connections come from the ConfigurationManager file (saved by the UI) or,
+ * with --test-mode, from the in-memory H2 test databases. --test-rows N adds
+ * N generated rows per test table (TestDataGenerator), shaped by
+ * --test-seed, --test-overlap, --test-change, --test-duplicates and
+ * --test-skew. --test-fixture NAME uses the prebuilt databases in
+ * ./fixtures/NAME instead (TestFixtureStore), building them first from
+ * those settings if they do not exist yet; --archive-fixture also writes
+ * portable SCRIPT archives of them. --latency SPEC delays every database
+ * round-trip (LatencyInjectingDriver), e.g. --latency 20-40 for a WAN link.
+ * Progress logging
+ * goes to stderr (see Log; --log-level DEBUG or TRACE for more detail);
+ * stdout carries only a one-line JSON summary.
+ * With --schedule the jobs' schedule.* settings are handed to JobScheduler
+ * and the process keeps running until it is terminated.
+ * Exit codes: 0 success, 1 integration failed, 2 usage or configuration error.
+ * Ctrl-C or SIGTERM cancels the run; once it has rolled back and the
+ * CANCELLED summary is printed, the process ends with the signal's status,
+ * 130 for Ctrl-C and 143 for SIGTERM.
+ */
+public class IntegrationCli {
+    private static final Log log = Log.get(IntegrationCli.class);
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_FAILED = 1;
+    public static final int EXIT_USAGE = 2;
+    // Returned by run for a cancelled job; under a signal the JVM reports the signal's status instead
+    public static final int EXIT_CANCELLED = 130;
+
+    // How long a shutdown signal waits for the rollback to finish
+    private static final long SHUTDOWN_GRACE_SECONDS = 30;
+
+    public static void main(String[] args) {
+        // Keep stdout for the summary; everything the services print goes to stderr
+        PrintStream summaryOut = System.out;
+        System.setOut(System.err);
+
+        int exitCode = run(args, summaryOut);
+        Log.flush();
+        summaryOut.flush();
+        System.exit(exitCode);
+    }
+
+    static int run(String[] args, PrintStream summaryOut) {
+        File configFile = null;
+        List<File> jobFiles = new ArrayList<>();
+        boolean testMode = false;
+        boolean scheduleMode = false;
+        boolean recordHistory = true;
+        TestDataGenerator generator = null;
+        String fixture = null;
+        boolean archiveFixture = false;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--config".equals(args[i]) && i + 1 < args.length) {
+                configFile = new File(args[++i]);
+            } else if ("--test-mode".equals(args[i])) {
+                testMode = true;
+            } else if ("--test-fixture".equals(args[i]) && i + 1 < args.length) {
+                fixture = args[++i];
+            } else if ("--archive-fixture".equals(args[i])) {
+                archiveFixture = true;
+            } else if (args[i].startsWith("--test-") && i + 1 < args.length) {
+                if (generator == null) {
+                    generator = new TestDataGenerator(0);
+                }
+                String option = args[i];
+                try {
+                    if (!configureGenerator(generator, option, args[++i])) {
+                        return usage("Unexpected argument: " + option);
+                    }
+                } catch (IllegalArgumentException e) {
+                    return usage("Invalid " + option + ": " + e.getMessage());
+                }
+            } else if ("--schedule".equals(args[i])) {
+                scheduleMode = true;
+            } else if ("--no-history".equals(args[i])) {
+                recordHistory = false;
+            } else if ("--latency".equals(args[i]) && i + 1 < args.length) {
+                try {
+                    LatencyInjectingDriver.validate(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    return usage("Invalid --latency: " + e.getMessage());
+                }
+                System.setProperty(LatencyInjectingDriver.LATENCY_PROPERTY, args[i]);
+            } else if ("--profile-sql".equals(args[i])) {
+                SqlProfiler.global().setEnabled(true);
+            } else if ("--log-level".equals(args[i]) && i + 1 < args.length) {
+                Log.setLevel(Log.parseLevel(args[++i], Log.getLevel()));
+            } else if (!args[i].startsWith("--")) {
+                jobFiles.add(new File(args[i]));
+            } else {
+                return usage("Unexpected argument: " + args[i]);
+            }
+        }
+        if (jobFiles.isEmpty()) {
+            return usage("No job file given");
+        }
+        if (!scheduleMode && jobFiles.size() > 1) {
+            return usage("Only one job file may be run at a time; use --schedule for several");
+        }
+
+        long started = System.currentTimeMillis();
+        IntegrationProgress progress = new IntegrationProgress();
+
+        List<JobDefinition> jobs = new ArrayList<>();
+        List<ExecutionPlan> plans = new ArrayList<>();
+        DatabaseConnectionManager sourceDbManager;
+        DatabaseConnectionManager destDbManager;
+        JobRunner runner;
+        try {
+            JobStore jobStore = new JobStore();
+            for (File jobFile : jobFiles) {
+                jobs.add(loadJob(jobFile, jobStore));
+            }
+
+            if (testMode && fixture != null) {
+                TestFixtureStore fixtures = new TestFixtureStore();
+                if (!fixtures.contains(fixture)) {
+                    if (generator == null) {
+                        throw new IllegalArgumentException("No test fixture named " + fixture +
+                                "; give --test-rows to build it");
+                    }
+                    fixtures.build(fixture, generator);
+                }
+                if (archiveFixture) {
+                    fixtures.archive(fixture);
+                }
+                sourceDbManager = fixtures.mountSource(fixture, TestFixtureStore.Mount.READ_ONLY);
+                destDbManager = fixtures.mountDest(fixture, TestFixtureStore.Mount.COPY);
+            } else if (testMode) {
+                sourceDbManager = TestDatabaseManager.getSourceTestConnection(generator);
+                destDbManager = TestDatabaseManager.getDestTestConnection(generator);
+            } else {
+                ConfigurationManager configManager = configFile != null
+                        ? new ConfigurationManager(configFile) : new ConfigurationManager();
+                sourceDbManager = configManager.getSourceConnection();
+                destDbManager = configManager.getDestConnection();
+                if (sourceDbManager == null || destDbManager == null) {
+                    throw new IllegalArgumentException("Source and destination connections must both be configured");
+                }
+            }
+
+            // Check every job against the schemas before anything runs
+            runner = new JobRunner(sourceDbManager, destDbManager);
+            for (JobDefinition job : jobs) {
+                plans.add(runner.compile(job));
+            }
+            // Profile the jobs, not the set-up and metadata reads
+            SqlProfiler.global().reset();
+        } catch (Exception e) {
+            log.error("Cannot start job", "error", e.getMessage());
+            summaryOut.println(summary(jobFiles.get(0).getName(), "INVALID", progress, 0, started, e.getMessage()));
+            return EXIT_USAGE;
+        }
+
+        if (recordHistory) {
+            RunRegistry.global().recordHistory(new RunHistoryStore());
+        }
+
+        if (scheduleMode) {
+            // Every run holds a connection on each side
+            int maxConcurrentRuns = Math.max(1,
+                    Math.min(sourceDbManager.getMaxConnections(), destDbManager.getMaxConnections()));
+            return runScheduler(plans, new JobScheduler(runner, maxConcurrentRuns));
+        }
+        ExecutionPlan plan = plans.get(0);
+        JobDefinition job = plan.getJob();
+
+        // A termination signal cancels the run and waits for its rollback
+        CountDownLatch finished = new CountDownLatch(1);
+        Thread shutdownHook = new Thread(() -> {
+            if (finished.getCount() > 0) {
+                log.warn("Shutdown requested, cancelling job", "job", job.getName());
+                progress.cancel();
+                try {
+                    finished.await(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Log.flush();
+            }
+        }, "integration-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        RunRegistry.Run run = RunRegistry.global().register(job.getName(), progress);
+        run.started();
+        try {
+            int rowsAffected = runner.run(plan, progress);
+            run.finished(RunRegistry.Status.SUCCEEDED, null);
+            summaryOut.println(summary(job.getName(), "SUCCEEDED", progress, rowsAffected, started, null));
+            return EXIT_OK;
+        } catch (SQLException e) {
+            boolean cancelled = progress.isCancelled() || e instanceof IntegrationCancelledException;
+            log.log(cancelled ? Log.Level.WARN : Log.Level.ERROR, cancelled ? "Job cancelled" : "Job failed",
+                    "job", job.getName(), "error", e.getMessage());
+            run.finished(cancelled ? RunRegistry.Status.CANCELLED : RunRegistry.Status.FAILED, e.getMessage());
+            summaryOut.println(summary(job.getName(), cancelled ? "CANCELLED" : "FAILED",
+                    progress, 0, started, e.getMessage()));
+            return cancelled ? EXIT_CANCELLED : EXIT_FAILED;
+        } catch (RuntimeException e) {
+            // A bug rather than a database error; still finish the run so it is recorded
+            log.error("Job failed", "job", job.getName(), e);
+            run.finished(RunRegistry.Status.FAILED, e.toString());
+            summaryOut.println(summary(job.getName(), "FAILED", progress, 0, started, e.toString()));
+            return EXIT_FAILED;
+        } finally {
+            summaryOut.flush();
+            finished.countDown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // Already shutting down; the hook is running
+            }
+        }
+    }
+
+    /**
+     * A job argument is a properties file or, failing that, the name of a job saved in the JobStore
+     */
+    private static JobDefinition loadJob(File jobFile, JobStore jobStore) throws IOException {
+        if (jobFile.isFile()) {
+            return JobDefinitionLoader.load(jobFile);
+        }
+        JobDefinition job = jobStore.load(jobFile.getName());
+        if (job == null) {
+            throw new IllegalArgumentException("No job file or saved job named " + jobFile);
+        }
+        return job;
+    }
+
+    /**
+     * Run scheduled jobs until the process is terminated
+     */
+    private static int runScheduler(List<ExecutionPlan> plans, JobScheduler scheduler) {
+        try {
+            for (ExecutionPlan plan : plans) {
+                scheduler.schedule(plan);
+            }
+        } catch (IllegalArgumentException e) {
+            return usage(e.getMessage());
+        }
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            log.warn("Shutdown requested, stopping scheduler");
+            scheduler.shutdown(Duration.ofSeconds(SHUTDOWN_GRACE_SECONDS));
+            Log.flush();
+            stopped.countDown();
+        }, "scheduler-shutdown"));
+
+        scheduler.start();
+        for (String line : scheduler.describe()) {
+            log.info(line);
+        }
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return EXIT_OK;
+    }
+
+    /**
+     * Apply one --test-* option
+     * @return false if the option is not a generator setting
+     * @throws IllegalArgumentException if the value is out of range or not a number
+     */
+    private static boolean configureGenerator(TestDataGenerator generator, String option, String value) {
+        switch (option) {
+            case "--test-rows":
+                generator.setRows(Integer.parseInt(value));
+                return true;
+            case "--test-seed":
+                generator.setSeed(Long.parseLong(value));
+                return true;
+            case "--test-overlap":
+                generator.setOverlapRatio(Double.parseDouble(value));
+                return true;
+            case "--test-change":
+                generator.setChangeRatio(Double.parseDouble(value));
+                return true;
+            case "--test-duplicates":
+                generator.setDuplicateRatio(Double.parseDouble(value));
+                return true;
+            case "--test-skew":
+                generator.setSkew(Double.parseDouble(value));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: IntegrationCli [--config <connections.properties>] [--test-mode] " +
+                "[--log-level TRACE|DEBUG|INFO|WARN|ERROR] [--profile-sql] [--latency <ms|min-max|median~shape>] " +
+                "[--no-history] <job.properties>");
+        System.err.println("       IntegrationCli [options] --schedule <job.properties>...");
+        System.err.println("Test data (with --test-mode): [--test-rows N] [--test-seed S] [--test-overlap 0..1] " +
+                "[--test-change 0..1] [--test-duplicates 0..1] [--test-skew S] " +
+                "[--test-fixture <name> [--archive-fixture]]");
+        return EXIT_USAGE;
+    }
+
+    private static String summary(String job, String status, IntegrationProgress progress,
+                                  int rowsAffected, long started, String error) {
+        return "{\"job\":" + jsonString(job) +
+                ",\"status\":" + jsonString(status) +
+                ",\"rowsRead\":" + progress.getRowsRead() +
+                ",\"rowsWritten\":" + progress.getRowsWritten() +
+                ",\"rowsAffected\":" + rowsAffected +
+                ",\"elapsedMs\":" + (System.currentTimeMillis() - started) +
+                ",\"error\":" + jsonString(error) + "}";
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
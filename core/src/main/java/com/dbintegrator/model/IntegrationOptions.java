@@ -0,0 +1,79 @@
+package com.dbintegrator.model;
+
+public class IntegrationOptions {
+    public enum LoadMode {
+        // Initial load when the destination table is empty, merge otherwise; never direct-path
+        AUTO,
+        // Check each source row against the destination and update or insert
+        MERGE,
+        // Destination is empty or being repopulated: insert everything without existence checks,
+        // direct-path where the writer can. Oracle commits every chunk, so a failed load is not rolled back
+        INITIAL_LOAD
+    }
+
+    public enum DedupPolicy {
+        // Write every source row, even when several share a match value
+        NONE,
+        // Keep the first row seen for each match value
+        FIRST,
+        // Keep the last row seen for each match value
+        LAST,
+        // Keep the row with the highest value in the dedup order column
+        MAX_BY
+    }
+
+    private LoadMode loadMode = LoadMode.AUTO;
+    private boolean rebuildIndexes;
+    private DedupPolicy dedupPolicy = DedupPolicy.NONE;
+    private String dedupOrderColumn;
+
+    public static IntegrationOptions defaults() {
+        return new IntegrationOptions();
+    }
+
+    public LoadMode getLoadMode() {
+        return loadMode;
+    }
+
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * @return true if non-unique destination indexes are disabled during an
+     * initial load and rebuilt afterwards
+     */
+    public boolean isRebuildIndexes() {
+        return rebuildIndexes;
+    }
+
+    public void setRebuildIndexes(boolean rebuildIndexes) {
+        this.rebuildIndexes = rebuildIndexes;
+    }
+
+    public DedupPolicy getDedupPolicy() {
+        return dedupPolicy;
+    }
+
+    public void setDedupPolicy(DedupPolicy dedupPolicy) {
+        this.dedupPolicy = dedupPolicy;
+    }
+
+    /**
+     * @return Source column compared by the MAX_BY dedup policy
+     */
+    public String getDedupOrderColumn() {
+        return dedupOrderColumn;
+    }
+
+    public void setDedupOrderColumn(String dedupOrderColumn) {
+        this.dedupOrderColumn = dedupOrderColumn;
+    }
+
+    @Override
+    public String toString() {
+        return "loadMode=" + loadMode + ", rebuildIndexes=" + rebuildIndexes +
+                ", dedupPolicy=" + dedupPolicy +
+                (dedupOrderColumn != null ? ", dedupOrderColumn=" + dedupOrderColumn : "");
+    }
+}
@@ -0,0 +1,106 @@
+package com.dbintegrator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class JobDefinition {
+    public enum JobType {
+        // Insert or update destination rows matched on a key column (mergeData)
+        MERGE,
+        // Copy the first source row over the destination rows selected by a filter (integrateData)
+        UPDATE
+    }
+
+    private String name;
+    private JobType type = JobType.MERGE;
+    private List<ColumnMapping> mappings = new ArrayList<>();
+    private String sourceWhereClause;
+    private String destWhereClause;
+    private String sourceMatchColumn;
+    private String destMatchColumn;
+    private IntegrationOptions options = IntegrationOptions.defaults();
+    private JobSchedule schedule;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public void setType(JobType type) {
+        this.type = type;
+    }
+
+    public List<ColumnMapping> getMappings() {
+        return mappings;
+    }
+
+    public void setMappings(List<ColumnMapping> mappings) {
+        this.mappings = mappings;
+    }
+
+    public String getSourceWhereClause() {
+        return sourceWhereClause;
+    }
+
+    public void setSourceWhereClause(String sourceWhereClause) {
+        this.sourceWhereClause = sourceWhereClause;
+    }
+
+    /**
+     * @return Filter selecting the destination rows of an UPDATE job
+     */
+    public String getDestWhereClause() {
+        return destWhereClause;
+    }
+
+    public void setDestWhereClause(String destWhereClause) {
+        this.destWhereClause = destWhereClause;
+    }
+
+    public String getSourceMatchColumn() {
+        return sourceMatchColumn;
+    }
+
+    public void setSourceMatchColumn(String sourceMatchColumn) {
+        this.sourceMatchColumn = sourceMatchColumn;
+    }
+
+    public String getDestMatchColumn() {
+        return destMatchColumn;
+    }
+
+    public void setDestMatchColumn(String destMatchColumn) {
+        this.destMatchColumn = destMatchColumn;
+    }
+
+    public IntegrationOptions getOptions() {
+        return options;
+    }
+
+    public void setOptions(IntegrationOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * @return When the scheduler runs this job, or null for on-demand jobs
+     */
+    public JobSchedule getSchedule() {
+        return schedule;
+    }
+
+    public void setSchedule(JobSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + type + ", " + mappings.size() + " mappings)";
+    }
+}
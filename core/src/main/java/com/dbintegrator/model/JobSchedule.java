@@ -0,0 +1,74 @@
+package com.dbintegrator.model;
+
+import java.time.Duration;
+
+public class JobSchedule {
+    public enum MisfirePolicy {
+        // Run once as soon as possible for any number of missed fire times
+        RUN_ONCE,
+        // Drop missed fire times and wait for the next regular one
+        SKIP
+    }
+
+    public static final int DEFAULT_PRIORITY = 5;
+
+    // Five-field cron expression; null for fixed-delay schedules
+    private String cron;
+    // Pause between the end of one run and the start of the next; null for cron schedules
+    private Duration fixedDelay;
+    private int priority = DEFAULT_PRIORITY;
+    private MisfirePolicy misfirePolicy = MisfirePolicy.RUN_ONCE;
+    private Duration misfireThreshold = Duration.ofMinutes(1);
+
+    public String getCron() {
+        return cron;
+    }
+
+    public void setCron(String cron) {
+        this.cron = cron;
+    }
+
+    public Duration getFixedDelay() {
+        return fixedDelay;
+    }
+
+    public void setFixedDelay(Duration fixedDelay) {
+        this.fixedDelay = fixedDelay;
+    }
+
+    /**
+     * @return Priority when runs wait for a free slot; higher runs first
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public MisfirePolicy getMisfirePolicy() {
+        return misfirePolicy;
+    }
+
+    public void setMisfirePolicy(MisfirePolicy misfirePolicy) {
+        this.misfirePolicy = misfirePolicy;
+    }
+
+    /**
+     * @return How late a fire may be before it counts as missed
+     */
+    public Duration getMisfireThreshold() {
+        return misfireThreshold;
+    }
+
+    public void setMisfireThreshold(Duration misfireThreshold) {
+        this.misfireThreshold = misfireThreshold;
+    }
+
+    @Override
+    public String toString() {
+        return (cron != null ? "cron '" + cron + "'" : "every " + fixedDelay) +
+                ", priority=" + priority + ", misfire=" + misfirePolicy;
+    }
+}
@@ -0,0 +1,166 @@
+package com.dbintegrator.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Summary of one finished integration run, as kept by RunHistoryStore
+ */
+public class RunHistoryEntry {
+    private long id;
+    private String job;
+    private String status;
+    private long startedMillis;
+    private long finishedMillis;
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsSkipped;
+    private long rowsFailed;
+    // Metric name (see MetricsRegistry) -> milliseconds spent in it during the run
+    private final Map<String, Long> stageMillis = new LinkedHashMap<>();
+    private String error;
+
+    // Filled in by RunHistoryStore.flagRegressions; not stored
+    private double trailingMedianRowsPerSecond = -1;
+    private boolean regression;
+    private String grownStage;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getJob() {
+        return job;
+    }
+
+    public void setJob(String job) {
+        this.job = job;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getStartedMillis() {
+        return startedMillis;
+    }
+
+    public void setStartedMillis(long startedMillis) {
+        this.startedMillis = startedMillis;
+    }
+
+    public long getFinishedMillis() {
+        return finishedMillis;
+    }
+
+    public void setFinishedMillis(long finishedMillis) {
+        this.finishedMillis = finishedMillis;
+    }
+
+    public long getElapsedMillis() {
+        return Math.max(0, finishedMillis - startedMillis);
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    public void setRowsSkipped(long rowsSkipped) {
+        this.rowsSkipped = rowsSkipped;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public void setRowsFailed(long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    /**
+     * @return Source rows read per second of run time, or 0 for an instant run
+     */
+    public double getRowsPerSecond() {
+        long elapsed = getElapsedMillis();
+        return elapsed > 0 ? rowsRead * 1000.0 / elapsed : 0;
+    }
+
+    public Map<String, Long> getStageMillis() {
+        return stageMillis;
+    }
+
+    public long getStageMillis(String stage) {
+        return stageMillis.getOrDefault(stage, 0L);
+    }
+
+    public void setStageMillis(String stage, long millis) {
+        stageMillis.put(stage, millis);
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * @return Median throughput of the job's preceding runs, or -1 if there were too few
+     */
+    public double getTrailingMedianRowsPerSecond() {
+        return trailingMedianRowsPerSecond;
+    }
+
+    public void setTrailingMedianRowsPerSecond(double trailingMedianRowsPerSecond) {
+        this.trailingMedianRowsPerSecond = trailingMedianRowsPerSecond;
+    }
+
+    public boolean isRegression() {
+        return regression;
+    }
+
+    public void setRegression(boolean regression) {
+        this.regression = regression;
+    }
+
+    /**
+     * @return Stage that grew most against the preceding runs, for regressions; otherwise null
+     */
+    public String getGrownStage() {
+        return grownStage;
+    }
+
+    public void setGrownStage(String grownStage) {
+        this.grownStage = grownStage;
+    }
+
+    @Override
+    public String toString() {
+        return job + " " + status + " " + rowsRead + " rows in " + getElapsedMillis() + " ms";
+    }
+}
@@ -0,0 +1,11 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.dbintegrator.Commit")
+@Label("Commit")
+@Description("Commit of the destination transaction; rows is the number written in it")
+public class CommitEvent extends IntegrationEvent {
+}
@@ -0,0 +1,28 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Time spent getting a connection: waiting for one of the manager's
+ * connection permits, or opening the connection itself.
+ */
+@Name("com.dbintegrator.ConnectionWait")
+@Label("Connection Wait")
+@Category({"DB Integrator", "JDBC"})
+@StackTrace(false)
+public class ConnectionWaitEvent extends jdk.jfr.Event {
+    public static final String PERMIT = "PERMIT";
+    public static final String CONNECT = "CONNECT";
+
+    @Label("Database")
+    @Description("Connection info of the manager, user@host:port/sid")
+    public String database;
+
+    @Label("Phase")
+    @Description("PERMIT while waiting for a free slot, CONNECT while the driver opens the connection")
+    public String phase;
+}
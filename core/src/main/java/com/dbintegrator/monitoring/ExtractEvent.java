@@ -0,0 +1,11 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.dbintegrator.Extract")
+@Label("Extract")
+@Description("Source query for one table pair, from execution until its rows are consumed")
+public class ExtractEvent extends IntegrationEvent {
+}
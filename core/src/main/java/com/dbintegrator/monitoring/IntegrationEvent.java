@@ -0,0 +1,75 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import java.util.List;
+
+/**
+ * Common fields of the integration stage events. Recording is controlled
+ * with the usual JFR settings, e.g.
+ * <pre>
+ * java -XX:StartFlightRecording:filename=run.jfr,settings=profile ...
+ * </pre>
+ * and the events appear under "DB Integrator" in JDK Mission Control, on
+ * the same timeline as GC, CPU and socket reads.
+ */
+@Category({"DB Integrator", "Integration"})
+@StackTrace(false)
+public abstract class IntegrationEvent extends jdk.jfr.Event {
+    @Label("Table Pair")
+    @Description("Source and destination table, as SOURCE->DEST")
+    public String tablePair;
+
+    @Label("Batch")
+    @Description("Batch number within the table pair, from 1; 0 for whole-pair events")
+    public int batch;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Estimated Bytes")
+    @Description("Rough size of the row values handled, from their Java types")
+    @DataAmount
+    public long bytes;
+
+    @Label("SQL Id")
+    @Description("Hash identifying the statement text; see sqlId")
+    public String sqlId;
+
+    /**
+     * @return Short stable identifier for a SQL statement, so events can be grouped by statement
+     */
+    public static String sqlId(String sql) {
+        return sql == null ? null : String.format("%08x", sql.hashCode());
+    }
+
+    /**
+     * @return Approximate in-memory size of a row's values
+     */
+    public static long estimateBytes(Object[] row) {
+        long bytes = 0;
+        for (Object value : row) {
+            if (value instanceof String) {
+                bytes += 2L * ((String) value).length();
+            } else if (value instanceof byte[]) {
+                bytes += ((byte[]) value).length;
+            } else if (value != null) {
+                // Numbers and dates: one machine word plus header
+                bytes += 16;
+            }
+        }
+        return bytes;
+    }
+
+    public static long estimateBytes(List<Object[]> rows) {
+        long bytes = 0;
+        for (Object[] row : rows) {
+            bytes += estimateBytes(row);
+        }
+        return bytes;
+    }
+}
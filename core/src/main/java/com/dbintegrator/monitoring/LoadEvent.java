@@ -0,0 +1,16 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.dbintegrator.Load")
+@Label("Load")
+@Description("Writing one batch of inserts and updates to the destination")
+public class LoadEvent extends IntegrationEvent {
+    @Label("Inserts")
+    public int inserts;
+
+    @Label("Updates")
+    public int updates;
+}
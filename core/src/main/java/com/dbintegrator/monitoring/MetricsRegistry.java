@@ -0,0 +1,133 @@
+package com.dbintegrator.monitoring;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Named counters and timers for the integration engine. Counters are
+ * LongAdders and timers stripe their histogram buckets the same way, so
+ * recording from many worker threads stays cheap. Gauges are read only when
+ * someone asks for them, e.g. a queue's size. Hot paths should look a
+ * metric up once and keep the reference; reset() clears values but keeps
+ * the metrics themselves.
+ */
+public final class MetricsRegistry {
+    // Row counters
+    public static final String ROWS_READ = "rows.read";
+    public static final String ROWS_WRITTEN = "rows.written";
+    public static final String ROWS_SKIPPED = "rows.skipped";
+    public static final String ROWS_FAILED = "rows.failed";
+
+    // JDBC timers
+    public static final String CONNECTION_ACQUIRE = "jdbc.connection.acquire";
+    public static final String PERMIT_WAIT = "jdbc.permit.wait";
+    public static final String STATEMENT_EXECUTE = "jdbc.statement.execute";
+    public static final String COMMIT = "jdbc.commit";
+    // One sample per batch of rows handed to the DestinationWriter
+    public static final String WRITE_BATCH = "jdbc.write.batch";
+
+    // Round-trips delayed by LatencyInjectingDriver, and the delay added in microseconds
+    public static final String LATENCY_ROUND_TRIPS = "jdbc.latency.round_trips";
+    public static final String LATENCY_INJECTED = "jdbc.latency.injected_us";
+
+    // Lookups answered by MetadataCache, and those that went to the database
+    public static final String METADATA_HITS = "metadata.cache.hits";
+    public static final String METADATA_MISSES = "metadata.cache.misses";
+
+    // Stage timers
+    public static final String TRANSFORM = "stage.transform";
+
+    // Queue gauges and counters
+    public static final String LOG_QUEUE = "log.queue";
+    public static final String LOG_DROPPED = "log.dropped";
+    public static final String SCHEDULER_QUEUE = "scheduler.queue";
+
+    // JavaFX application thread timers, recorded by the UI's FxStallDetector
+    public static final String FX_RUN_LATER = "fx.runlater";
+    public static final String FX_PULSE = "fx.pulse";
+    public static final String FX_STALL = "fx.stall";
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    /**
+     * @return Registry shared by the services and connection managers of this process
+     */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return Counter with the given name, created on first use
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * @return Timer with the given name, created on first use
+     */
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, Timer::new);
+    }
+
+    /**
+     * Register a value that is sampled on read, replacing any gauge of the same name
+     * @param supplier Must be cheap and safe to call from any thread
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * @return Current value of every counter, by name
+     */
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    /**
+     * @return Current value of every gauge, by name
+     */
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsLong()));
+        return values;
+    }
+
+    /**
+     * @return Snapshot of every timer, by name
+     */
+    public Map<String, Timer.Snapshot> getTimers() {
+        Map<String, Timer.Snapshot> snapshots = new TreeMap<>();
+        timers.forEach((name, timer) -> snapshots.put(name, timer.snapshot()));
+        return snapshots;
+    }
+
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        timers.values().forEach(Timer::reset);
+    }
+
+    /**
+     * @return All metrics, one per line, for logging at the end of a run
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder("Metrics:");
+        getCounters().forEach((name, value) -> report.append("\n  ").append(name).append(" = ").append(value));
+        for (Timer.Snapshot snapshot : getTimers().values()) {
+            if (snapshot.getCount() > 0) {
+                report.append("\n  ").append(snapshot);
+            }
+        }
+        return report.toString();
+    }
+}
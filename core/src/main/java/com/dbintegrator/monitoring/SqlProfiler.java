@@ -0,0 +1,345 @@
+package com.dbintegrator.monitoring;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement SQL profile. When enabled, DatabaseConnectionManager hands
+ * out connections wrapped by wrap(); every statement executed through them
+ * is recorded under its normalized text (literals replaced by ?, whitespace
+ * collapsed) with its latency, the rows fetched or affected and the
+ * estimated round-trips to the server.
+ * <p>
+ * Off by default, since the wrappers go through reflection on every JDBC
+ * call. Enable it with the system property {@code dbintegrator.sql.profile}
+ * or the CLI option {@code --profile-sql}.
+ * <p>
+ * Round-trips are counted as one per execute or executeBatch plus one per
+ * further fetch of a result set, i.e. each time the rows already read reach
+ * a multiple of the fetch size. Drivers that prefetch differently will
+ * differ a little, but the ratio of rows to round-trips shows where a
+ * larger fetch or batch size would help.
+ */
+public final class SqlProfiler {
+    public static final String ENABLED_PROPERTY = "dbintegrator.sql.profile";
+    public static final int DEFAULT_TOP = 10;
+
+    // Oracle's default fetch size, used when the driver reports 0
+    private static final int DEFAULT_FETCH_SIZE = 10;
+    private static final int MAX_SQL_LENGTH = 160;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final SqlProfiler GLOBAL = new SqlProfiler(Boolean.getBoolean(ENABLED_PROPERTY));
+
+    private volatile boolean enabled;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+
+    private SqlProfiler(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Profiler used by every DatabaseConnectionManager of this process
+     */
+    public static SqlProfiler global() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes effect for connections opened afterwards
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Connection recording its statements into this profiler
+     */
+    public Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    /**
+     * @return SQL with literals replaced by ? and whitespace collapsed, so
+     *         statements differing only in values are counted together
+     */
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return Statistics of every statement seen, by normalized SQL
+     */
+    public List<StatementStats> getStatements() {
+        return new ArrayList<>(statements.values());
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    /**
+     * @param top Number of statements to list
+     * @return The statements with the most total execution time, one per line
+     */
+    public String report(int top) {
+        List<StatementStats> byTime = getStatements();
+        byTime.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+
+        StringBuilder report = new StringBuilder("Top SQL by total time (")
+                .append(Math.min(top, byTime.size())).append(" of ").append(byTime.size()).append(" statements):");
+        for (int i = 0; i < byTime.size() && i < top; i++) {
+            report.append("\n  ").append(byTime.get(i));
+        }
+        return report.toString();
+    }
+
+    StatementStats stats(String sql) {
+        String normalized = normalize(sql);
+        return statements.computeIfAbsent(normalized, StatementStats::new);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlProfiler.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long updateCount(Object result) {
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                // SUCCESS_NO_INFO and EXECUTE_FAILED are negative
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        if (result instanceof long[]) {
+            long rows = 0;
+            for (long count : (long[]) result) {
+                rows += Math.max(0, count);
+            }
+            return rows;
+        }
+        if (result instanceof Number) {
+            return Math.max(0, ((Number) result).longValue());
+        }
+        return 0;
+    }
+
+    public static final class StatementStats {
+        private final String sql;
+        private final Timer timer;
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder roundTrips = new LongAdder();
+        private final LongAdder fetchNanos = new LongAdder();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+            this.timer = new Timer(IntegrationEvent.sqlId(sql));
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public String getSqlId() {
+            return timer.getName();
+        }
+
+        /**
+         * @return Execution latency; fetch time is in getFetchNanos
+         */
+        public Timer.Snapshot getLatency() {
+            return timer.snapshot();
+        }
+
+        public long getExecutions() {
+            return timer.getCount();
+        }
+
+        public long getTotalNanos() {
+            return timer.snapshot().getTotalNanos() + fetchNanos.sum();
+        }
+
+        public long getFetchNanos() {
+            return fetchNanos.sum();
+        }
+
+        /**
+         * @return Rows fetched by queries plus rows affected by updates
+         */
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public long getRoundTrips() {
+            return roundTrips.sum();
+        }
+
+        @Override
+        public String toString() {
+            Timer.Snapshot latency = timer.snapshot();
+            String text = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+            return String.format("%s execs=%d total=%.1fms fetch=%.1fms p50=%.3fms p99=%.3fms max=%.3fms " +
+                            "rows=%d roundTrips=%d  %s", latency.getName(), latency.getCount(),
+                    getTotalNanos() / 1e6, fetchNanos.sum() / 1e6, latency.getP50Nanos() / 1e6,
+                    latency.getP99Nanos() / 1e6, latency.getMaxNanos() / 1e6, rows.sum(), roundTrips.sum(), text);
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+
+        ConnectionHandler(Connection delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = SqlProfiler.invoke(delegate, method, args);
+            if (result instanceof PreparedStatement && args != null && args[0] instanceof String) {
+                // prepareStatement and prepareCall
+                Class<? extends Statement> type = result instanceof java.sql.CallableStatement
+                        ? java.sql.CallableStatement.class : PreparedStatement.class;
+                return proxy(type, new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler((Statement) result, (Connection) proxy, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement delegate;
+        private final Connection connection;
+        // Prepared statements are recorded under the SQL they were prepared with
+        private final StatementStats preparedStats;
+        // Plain statements batch SQL given to addBatch
+        private String batchSql;
+
+        StatementHandler(Statement delegate, Connection connection, String preparedSql) {
+            this.delegate = delegate;
+            this.connection = connection;
+            this.preparedStats = preparedSql != null ? stats(preparedSql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return connection;
+            }
+            if ("addBatch".equals(name) && args != null && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return SqlProfiler.invoke(delegate, method, args);
+            }
+
+            StatementStats stats;
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                stats = stats((String) args[0]);
+            } else if (preparedStats != null) {
+                stats = preparedStats;
+            } else {
+                stats = stats(batchSql);
+            }
+            if (name.contains("Batch")) {
+                batchSql = null;
+            }
+
+            long start = stats.timer.start();
+            Object result;
+            try {
+                result = SqlProfiler.invoke(delegate, method, args);
+            } finally {
+                stats.timer.stop(start);
+                stats.roundTrips.increment();
+            }
+
+            if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, (Statement) proxy, stats));
+            }
+            if (!"execute".equals(name)) {
+                stats.rows.add(updateCount(result));
+            } else if (Boolean.FALSE.equals(result)) {
+                stats.rows.add(Math.max(0, delegate.getUpdateCount()));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet delegate;
+        private final Statement statement;
+        private final StatementStats stats;
+        private long fetched;
+
+        ResultSetHandler(ResultSet delegate, Statement statement, StatementStats stats) {
+            this.delegate = delegate;
+            this.statement = statement;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getStatement".equals(name)) {
+                return statement;
+            }
+            if (!"next".equals(name)) {
+                return SqlProfiler.invoke(delegate, method, args);
+            }
+
+            // The execute call brought the first fetch; later ones start once it is used up
+            int fetchSize = delegate.getFetchSize() > 0 ? delegate.getFetchSize() : DEFAULT_FETCH_SIZE;
+            boolean refetch = fetched > 0 && fetched % fetchSize == 0;
+            long start = refetch ? System.nanoTime() : 0;
+            Object result = SqlProfiler.invoke(delegate, method, args);
+            if (refetch) {
+                stats.fetchNanos.add(System.nanoTime() - start);
+                stats.roundTrips.increment();
+            }
+            if (Boolean.TRUE.equals(result)) {
+                fetched++;
+                stats.rows.increment();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.dbintegrator.monitoring;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.dbintegrator.Transform")
+@Label("Transform")
+@Description("Building one batch: reading source rows, matching them against the destination and mapping values")
+public class TransformEvent extends IntegrationEvent {
+    @Label("Lookups")
+    @Description("Destination existence checks issued for the batch")
+    public int lookups;
+}
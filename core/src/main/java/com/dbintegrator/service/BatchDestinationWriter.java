@@ -0,0 +1,140 @@
+package com.dbintegrator.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Portable write strategy based on JDBC statement batching. Each chunk of
+ * rows is sent with a single executeBatch call.
+ */
+public class BatchDestinationWriter implements DestinationWriter {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    // Rows carried by each multi-row INSERT in bulk loads
+    private static final int ROWS_PER_INSERT = 100;
+
+    private final int batchSize;
+
+    public BatchDestinationWriter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public BatchDestinationWriter(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public int insertRows(Connection conn, String table, List<String> columns,
+                          List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        return executeBatched(conn, sql.toString(), rows);
+    }
+
+    @Override
+    public int bulkInsertRows(Connection conn, String table, List<String> columns,
+                              List<Object[]> rows) throws SQLException {
+        int fullStatements = rows.size() / ROWS_PER_INSERT;
+        if (fullStatements == 0) {
+            return insertRows(conn, table, columns, rows);
+        }
+
+        // INSERT INTO t (a, b) VALUES (?, ?), (?, ?), ... with ROWS_PER_INSERT row groups
+        StringBuilder rowGroup = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            rowGroup.append(i == 0 ? "?" : ", ?");
+        }
+        rowGroup.append(")");
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(String.join(", ", columns)).append(") VALUES ");
+        for (int r = 0; r < ROWS_PER_INSERT; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(rowGroup);
+        }
+
+        List<Object[]> statementRows = new ArrayList<>(fullStatements);
+        for (int s = 0; s < fullStatements; s++) {
+            Object[] values = new Object[ROWS_PER_INSERT * columns.size()];
+            for (int r = 0; r < ROWS_PER_INSERT; r++) {
+                Object[] row = rows.get(s * ROWS_PER_INSERT + r);
+                System.arraycopy(row, 0, values, r * columns.size(), columns.size());
+            }
+            statementRows.add(values);
+        }
+
+        int total = executeBatched(conn, sql.toString(), statementRows);
+        total += insertRows(conn, table, columns, rows.subList(fullStatements * ROWS_PER_INSERT, rows.size()));
+        return total;
+    }
+
+    @Override
+    public int updateRows(Connection conn, String table, List<String> setColumns,
+                          String keyColumn, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        for (int i = 0; i < setColumns.size(); i++) {
+            sql.append(setColumns.get(i)).append(" = ?");
+            if (i < setColumns.size() - 1) {
+                sql.append(", ");
+            }
+        }
+        sql.append(" WHERE ").append(keyColumn).append(" = ?");
+
+        return executeBatched(conn, sql.toString(), rows);
+    }
+
+    private int executeBatched(Connection conn, String sql, List<Object[]> rows) throws SQLException {
+        int total = 0;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    stmt.setObject(i + 1, row[i]);
+                }
+                stmt.addBatch();
+
+                if (++pending == batchSize) {
+                    total += countAffected(stmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                total += countAffected(stmt.executeBatch());
+            }
+        }
+
+        return total;
+    }
+
+    static int countAffected(int[] results) {
+        int total = 0;
+        for (int result : results) {
+            if (result > 0) {
+                total += result;
+            } else if (result == Statement.SUCCESS_NO_INFO) {
+                // Driver executed the row but did not report a count
+                total++;
+            }
+        }
+        return total;
+    }
+}
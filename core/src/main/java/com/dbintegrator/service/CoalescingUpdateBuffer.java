@@ -0,0 +1,171 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.util.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds pending UPDATEs keyed by destination row (table plus WHERE clause)
+ * and keeps only the final image of each row. When several source rows are
+ * written to the same destination row within one flush window, the
+ * destination sees a single UPDATE carrying the last value of every column.
+ */
+public class CoalescingUpdateBuffer {
+    private static final Log log = Log.get(CoalescingUpdateBuffer.class);
+
+    public static final int DEFAULT_MAX_PENDING = 1000;
+
+    private final int maxPending;
+
+    // Destination row -> column -> final value, in first-staged order
+    private final Map<RowKey, Map<String, Object>> pending = new LinkedHashMap<>();
+    private int updatesStaged;
+    private int updatesCoalesced;
+    private int rowsUpdated;
+
+    public CoalescingUpdateBuffer() {
+        this(DEFAULT_MAX_PENDING);
+    }
+
+    /**
+     * @param maxPending Number of distinct destination rows held before the
+     *                   buffer reports itself full and should be flushed
+     */
+    public CoalescingUpdateBuffer(int maxPending) {
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * Stage an update, replacing any values already staged for the same row
+     * @param table Destination table
+     * @param whereClause Clause identifying the destination row(s)
+     * @param values Column name -> new value
+     */
+    public void stage(String table, String whereClause, Map<String, Object> values) {
+        updatesStaged++;
+
+        RowKey key = new RowKey(table, whereClause);
+        Map<String, Object> image = pending.get(key);
+        if (image == null) {
+            pending.put(key, new LinkedHashMap<>(values));
+        } else {
+            updatesCoalesced++;
+            image.putAll(values);
+        }
+    }
+
+    public boolean isFull() {
+        return pending.size() >= maxPending;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Number of distinct destination rows waiting to be written
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getUpdatesStaged() {
+        return updatesStaged;
+    }
+
+    /**
+     * @return Staged updates absorbed into an earlier image of the same row
+     */
+    public int getUpdatesCoalesced() {
+        return updatesCoalesced;
+    }
+
+    /**
+     * @return Rows updated by every flush of this buffer so far
+     */
+    public int getRowsUpdated() {
+        return rowsUpdated;
+    }
+
+    /**
+     * Write one UPDATE per pending row and clear the buffer. The caller owns
+     * the transaction.
+     * @param conn Destination connection
+     * @return Number of rows updated
+     * @throws SQLException if database access error occurs
+     */
+    public int flush(Connection conn) throws SQLException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // Rows whose UPDATE text is identical share one batched statement
+        Map<String, List<Map.Entry<RowKey, Map<String, Object>>>> byStatement = new LinkedHashMap<>();
+        for (Map.Entry<RowKey, Map<String, Object>> entry : pending.entrySet()) {
+            byStatement.computeIfAbsent(updateSql(entry.getKey(), entry.getValue()), k -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        int totalRowsUpdated = 0;
+        for (Map.Entry<String, List<Map.Entry<RowKey, Map<String, Object>>>> group : byStatement.entrySet()) {
+            log.debug("Flushing coalesced updates", "rows", group.getValue().size(), "sql", group.getKey());
+
+            try (PreparedStatement stmt = conn.prepareStatement(group.getKey())) {
+                for (Map.Entry<RowKey, Map<String, Object>> row : group.getValue()) {
+                    int index = 1;
+                    for (Object value : row.getValue().values()) {
+                        stmt.setObject(index++, value);
+                    }
+                    stmt.addBatch();
+                }
+                totalRowsUpdated += BatchDestinationWriter.countAffected(stmt.executeBatch());
+            }
+        }
+
+        pending.clear();
+        rowsUpdated += totalRowsUpdated;
+        return totalRowsUpdated;
+    }
+
+    private static String updateSql(RowKey key, Map<String, Object> image) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(key.table).append(" SET ");
+        int i = 0;
+        for (String column : image.keySet()) {
+            if (i++ > 0) {
+                sql.append(", ");
+            }
+            sql.append(column).append(" = ?");
+        }
+        return sql.append(" WHERE ").append(key.whereClause).toString();
+    }
+
+    private static final class RowKey {
+        final String table;
+        final String whereClause;
+
+        RowKey(String table, String whereClause) {
+            this.table = table;
+            this.whereClause = whereClause;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RowKey)) {
+                return false;
+            }
+            RowKey other = (RowKey) o;
+            return table.equalsIgnoreCase(other.table) && whereClause.equals(other.whereClause);
+        }
+
+        @Override
+        public int hashCode() {
+            return table.toUpperCase().hashCode() * 31 + whereClause.hashCode();
+        }
+    }
+}
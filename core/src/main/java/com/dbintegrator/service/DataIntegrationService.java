@@ -0,0 +1,747 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.IntegrationOptions;
+import com.dbintegrator.monitoring.CommitEvent;
+import com.dbintegrator.monitoring.ExtractEvent;
+import com.dbintegrator.monitoring.IntegrationEvent;
+import com.dbintegrator.monitoring.LoadEvent;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.Timer;
+import com.dbintegrator.monitoring.TransformEvent;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.DialectDescriptor;
+import com.dbintegrator.util.Log;
+
+import java.sql.*;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DataIntegrationService {
+    private static final Log log = Log.get(DataIntegrationService.class);
+
+    // Rows accumulated by mergeData before they are handed to the writer
+    private static final int WRITE_BATCH_SIZE = 500;
+    // Initial loads skip existence checks, so they can afford larger chunks
+    private static final int INITIAL_LOAD_BATCH_SIZE = 5000;
+
+    // Layout of source rows read by mergeData: ID, match value, then mapped values
+    private static final int SOURCE_MATCH_INDEX = 1;
+    private static final int SOURCE_VALUES_OFFSET = 2;
+
+    // Process-wide metrics; looked up once so the row loops only touch the adders
+    private static final LongAdder ROWS_READ = MetricsRegistry.global().counter(MetricsRegistry.ROWS_READ);
+    private static final LongAdder ROWS_WRITTEN = MetricsRegistry.global().counter(MetricsRegistry.ROWS_WRITTEN);
+    private static final LongAdder ROWS_SKIPPED = MetricsRegistry.global().counter(MetricsRegistry.ROWS_SKIPPED);
+    private static final LongAdder ROWS_FAILED = MetricsRegistry.global().counter(MetricsRegistry.ROWS_FAILED);
+    private static final Timer STATEMENT_EXECUTE = MetricsRegistry.global().timer(MetricsRegistry.STATEMENT_EXECUTE);
+    private static final Timer COMMIT = MetricsRegistry.global().timer(MetricsRegistry.COMMIT);
+    private static final Timer WRITE_BATCH = MetricsRegistry.global().timer(MetricsRegistry.WRITE_BATCH);
+    private static final Timer TRANSFORM = MetricsRegistry.global().timer(MetricsRegistry.TRANSFORM);
+
+    private final DatabaseConnectionManager sourceDbManager;
+    private final DatabaseConnectionManager destDbManager;
+
+    // Row counts and cancellation for the current run
+    private IntegrationProgress progress = new IntegrationProgress();
+    // Known destination dialect from a compiled plan; the manager's when null
+    private DialectDescriptor destDialect;
+    private DestinationWriter destinationWriter;
+
+    public DataIntegrationService(DatabaseConnectionManager sourceDbManager,
+                                  DatabaseConnectionManager destDbManager) {
+        this.sourceDbManager = sourceDbManager;
+        this.destDbManager = destDbManager;
+    }
+
+    public IntegrationProgress getProgress() {
+        return progress;
+    }
+
+    /**
+     * Report progress to, and take cancellation from, the given tracker
+     */
+    public void setProgress(IntegrationProgress progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Use a dialect resolved in advance instead of the destination manager's
+     */
+    public void setDestDialect(DialectDescriptor destDialect) {
+        this.destDialect = destDialect;
+    }
+
+    /**
+     * Write merged rows with this writer instead of the one picked for the
+     * destination dialect, e.g. to compare strategies
+     * @param destinationWriter Writer to use, or null for the dialect's default
+     */
+    public void setDestinationWriter(DestinationWriter destinationWriter) {
+        this.destinationWriter = destinationWriter;
+    }
+
+    public int integrateData(List<ColumnMapping> mappings) throws SQLException {
+        return integrateData(mappings, null, null);
+    }
+
+    public int integrateData(List<ColumnMapping> mappings,
+                             String sourceWhereClause, String destWhereClause) throws SQLException {
+        CoalescingUpdateBuffer updates = new CoalescingUpdateBuffer();
+        integrateData(mappings, sourceWhereClause, destWhereClause, updates);
+        return flushUpdates(updates);
+    }
+
+    /**
+     * Stage the updates for one source/destination pairing without writing them.
+     * Pairings that target the same destination row collapse to the last image
+     * in the buffer; call flushUpdates to apply them.
+     * @param mappings Column mappings
+     * @param sourceWhereClause Filter selecting the source row
+     * @param destWhereClause Filter selecting the destination row
+     * @param updates Buffer collecting the updates
+     * @return Number of updates staged
+     * @throws SQLException if database access error occurs
+     */
+    public int integrateData(List<ColumnMapping> mappings, String sourceWhereClause,
+                             String destWhereClause, CoalescingUpdateBuffer updates) throws SQLException {
+        if (mappings.isEmpty()) {
+            return 0;
+        }
+
+        // Group mappings by table pairs
+        Map<String, List<ColumnMapping>> tableGroupedMappings = new HashMap<>();
+        for (ColumnMapping mapping : mappings) {
+            String key = mapping.getSourceTable() + "->" + mapping.getDestinationTable();
+            if (!tableGroupedMappings.containsKey(key)) {
+                tableGroupedMappings.put(key, new ArrayList<>());
+            }
+            tableGroupedMappings.get(key).add(mapping);
+        }
+
+        int totalUpdatesStaged = 0;
+
+        // Process each table pair
+        for (Map.Entry<String, List<ColumnMapping>> entry : tableGroupedMappings.entrySet()) {
+            progress.checkCancelled();
+
+            List<ColumnMapping> tableMappings = entry.getValue();
+            ColumnMapping firstMapping = tableMappings.get(0);
+            String sourceTable = firstMapping.getSourceTable();
+            String destTable = firstMapping.getDestinationTable();
+
+            // Retrieve data from source table with the source WHERE clause
+            StringBuilder sourceQueryBuilder = new StringBuilder("SELECT ");
+
+            // Always include ID for reference
+            sourceQueryBuilder.append(idColumnFor(sourceTable)).append(", ");
+
+            for (int i = 0; i < tableMappings.size(); i++) {
+                sourceQueryBuilder.append(tableMappings.get(i).getSourceColumn().getName());
+                if (i < tableMappings.size() - 1) {
+                    sourceQueryBuilder.append(", ");
+                }
+            }
+            sourceQueryBuilder.append(" FROM ").append(sourceTable);
+
+            if (sourceWhereClause != null && !sourceWhereClause.isEmpty()) {
+                sourceQueryBuilder.append(" WHERE ").append(sourceWhereClause);
+            }
+
+            // Log the operation
+            log.info("Executing source query", "sql", sourceQueryBuilder);
+
+            ExtractEvent extractEvent = new ExtractEvent();
+            extractEvent.begin();
+
+            try (Connection sourceConn = progress.track(sourceDbManager.getConnection());
+                 Statement sourceStmt = sourceConn.createStatement();
+                 ResultSet sourceData = executeQuery(sourceStmt, sourceQueryBuilder.toString())) {
+
+                if (sourceData.next()) {
+                    progress.addRowsRead(1);
+                    ROWS_READ.increment();
+
+                    // Set values from source to destination
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (ColumnMapping mapping : tableMappings) {
+                        values.put(mapping.getDestinationColumn().getName(),
+                                sourceData.getObject(mapping.getSourceColumn().getName()));
+                    }
+
+                    // Safety measure - don't update everything if no WHERE clause
+                    String rowFilter = destWhereClause != null && !destWhereClause.isEmpty()
+                            ? destWhereClause : "ROWNUM = 1";
+
+                    updates.stage(destTable, rowFilter, values);
+                    totalUpdatesStaged++;
+
+                    endEvent(extractEvent, entry.getKey(), 0, 1,
+                            extractEvent.isEnabled() ? IntegrationEvent.estimateBytes(values.values().toArray()) : 0,
+                            sourceQueryBuilder.toString());
+                } else {
+                    log.info("No source data found for the specified criteria", "table", sourceTable);
+                    endEvent(extractEvent, entry.getKey(), 0, 0, 0, sourceQueryBuilder.toString());
+                }
+            }
+
+            if (updates.isFull()) {
+                flushUpdates(updates);
+            }
+        }
+
+        return totalUpdatesStaged;
+    }
+
+    /**
+     * Write the updates staged in a buffer to the destination in one transaction
+     * @param updates Buffer filled by integrateData
+     * @return Number of rows updated
+     * @throws SQLException if database access error occurs
+     */
+    public int flushUpdates(CoalescingUpdateBuffer updates) throws SQLException {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        progress.checkCancelled();
+
+        try (Connection destConn = progress.track(destDbManager.getConnection())) {
+            destConn.setAutoCommit(false);
+            int pending = updates.getPendingCount();
+            try {
+                LoadEvent loadEvent = new LoadEvent();
+                loadEvent.begin();
+                long start = STATEMENT_EXECUTE.start();
+                int rowsUpdated = updates.flush(destConn);
+                STATEMENT_EXECUTE.stop(start);
+                WRITE_BATCH.stop(start);
+                // Staged updates may span table pairs, so these events have none
+                loadEvent.updates = pending;
+                endEvent(loadEvent, null, 0, rowsUpdated, 0, null);
+                commit(destConn, null, rowsUpdated);
+                progress.addRowsWritten(rowsUpdated);
+                ROWS_WRITTEN.add(rowsUpdated);
+                return rowsUpdated;
+            } catch (SQLException e) {
+                ROWS_FAILED.add(pending);
+                destConn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    public int mergeData(List<ColumnMapping> mappings,
+                         String sourceWhereClause,
+                         String destMatchColumn,
+                         String sourceMatchColumn) throws SQLException {
+        return mergeData(mappings, sourceWhereClause, destMatchColumn, sourceMatchColumn,
+                IntegrationOptions.defaults());
+    }
+
+    /**
+     * Create or update destination rows from source rows matched on a column.
+     * <p>
+     * Each table pair is written in its own transaction and rolled back if
+     * it fails, but table pairs finished earlier stay committed. With load
+     * mode INITIAL_LOAD the writer may load direct-path, which on Oracle
+     * commits every chunk, so a failed or cancelled initial load cannot be
+     * rolled back and leaves the rows written so far. AUTO never loads
+     * direct-path.
+     * @param mappings Column mappings, grouped internally by table pair
+     * @param sourceWhereClause Optional filter for the source rows
+     * @param destMatchColumn Destination column compared with the source match column
+     * @param sourceMatchColumn Source column identifying the destination row
+     * @param options Load mode and related settings
+     * @return Number of rows inserted or updated
+     * @throws SQLException if database access error occurs
+     */
+    public int mergeData(List<ColumnMapping> mappings,
+                         String sourceWhereClause,
+                         String destMatchColumn,
+                         String sourceMatchColumn,
+                         IntegrationOptions options) throws SQLException {
+        if (mappings.isEmpty()) {
+            return 0;
+        }
+
+        // Group mappings by table pairs
+        Map<String, List<ColumnMapping>> tableGroupedMappings = new HashMap<>();
+        for (ColumnMapping mapping : mappings) {
+            String key = mapping.getSourceTable() + "->" + mapping.getDestinationTable();
+            if (!tableGroupedMappings.containsKey(key)) {
+                tableGroupedMappings.put(key, new ArrayList<>());
+            }
+            tableGroupedMappings.get(key).add(mapping);
+        }
+
+        int totalRowsMerged = 0;
+
+        // Process each table pair
+        for (Map.Entry<String, List<ColumnMapping>> entry : tableGroupedMappings.entrySet()) {
+            List<ColumnMapping> tableMappings = entry.getValue();
+            ColumnMapping firstMapping = tableMappings.get(0);
+            String sourceTable = firstMapping.getSourceTable();
+            String destTable = firstMapping.getDestinationTable();
+
+            // Determine the correct ID column names based on the tables
+            String sourceIdColumn = idColumnFor(sourceTable);
+            String destIdColumn = idColumnFor(destTable);
+
+            // Retrieve data from source table with the source WHERE clause
+            StringBuilder sourceQueryBuilder = new StringBuilder("SELECT ");
+            sourceQueryBuilder.append(sourceIdColumn).append(", ");
+            sourceQueryBuilder.append(sourceMatchColumn).append(", ");
+
+            // Add all the column names for the mapping
+            for (int i = 0; i < tableMappings.size(); i++) {
+                sourceQueryBuilder.append(tableMappings.get(i).getSourceColumn().getName());
+                if (i < tableMappings.size() - 1) {
+                    sourceQueryBuilder.append(", ");
+                }
+            }
+
+            // MAX_BY deduplication needs its order column as the last value of each row
+            boolean orderColumnSelected = options.getDedupPolicy() == IntegrationOptions.DedupPolicy.MAX_BY;
+            if (orderColumnSelected) {
+                if (options.getDedupOrderColumn() == null || options.getDedupOrderColumn().isEmpty()) {
+                    throw new SQLException("Deduplication policy MAX_BY requires an order column");
+                }
+                sourceQueryBuilder.append(", ").append(options.getDedupOrderColumn());
+            }
+            sourceQueryBuilder.append(" FROM ").append(sourceTable);
+
+            if (sourceWhereClause != null && !sourceWhereClause.isEmpty()) {
+                sourceQueryBuilder.append(" WHERE ").append(sourceWhereClause);
+            }
+
+            // Log the operation
+            log.info("Executing source query", "sql", sourceQueryBuilder);
+
+            TableWritePlan plan = new TableWritePlan(tableMappings, destTable, destIdColumn, destMatchColumn);
+            int sourceWidth = SOURCE_VALUES_OFFSET + tableMappings.size() + (orderColumnSelected ? 1 : 0);
+
+            progress.checkCancelled();
+
+            String sourceQuery = sourceQueryBuilder.toString();
+            ExtractEvent extractEvent = new ExtractEvent();
+            extractEvent.begin();
+            // Rows and estimated bytes pulled from the source, for the extract event
+            long[] extracted = new long[2];
+            boolean measureBytes = extractEvent.isEnabled();
+
+            try (Connection sourceConn = progress.track(sourceDbManager.getConnection());
+                 Statement sourceStmt = sourceConn.createStatement();
+                 ResultSet sourceData = executeQuery(sourceStmt, sourceQuery)) {
+
+                Connection destConn = progress.track(destDbManager.getConnection());
+                destConn.setAutoCommit(false); // Start transaction for better performance
+                List<String> indexRebuilds = new ArrayList<>();
+
+                try {
+                    DialectDescriptor dialect = destDialect != null ? destDialect : destDbManager.getDialect();
+                    DestinationWriter writer = destinationWriter != null
+                            ? destinationWriter : DestinationWriter.forDialect(dialect);
+
+                    boolean initialLoad = useInitialLoad(options, destConn, destTable);
+                    // Direct-path commits as it goes, so only when asked for explicitly
+                    boolean directPath = options.getLoadMode() == IntegrationOptions.LoadMode.INITIAL_LOAD;
+                    log.info(initialLoad ? "Initial load" : "Merge", "table", destTable,
+                            "writer", writer.getClass().getSimpleName());
+
+                    if (initialLoad && options.isRebuildIndexes()) {
+                        indexRebuilds = IndexMaintenance.disableNonUniqueIndexes(destConn, dialect.getDialect(), destTable);
+                    }
+
+                    RowSource rows = () -> {
+                        progress.checkCancelled();
+                        if (!sourceData.next()) {
+                            return null;
+                        }
+                        progress.addRowsRead(1);
+                        ROWS_READ.increment();
+                        Object[] row = readSourceRow(sourceData, sourceWidth);
+                        extracted[0]++;
+                        if (measureBytes) {
+                            extracted[1] += IntegrationEvent.estimateBytes(row);
+                        }
+                        return row;
+                    };
+                    if (options.getDedupPolicy() != IntegrationOptions.DedupPolicy.NONE) {
+                        rows = deduplicate(rows, options.getDedupPolicy(), sourceWidth - 1, sourceMatchColumn);
+                    }
+
+                    long committedBefore = progress.getRowsCommitted();
+                    int rowsMerged = writeRows(rows, destConn, writer, plan, initialLoad, directPath);
+                    totalRowsMerged += rowsMerged;
+                    // The source is drained once writeRows returns
+                    endEvent(extractEvent, plan.tablePair, 0, extracted[0], extracted[1], sourceQuery);
+
+                    // Commit the transaction; direct-path inserts are committed already
+                    commit(destConn, plan.tablePair, rowsMerged - (progress.getRowsCommitted() - committedBefore));
+
+                } catch (SQLException e) {
+                    // Rollback on error
+                    try {
+                        destConn.rollback();
+                    } catch (SQLException ex) {
+                        log.error("Error rolling back transaction", "table", destTable, "error", ex.getMessage());
+                    }
+                    throw e;
+                } finally {
+                    // Put disabled indexes back even if the load failed part-way
+                    if (!indexRebuilds.isEmpty()) {
+                        try {
+                            IndexMaintenance.rebuildIndexes(destConn, indexRebuilds);
+                        } catch (SQLException ex) {
+                            log.error("Error rebuilding indexes", "table", destTable, "error", ex.getMessage());
+                        }
+                    }
+
+                    // Reset auto-commit and close the connection
+                    try {
+                        destConn.setAutoCommit(true);
+                        destConn.close();
+                    } catch (SQLException ex) {
+                        log.error("Error closing destination connection", "error", ex.getMessage());
+                    }
+                }
+            }
+        }
+
+        return totalRowsMerged;
+    }
+
+    /**
+     * Streams source rows into the destination. In merge mode every row is
+     * checked against the destination match column; an initial load skips the
+     * check and numbers new rows sequentially, and directPath inserts with
+     * the writer's bulk path.
+     */
+    private int writeRows(RowSource rows, Connection destConn, DestinationWriter writer,
+                          TableWritePlan plan, boolean initialLoad, boolean directPath) throws SQLException {
+        int rowsWritten = 0;
+        int batchSize = initialLoad ? INITIAL_LOAD_BATCH_SIZE : WRITE_BATCH_SIZE;
+        int nextId = firstFreeId(destConn, plan);
+
+        // Each batch is a transform event (building it) followed by a load event (writing it)
+        int batch = 1;
+        int lookups = 0;
+        TransformEvent transformEvent = new TransformEvent();
+        transformEvent.begin();
+        long transformStart = TRANSFORM.start();
+
+        List<Object[]> pendingInserts = new ArrayList<>();
+        List<Object[]> pendingUpdates = new ArrayList<>();
+
+        // IDs assigned to rows inserted during this run, so repeated match
+        // values update the new row instead of inserting it twice
+        Map<String, Integer> insertedIds = new HashMap<>();
+
+        PreparedStatement checkStmt = initialLoad ? null : destConn.prepareStatement(plan.checkQuery);
+        try {
+            Object[] source;
+            while ((source = rows.next()) != null) {
+                String matchValue = (String) source[SOURCE_MATCH_INDEX];
+
+                Integer existingId = matchValue != null ? insertedIds.get(matchValue) : null;
+                if (existingId == null && checkStmt != null) {
+                    // Check if a record with this match value exists in destination
+                    lookups++;
+                    checkStmt.setString(1, matchValue);
+                    long start = STATEMENT_EXECUTE.start();
+                    try (ResultSet checkResult = checkStmt.executeQuery()) {
+                        STATEMENT_EXECUTE.stop(start);
+                        if (checkResult.next()) {
+                            existingId = checkResult.getInt(plan.destIdColumn);
+                        }
+                    }
+                }
+
+                if (existingId != null) {
+                    // UPDATE existing record: mapped values followed by the key
+                    Object[] row = new Object[plan.tableMappings.size() + 1];
+                    for (int i = 0; i < plan.tableMappings.size(); i++) {
+                        row[i] = source[SOURCE_VALUES_OFFSET + i];
+                    }
+                    row[plan.tableMappings.size()] = existingId;
+                    pendingUpdates.add(row);
+                } else {
+                    // INSERT new record
+                    int newId = nextId++;
+
+                    Object[] row = new Object[plan.insertColumns.size()];
+                    row[0] = newId;
+                    row[1] = matchValue;
+                    for (int i = 0; i < plan.insertMappingIndexes.size(); i++) {
+                        row[i + 2] = source[SOURCE_VALUES_OFFSET + plan.insertMappingIndexes.get(i)];
+                    }
+                    pendingInserts.add(row);
+
+                    if (matchValue != null) {
+                        insertedIds.put(matchValue, newId);
+                    }
+                }
+
+                if (pendingInserts.size() + pendingUpdates.size() >= batchSize) {
+                    endTransform(transformEvent, transformStart, plan, batch, lookups, pendingInserts, pendingUpdates);
+                    rowsWritten += flushPendingWrites(writer, destConn, plan, pendingInserts, pendingUpdates,
+                            directPath, batch);
+                    batch++;
+                    lookups = 0;
+                    transformEvent = new TransformEvent();
+                    transformEvent.begin();
+                    transformStart = TRANSFORM.start();
+                }
+            }
+
+            endTransform(transformEvent, transformStart, plan, batch, lookups, pendingInserts, pendingUpdates);
+            rowsWritten += flushPendingWrites(writer, destConn, plan, pendingInserts, pendingUpdates,
+                    directPath, batch);
+        } finally {
+            if (checkStmt != null) {
+                checkStmt.close();
+            }
+        }
+
+        return rowsWritten;
+    }
+
+    /**
+     * Reads one source row: ID, match value (as text, like the destination
+     * lookup expects), mapped values, then the dedup order column if selected.
+     */
+    private static Object[] readSourceRow(ResultSet sourceData, int width) throws SQLException {
+        Object[] row = new Object[width];
+        for (int i = 0; i < width; i++) {
+            row[i] = i == SOURCE_MATCH_INDEX ? sourceData.getString(i + 1) : sourceData.getObject(i + 1);
+        }
+        return row;
+    }
+
+    /**
+     * Drains the source and collapses rows sharing a match value before they reach the writer
+     */
+    private static RowSource deduplicate(RowSource rows, IntegrationOptions.DedupPolicy policy,
+                                         int orderIndex, String sourceMatchColumn) throws SQLException {
+        SourceDeduplicator deduplicator = new SourceDeduplicator(policy, SOURCE_MATCH_INDEX, orderIndex);
+        Object[] row;
+        while ((row = rows.next()) != null) {
+            deduplicator.add(row);
+        }
+
+        ROWS_SKIPPED.add(deduplicator.getRowsSeen() - deduplicator.getRowsKept());
+        log.info("Deduplicated source rows", "seen", deduplicator.getRowsSeen(),
+                "kept", deduplicator.getRowsKept(), "key", sourceMatchColumn, "policy", policy);
+
+        Iterator<Object[]> kept = deduplicator.rows().iterator();
+        return () -> kept.hasNext() ? kept.next() : null;
+    }
+
+    /**
+     * Sends accumulated inserts and updates to the destination. Inserts go
+     * first so that updates aimed at rows inserted earlier in the run find them.
+     */
+    private int flushPendingWrites(DestinationWriter writer, Connection destConn, TableWritePlan plan,
+                                   List<Object[]> pendingInserts, List<Object[]> pendingUpdates,
+                                   boolean directPath, int batch) throws SQLException {
+        if (pendingInserts.isEmpty() && pendingUpdates.isEmpty()) {
+            progress.checkCancelled();
+            return 0;
+        }
+
+        LoadEvent loadEvent = new LoadEvent();
+        loadEvent.begin();
+        loadEvent.inserts = pendingInserts.size();
+        loadEvent.updates = pendingUpdates.size();
+        long bytes = loadEvent.isEnabled()
+                ? IntegrationEvent.estimateBytes(pendingInserts) + IntegrationEvent.estimateBytes(pendingUpdates) : 0;
+
+        int rowsWritten = 0;
+        long start = STATEMENT_EXECUTE.start();
+        try {
+            if (!pendingInserts.isEmpty()) {
+                log.debug("Inserting new records", "table", plan.destTable, "rows", pendingInserts.size());
+                if (directPath) {
+                    int inserted = writer.bulkInsertRows(destConn, plan.destTable, plan.insertColumns, pendingInserts);
+                    if (writer.commitsBulkInserts()) {
+                        progress.addRowsCommitted(inserted);
+                    }
+                    rowsWritten += inserted;
+                } else {
+                    rowsWritten += writer.insertRows(destConn, plan.destTable, plan.insertColumns, pendingInserts);
+                }
+                pendingInserts.clear();
+            }
+
+            if (!pendingUpdates.isEmpty()) {
+                log.debug("Updating existing records", "table", plan.destTable, "rows", pendingUpdates.size());
+                rowsWritten += writer.updateRows(destConn, plan.destTable, plan.updateColumns,
+                        plan.destIdColumn, pendingUpdates);
+                pendingUpdates.clear();
+            }
+        } catch (SQLException e) {
+            ROWS_FAILED.add(pendingInserts.size() + pendingUpdates.size());
+            throw e;
+        } finally {
+            STATEMENT_EXECUTE.stop(start);
+            WRITE_BATCH.stop(start);
+        }
+
+        endEvent(loadEvent, plan.tablePair, batch, rowsWritten, bytes, null);
+        progress.addRowsWritten(rowsWritten);
+        ROWS_WRITTEN.add(rowsWritten);
+        // Stop between chunks; the caller rolls back what this run has written
+        progress.checkCancelled();
+        return rowsWritten;
+    }
+
+    private static ResultSet executeQuery(Statement stmt, String sql) throws SQLException {
+        long start = STATEMENT_EXECUTE.start();
+        try {
+            return stmt.executeQuery(sql);
+        } finally {
+            STATEMENT_EXECUTE.stop(start);
+        }
+    }
+
+    private void commit(Connection conn, String tablePair, long rows) throws SQLException {
+        CommitEvent commitEvent = new CommitEvent();
+        commitEvent.begin();
+        long start = COMMIT.start();
+        try {
+            conn.commit();
+        } finally {
+            COMMIT.stop(start);
+        }
+        progress.addRowsCommitted(rows);
+        endEvent(commitEvent, tablePair, 0, rows, 0, null);
+    }
+
+    private static void endTransform(TransformEvent event, long startNanos, TableWritePlan plan, int batch,
+                                     int lookups, List<Object[]> pendingInserts, List<Object[]> pendingUpdates) {
+        if (pendingInserts.isEmpty() && pendingUpdates.isEmpty()) {
+            return;
+        }
+        TRANSFORM.stop(startNanos);
+        event.lookups = lookups;
+        long bytes = event.isEnabled()
+                ? IntegrationEvent.estimateBytes(pendingInserts) + IntegrationEvent.estimateBytes(pendingUpdates) : 0;
+        endEvent(event, plan.tablePair, batch, pendingInserts.size() + pendingUpdates.size(), bytes,
+                lookups > 0 ? plan.checkQuery : null);
+    }
+
+    /**
+     * Fill in and emit a JFR event if its type is enabled and it passes the recording's threshold
+     */
+    private static void endEvent(IntegrationEvent event, String tablePair, int batch, long rows, long bytes,
+                                 String sql) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tablePair = tablePair;
+            event.batch = batch;
+            event.rows = rows;
+            event.bytes = bytes;
+            event.sqlId = IntegrationEvent.sqlId(sql);
+            event.commit();
+        }
+    }
+
+    /**
+     * @return Key column of a table as used by integrateData and mergeData
+     */
+    static String idColumnFor(String table) {
+        if (table.equals("HR_ALL_PEOPLE")) {
+            return "PERSON_ID";
+        } else if (table.equals("RSRC")) {
+            return "RSRC_ID";
+        }
+        return "ID";
+    }
+
+    private boolean useInitialLoad(IntegrationOptions options, Connection destConn, String destTable) throws SQLException {
+        switch (options.getLoadMode()) {
+            case INITIAL_LOAD:
+                return true;
+            case MERGE:
+                return false;
+            default:
+                return isTableEmpty(destConn, destTable);
+        }
+    }
+
+    private boolean isTableEmpty(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setMaxRows(1);
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM " + table)) {
+                return !rs.next();
+            }
+        }
+    }
+
+    private int firstFreeId(Connection conn, TableWritePlan plan) throws SQLException {
+        // New IDs start at 1000 or above anything already present
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(" + plan.destIdColumn + ") FROM " + plan.destTable)) {
+            int maxId = rs.next() ? rs.getInt(1) : 0;
+            return Math.max(maxId + 1, 1000);
+        }
+    }
+
+    /**
+     * Supplies source rows one at a time; returns null when exhausted
+     */
+    private interface RowSource {
+        Object[] next() throws SQLException;
+    }
+
+    /**
+     * Column lists and statements for writing one source/destination table pair
+     */
+    private static class TableWritePlan {
+        final List<ColumnMapping> tableMappings;
+        final String destTable;
+        final String destIdColumn;
+        final String checkQuery;
+        // SOURCE->DEST, as reported in JFR events
+        final String tablePair;
+        // Destination columns for updates, in mapping order
+        final List<String> updateColumns = new ArrayList<>();
+        // Destination columns for inserts: ID and match column first, then each mapped column once
+        final List<String> insertColumns = new ArrayList<>();
+        // Mapping feeding each insert column after the first two
+        final List<Integer> insertMappingIndexes = new ArrayList<>();
+
+        TableWritePlan(List<ColumnMapping> tableMappings, String destTable, String destIdColumn,
+                       String destMatchColumn) {
+            this.tableMappings = tableMappings;
+            this.destTable = destTable;
+            this.destIdColumn = destIdColumn;
+            this.checkQuery = "SELECT " + destIdColumn + " FROM " + destTable +
+                    " WHERE " + destMatchColumn + " = ?";
+            this.tablePair = tableMappings.get(0).getSourceTable() + "->" + destTable;
+
+            for (ColumnMapping mapping : tableMappings) {
+                updateColumns.add(mapping.getDestinationColumn().getName());
+            }
+
+            insertColumns.add(destIdColumn);
+            insertColumns.add(destMatchColumn);
+            Set<String> includedColumns = new HashSet<>(insertColumns);
+            for (int i = 0; i < tableMappings.size(); i++) {
+                String destColName = tableMappings.get(i).getDestinationColumn().getName();
+                if (includedColumns.add(destColName)) {
+                    insertColumns.add(destColName);
+                    insertMappingIndexes.add(i);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.Project;
+import com.dbintegrator.model.TableColumn;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.DialectDescriptor;
+import com.dbintegrator.util.JdbcTaskExecutor;
+import com.dbintegrator.model.Task;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.MetadataCache;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tables, columns and keys of a database. Lookups go through the shared
+ * MetadataCache, so services created per tab or per job do not each query
+ * the data dictionary; the lists returned are shared and must not be modified.
+ */
+public class DatabaseMetadataService {
+    private static final Log log = Log.get(DatabaseMetadataService.class);
+
+    // Rows per round-trip when reading the whole data dictionary
+    private static final int DICTIONARY_FETCH_SIZE = 1000;
+
+    // Every column of every table in a schema, with its position in the
+    // primary key; both take the schema as parameters 1 and 2
+    private static final String ORACLE_SCHEMA_QUERY =
+            "SELECT c.TABLE_NAME, c.COLUMN_NAME, c.DATA_TYPE, " +
+            "CASE WHEN c.DATA_PRECISION IS NOT NULL THEN c.DATA_PRECISION " +
+            "WHEN c.CHAR_LENGTH > 0 THEN c.CHAR_LENGTH ELSE c.DATA_LENGTH END AS COLUMN_SIZE, " +
+            "CASE WHEN c.NULLABLE = 'Y' THEN 1 ELSE 0 END AS NULLABLE, k.POSITION AS KEY_POSITION " +
+            "FROM ALL_TAB_COLUMNS c " +
+            "JOIN ALL_TABLES t ON t.OWNER = c.OWNER AND t.TABLE_NAME = c.TABLE_NAME " +
+            "LEFT JOIN (SELECT kc.TABLE_NAME, kc.COLUMN_NAME, kc.POSITION FROM ALL_CONSTRAINTS pk " +
+            "JOIN ALL_CONS_COLUMNS kc ON kc.OWNER = pk.OWNER AND kc.CONSTRAINT_NAME = pk.CONSTRAINT_NAME " +
+            "WHERE pk.OWNER = ? AND pk.CONSTRAINT_TYPE = 'P') k " +
+            "ON k.TABLE_NAME = c.TABLE_NAME AND k.COLUMN_NAME = c.COLUMN_NAME " +
+            "WHERE c.OWNER = ? " +
+            "ORDER BY c.TABLE_NAME, c.COLUMN_ID";
+    private static final String H2_SCHEMA_QUERY =
+            "SELECT c.TABLE_NAME, c.COLUMN_NAME, " +
+            "CASE WHEN c.DATA_TYPE = 'INTERVAL' THEN 'INTERVAL ' || c.INTERVAL_TYPE ELSE c.DATA_TYPE END AS DATA_TYPE, " +
+            // Sizes as getColumns reports them: datetimes in characters
+            "CASE WHEN c.CHARACTER_MAXIMUM_LENGTH IS NOT NULL THEN LEAST(c.CHARACTER_MAXIMUM_LENGTH, 2147483647) " +
+            "WHEN c.NUMERIC_PRECISION IS NOT NULL THEN c.NUMERIC_PRECISION " +
+            "WHEN c.DATA_TYPE = 'INTERVAL' THEN c.INTERVAL_PRECISION " +
+            "WHEN c.DATA_TYPE = 'DATE' THEN 10 " +
+            "WHEN c.DATETIME_PRECISION IS NOT NULL THEN " +
+            "CASE WHEN c.DATA_TYPE LIKE 'TIMESTAMP%' THEN 19 ELSE 8 END " +
+            "+ CASE WHEN c.DATETIME_PRECISION > 0 THEN c.DATETIME_PRECISION + 1 ELSE 0 END " +
+            "+ CASE WHEN c.DATA_TYPE LIKE '%TIME ZONE' THEN 6 ELSE 0 END " +
+            "WHEN c.DATA_TYPE = 'BOOLEAN' THEN 1 ELSE 0 END AS COLUMN_SIZE, " +
+            "CASE WHEN c.IS_NULLABLE = 'YES' THEN 1 ELSE 0 END AS NULLABLE, k.ORDINAL_POSITION AS KEY_POSITION " +
+            "FROM INFORMATION_SCHEMA.COLUMNS c " +
+            "JOIN INFORMATION_SCHEMA.TABLES t ON t.TABLE_SCHEMA = c.TABLE_SCHEMA " +
+            "AND t.TABLE_NAME = c.TABLE_NAME AND t.TABLE_TYPE = 'BASE TABLE' " +
+            "LEFT JOIN (SELECT ku.TABLE_NAME, ku.COLUMN_NAME, ku.ORDINAL_POSITION " +
+            "FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+            "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE ku ON ku.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA " +
+            "AND ku.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+            "WHERE tc.TABLE_SCHEMA = ? AND tc.CONSTRAINT_TYPE = 'PRIMARY KEY') k " +
+            "ON k.TABLE_NAME = c.TABLE_NAME AND k.COLUMN_NAME = c.COLUMN_NAME " +
+            "WHERE c.TABLE_SCHEMA = ? " +
+            "ORDER BY c.TABLE_NAME, c.ORDINAL_POSITION";
+
+    private final DatabaseConnectionManager connectionManager;
+    private final MetadataCache cache = MetadataCache.global();
+
+    public DatabaseMetadataService(DatabaseConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * @return Dialect of the database, read once per connection manager
+     * @throws SQLException if database access error occurs
+     */
+    public DialectDescriptor getDialect() throws SQLException {
+        return connectionManager.getDialect();
+    }
+
+    /**
+     * Gets the appropriate schema name based on database type
+     * @return Schema name to use for metadata queries
+     * @throws SQLException if database access error occurs
+     */
+    private String getSchemaName() throws SQLException {
+        return getDialect().getDefaultSchema();
+    }
+
+    /**
+     * Get all available projects from the database
+     * @return List of Project objects
+     * @throws SQLException if database access error occurs
+     */
+    public List<Project> getAvailableProjects() throws SQLException {
+        List<Project> projects = new ArrayList<>();
+        boolean h2 = getDialect().isH2();
+        for (Project table : getTables()) {
+            String schemaName = table.getDescription();
+
+            // Skip system tables in Oracle
+            if (!h2 && (
+                    schemaName.startsWith("SYS") ||
+                            schemaName.equals("SYSTEM") ||
+                            schemaName.equals("MDSYS") ||
+                            schemaName.equals("CTXSYS") ||
+                            schemaName.equals("DBSNMP") ||
+                            schemaName.equals("OUTLN") ||
+                            schemaName.equals("ANONYMOUS") ||
+                            schemaName.startsWith("APEX_"))) {
+                continue;
+            }
+
+            projects.add(table);
+        }
+
+        return projects;
+    }
+
+    /**
+     * Search for projects by name
+     * @param searchTerm The search term to match against project names
+     * @return List of matching Project objects
+     * @throws SQLException if database access error occurs
+     */
+    public List<Project> searchProjectsByName(String searchTerm) throws SQLException {
+        List<Project> allProjects = getAvailableProjects();
+        List<Project> matchingProjects = new ArrayList<>();
+
+        String searchTermUpper = searchTerm.toUpperCase();
+        for (Project project : allProjects) {
+            if (project.getName().toUpperCase().contains(searchTermUpper)) {
+                matchingProjects.add(project);
+            }
+        }
+
+        return matchingProjects;
+    }
+
+    /**
+     * Get list of table names from the database
+     * @return List of table names
+     * @throws SQLException if database access error occurs
+     */
+    public List<String> getTableNames() throws SQLException {
+        List<String> tableNames = new ArrayList<>();
+        for (Project table : getTables()) {
+            tableNames.add(table.getName());
+        }
+        return tableNames;
+    }
+
+    /**
+     * @return Tables of the default schema as Projects holding the table
+     * name and its schema as the description
+     */
+    private List<Project> getTables() throws SQLException {
+        return cache.get(connectionManager, MetadataCache.TABLES, () -> {
+            List<Project> tables = new ArrayList<>();
+            String schemaPattern = getSchemaName();
+            log.debug("Getting tables", "schema", schemaPattern);
+
+            try (Connection connection = connectionManager.getConnection();
+                 ResultSet rs = connection.getMetaData().getTables(null, schemaPattern, null, new String[]{"TABLE"})) {
+                while (rs.next()) {
+                    String tableName = rs.getString("TABLE_NAME");
+                    tables.add(new Project(0, tableName, rs.getString("TABLE_SCHEM")));
+                    log.debug("Found table", "table", tableName);
+                }
+            }
+            return List.copyOf(tables);
+        });
+    }
+
+    /**
+     * Get columns for a specified table
+     * @param tableName Name of the table to get columns for
+     * @return List of TableColumn objects
+     * @throws SQLException if database access error occurs
+     */
+    // In DatabaseMetadataService.java - add debugging to getTableColumns method
+    public List<TableColumn> getTableColumns(String tableName) throws SQLException {
+        log.debug("Getting columns", "table", tableName);
+        return cache.get(connectionManager, MetadataCache.COLUMNS + tableName.toUpperCase(), () -> {
+            try (Connection connection = connectionManager.getConnection()) {
+                return List.copyOf(readTableColumns(connection, tableName));
+            }
+        });
+    }
+
+    /**
+     * Get the primary key of a table
+     * @param tableName Name of the table
+     * @return Key column names in key order; empty if the table has no primary key
+     * @throws SQLException if database access error occurs
+     */
+    public List<String> getPrimaryKeyColumns(String tableName) throws SQLException {
+        return cache.get(connectionManager, MetadataCache.PRIMARY_KEY + tableName.toUpperCase(), () -> {
+            try (Connection connection = connectionManager.getConnection()) {
+                return List.copyOf(readPrimaryKeyColumns(connection, tableName));
+            }
+        });
+    }
+
+    private List<String> readPrimaryKeyColumns(Connection connection, String tableName) throws SQLException {
+        // Key sequence -> column name
+        Map<Short, String> keyColumns = new TreeMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String schema : new String[]{getSchemaName(), null}) {
+            try (ResultSet rs = metaData.getPrimaryKeys(null, schema, tableName.toUpperCase())) {
+                while (rs.next()) {
+                    keyColumns.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                }
+            }
+            if (!keyColumns.isEmpty()) {
+                break;
+            }
+        }
+        return new ArrayList<>(keyColumns.values());
+    }
+
+    private List<TableColumn> readTableColumns(Connection connection, String tableName) throws SQLException {
+        List<TableColumn> columns = new ArrayList<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+
+        // Try multiple schema possibilities
+        String[] schemas = {"PUBLIC", "INFORMATION_SCHEMA", connectionManager.getUsername().toUpperCase()};
+
+        // Try multiple table name variations; never another table's name, or a
+        // missing table would report the columns of whichever table is found
+        String[] tableVariations = {
+                tableName,
+                tableName.toUpperCase(),
+                tableName.toLowerCase()
+        };
+
+        for (String schema : schemas) {
+            for (String variation : tableVariations) {
+                try {
+                    log.debug("Attempting to find columns", "schema", schema, "table", variation);
+
+                    try (ResultSet columnsResultSet = metaData.getColumns(null, schema, variation, null)) {
+                        boolean columnsFound = false;
+                        while (columnsResultSet.next()) {
+                            columnsFound = true;
+                            String columnName = columnsResultSet.getString("COLUMN_NAME");
+                            String dataType = columnsResultSet.getString("TYPE_NAME");
+                            int size = columnsResultSet.getInt("COLUMN_SIZE");
+                            boolean nullable = columnsResultSet.getInt("NULLABLE") == DatabaseMetaData.columnNullable;
+
+                            columns.add(new TableColumn(columnName, dataType, size, nullable));
+                            log.debug("Found column", "column", columnName, "type", dataType);
+                        }
+
+                        if (columnsFound) {
+                            return columns;
+                        }
+                    }
+                } catch (SQLException e) {
+                    log.warn("Error finding columns", "schema", schema, "table", variation, "error", e.getMessage());
+                }
+            }
+        }
+
+        // Fallback: try direct query to retrieve columns
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT * FROM " + tableName + " WHERE 1=0")) {
+
+            ResultSetMetaData rsmd = rs.getMetaData();
+            int columnCount = rsmd.getColumnCount();
+
+            for (int i = 1; i <= columnCount; i++) {
+                columns.add(new TableColumn(
+                        rsmd.getColumnName(i),
+                        rsmd.getColumnTypeName(i),
+                        rsmd.getColumnDisplaySize(i),
+                        rsmd.isNullable(i) == ResultSetMetaData.columnNullable
+                ));
+            }
+        } catch (SQLException e) {
+            log.warn("Fallback column retrieval failed", "table", tableName, "error", e.getMessage());
+            throw e;
+        }
+
+        if (columns.isEmpty()) {
+            log.warn("No columns found", "table", tableName);
+            throw new SQLException("No columns found for table " + tableName);
+        }
+
+        return columns;
+    }
+
+    /**
+     * Get all tables with their columns. On Oracle and H2 one data dictionary
+     * query reads the columns and primary keys of the whole schema, and
+     * caches them for later lookups; elsewhere each table is read separately.
+     * @return Map of table names to their column lists
+     * @throws SQLException if database access error occurs
+     */
+    public Map<String, List<TableColumn>> getAllTablesWithColumns() throws SQLException {
+        DialectDescriptor dialect = getDialect();
+        if (dialect.isOracle()) {
+            return readSchema(ORACLE_SCHEMA_QUERY);
+        } else if (dialect.isH2()) {
+            return readSchema(H2_SCHEMA_QUERY);
+        }
+
+        Map<String, List<TableColumn>> tablesWithColumns = new HashMap<>();
+        List<String> tableNames = getTableNames();
+
+        // Each table's metadata is independent, so the lookups run concurrently
+        List<List<TableColumn>> columns = JdbcTaskExecutor.mapConcurrently(
+                connectionManager, tableNames, this::getTableColumns);
+        for (int i = 0; i < tableNames.size(); i++) {
+            tablesWithColumns.put(tableNames.get(i), columns.get(i));
+        }
+
+        return tablesWithColumns;
+    }
+
+    /**
+     * Read every table of the default schema with one streamed query, and
+     * cache the table list and each table's columns and primary key
+     * @param query ORACLE_SCHEMA_QUERY or H2_SCHEMA_QUERY
+     * @return Map of table names to their column lists, in name order
+     */
+    private Map<String, List<TableColumn>> readSchema(String query) throws SQLException {
+        String schema = getSchemaName();
+        long start = System.nanoTime();
+        Map<String, List<TableColumn>> tablesWithColumns = new LinkedHashMap<>();
+        // Table -> key position -> column name
+        Map<String, Map<Integer, String>> keyColumns = new HashMap<>();
+        int columnCount = 0;
+
+        try (Connection connection = connectionManager.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setFetchSize(DICTIONARY_FETCH_SIZE);
+            stmt.setString(1, schema);
+            stmt.setString(2, schema);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String tableName = rs.getString("TABLE_NAME");
+                    String columnName = rs.getString("COLUMN_NAME");
+                    tablesWithColumns.computeIfAbsent(tableName, table -> new ArrayList<>()).add(new TableColumn(
+                            columnName, rs.getString("DATA_TYPE"), rs.getInt("COLUMN_SIZE"), rs.getInt("NULLABLE") == 1));
+                    int keyPosition = rs.getInt("KEY_POSITION");
+                    if (!rs.wasNull()) {
+                        keyColumns.computeIfAbsent(tableName, table -> new TreeMap<>()).put(keyPosition, columnName);
+                    }
+                    columnCount++;
+                }
+            }
+        }
+
+        List<Project> tables = new ArrayList<>();
+        for (Map.Entry<String, List<TableColumn>> entry : tablesWithColumns.entrySet()) {
+            String tableName = entry.getKey();
+            entry.setValue(List.copyOf(entry.getValue()));
+            tables.add(new Project(0, tableName, schema));
+            cache.put(connectionManager, MetadataCache.COLUMNS + tableName.toUpperCase(), entry.getValue());
+            cache.put(connectionManager, MetadataCache.PRIMARY_KEY + tableName.toUpperCase(),
+                    List.copyOf(keyColumns.getOrDefault(tableName, Map.of()).values()));
+        }
+        cache.put(connectionManager, MetadataCache.TABLES, List.copyOf(tables));
+
+        log.info("Read schema metadata", "schema", schema, "tables", tables.size(),
+                "columns", columnCount, "millis", (System.nanoTime() - start) / 1_000_000);
+        return tablesWithColumns;
+    }
+
+    //methods to retrieve tasks:
+    public List<Task> getProjectTasks(int projectId) throws SQLException {
+        List<Task> tasks = new ArrayList<>();
+
+        String query = "SELECT id, name, description, status, assignee " +
+                "FROM tasks WHERE project_id = ?";
+
+        try (Connection conn = connectionManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+
+            stmt.setInt(1, projectId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(new Task(
+                            rs.getInt("id"),
+                            rs.getString("name"),
+                            rs.getString("description"),
+                            projectId,
+                            rs.getString("status"),
+                            rs.getString("assignee")
+                    ));
+                }
+            }
+        }
+
+        return tasks;
+    }
+}
\ No newline at end of file
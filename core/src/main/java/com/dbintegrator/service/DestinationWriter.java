@@ -0,0 +1,77 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.util.DialectDescriptor;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Write strategy used by DataIntegrationService to apply accumulated rows
+ * to a destination table. Implementations never commit; transaction
+ * handling stays with the caller.
+ */
+public interface DestinationWriter {
+
+    /**
+     * Insert rows into a table
+     * @param conn Destination connection
+     * @param table Destination table name
+     * @param columns Column names, in the order values appear in each row
+     * @param rows Row values, one array per row
+     * @return Number of rows inserted
+     * @throws SQLException if database access error occurs
+     */
+    int insertRows(Connection conn, String table, List<String> columns,
+                   List<Object[]> rows) throws SQLException;
+
+    /**
+     * Insert rows into a table that is empty or being repopulated, using the
+     * fastest bulk path the database offers. Unlike the other methods this
+     * may commit, since direct-path loads must be committed before the table
+     * is touched again.
+     * @param conn Destination connection
+     * @param table Destination table name
+     * @param columns Column names, in the order values appear in each row
+     * @param rows Row values, one array per row
+     * @return Number of rows inserted
+     * @throws SQLException if database access error occurs
+     */
+    default int bulkInsertRows(Connection conn, String table, List<String> columns,
+                               List<Object[]> rows) throws SQLException {
+        return insertRows(conn, table, columns, rows);
+    }
+
+    /**
+     * @return true if bulkInsertRows commits the rows it inserts, so they
+     * stay even if the caller rolls back
+     */
+    default boolean commitsBulkInserts() {
+        return false;
+    }
+
+    /**
+     * Update rows in a table by key
+     * @param conn Destination connection
+     * @param table Destination table name
+     * @param setColumns Columns to update
+     * @param keyColumn Column identifying the row to update
+     * @param rows Row values: the setColumns values followed by the key value
+     * @return Number of rows updated
+     * @throws SQLException if database access error occurs
+     */
+    int updateRows(Connection conn, String table, List<String> setColumns,
+                   String keyColumn, List<Object[]> rows) throws SQLException;
+
+    /**
+     * Picks the cheapest write strategy the dialect supports
+     * @param dialect Dialect of the destination database
+     * @return Array-bind writer for Oracle, JDBC batch writer otherwise
+     */
+    static DestinationWriter forDialect(DialectDescriptor dialect) {
+        if (dialect.supportsArrayBinding()) {
+            return new OracleArrayDestinationWriter();
+        }
+        return new BatchDestinationWriter();
+    }
+}
@@ -0,0 +1,50 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.util.DialectDescriptor;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A job checked against database metadata by JobCompiler. Its mappings
+ * carry the real column types and the destination dialect is already
+ * known, so running the plan issues no metadata queries.
+ */
+public final class ExecutionPlan {
+    private final JobDefinition job;
+    private final List<ColumnMapping> mappings;
+    private final DialectDescriptor destDialect;
+    private final long compiledAt = System.currentTimeMillis();
+
+    ExecutionPlan(JobDefinition job, List<ColumnMapping> mappings, DialectDescriptor destDialect) {
+        this.job = job;
+        this.mappings = Collections.unmodifiableList(mappings);
+        this.destDialect = destDialect;
+    }
+
+    public JobDefinition getJob() {
+        return job;
+    }
+
+    /**
+     * @return The job's mappings, resolved against the tables' columns
+     */
+    public List<ColumnMapping> getMappings() {
+        return mappings;
+    }
+
+    public DialectDescriptor getDestDialect() {
+        return destDialect;
+    }
+
+    public long getCompiledAt() {
+        return compiledAt;
+    }
+
+    @Override
+    public String toString() {
+        return job.getName() + " (" + job.getType() + ", " + mappings.size() + " mappings, " + destDialect + ")";
+    }
+}
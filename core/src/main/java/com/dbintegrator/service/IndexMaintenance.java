@@ -0,0 +1,151 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.util.DatabaseDialect;
+import com.dbintegrator.util.Log;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Takes non-unique indexes of a table out of the way for a bulk load and
+ * puts them back afterwards. Unique indexes are left alone so that key
+ * violations are still caught during the load.
+ */
+public class IndexMaintenance {
+    private static final Log log = Log.get(IndexMaintenance.class);
+
+
+    private IndexMaintenance() {
+    }
+
+    /**
+     * Disable the non-unique indexes of a table
+     * @param conn Destination connection
+     * @param dialect Dialect of the destination database
+     * @param table Table about to be loaded
+     * @return DDL statements that restore the indexes and any session setting
+     * changed for the load, for rebuildIndexes
+     * @throws SQLException if database access error occurs
+     */
+    public static List<String> disableNonUniqueIndexes(Connection conn, DatabaseDialect dialect,
+                                                       String table) throws SQLException {
+        switch (dialect) {
+            case ORACLE:
+                return markOracleIndexesUnusable(conn, table);
+            case H2:
+                return dropH2Indexes(conn, table);
+            default:
+                log.info("Index maintenance not supported, leaving indexes", "dialect", dialect, "table", table);
+                return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Restore indexes disabled by disableNonUniqueIndexes
+     * @param conn Destination connection
+     * @param rebuildStatements Statements returned by disableNonUniqueIndexes
+     * @throws SQLException if database access error occurs
+     */
+    public static void rebuildIndexes(Connection conn, List<String> rebuildStatements) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String ddl : rebuildStatements) {
+                log.info("Restoring after load", "ddl", ddl);
+                stmt.execute(ddl);
+            }
+        }
+    }
+
+    private static List<String> markOracleIndexesUnusable(Connection conn, String table) throws SQLException {
+        List<String> indexNames = new ArrayList<>();
+        String query = "SELECT index_name FROM user_indexes WHERE table_name = ? " +
+                "AND uniqueness = 'NONUNIQUE' AND partitioned = 'NO' " +
+                "AND index_type IN ('NORMAL', 'BITMAP', 'FUNCTION-BASED NORMAL')";
+
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, table.toUpperCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    indexNames.add(rs.getString("INDEX_NAME"));
+                }
+            }
+        }
+
+        List<String> rebuildStatements = new ArrayList<>();
+        if (indexNames.isEmpty()) {
+            return rebuildStatements;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            // DML keeps working while the indexes are unusable instead of raising ORA-01502;
+            // the session's own setting comes back once the indexes are rebuilt
+            boolean skipUnusable = isSkippingUnusableIndexes(conn);
+            if (!skipUnusable) {
+                stmt.execute("ALTER SESSION SET SKIP_UNUSABLE_INDEXES = TRUE");
+            }
+            for (String indexName : indexNames) {
+                log.info("Marking index unusable", "index", indexName);
+                stmt.execute("ALTER INDEX " + indexName + " UNUSABLE");
+                rebuildStatements.add("ALTER INDEX " + indexName + " REBUILD");
+            }
+            if (!skipUnusable) {
+                rebuildStatements.add("ALTER SESSION SET SKIP_UNUSABLE_INDEXES = FALSE");
+            }
+        }
+        return rebuildStatements;
+    }
+
+    /**
+     * @return The session's SKIP_UNUSABLE_INDEXES, or Oracle's default of
+     * true if V$PARAMETER cannot be read, in which case the session is left
+     * as it is
+     */
+    private static boolean isSkippingUnusableIndexes(Connection conn) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT value FROM v$parameter WHERE name = 'skip_unusable_indexes'")) {
+            return rs.next() && "TRUE".equalsIgnoreCase(rs.getString(1));
+        } catch (SQLException e) {
+            log.debug("Cannot read SKIP_UNUSABLE_INDEXES", "error", e.getMessage());
+            return true;
+        }
+    }
+
+    private static List<String> dropH2Indexes(Connection conn, String table) throws SQLException {
+        // Index name -> ordered column list
+        Map<String, List<String>> indexColumns = new LinkedHashMap<>();
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, table.toUpperCase(), false, false)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String columnName = rs.getString("COLUMN_NAME");
+                if (!rs.getBoolean("NON_UNIQUE") || indexName == null || columnName == null) {
+                    continue;
+                }
+                String column = "D".equals(rs.getString("ASC_OR_DESC")) ? columnName + " DESC" : columnName;
+                indexColumns.computeIfAbsent(indexName, k -> new ArrayList<>()).add(column);
+            }
+        }
+
+        List<String> rebuildStatements = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, List<String>> index : indexColumns.entrySet()) {
+                try {
+                    stmt.execute("DROP INDEX " + index.getKey());
+                    rebuildStatements.add("CREATE INDEX " + index.getKey() + " ON " + table +
+                            " (" + String.join(", ", index.getValue()) + ")");
+                    log.info("Dropped index for load", "index", index.getKey());
+                } catch (SQLException e) {
+                    // Indexes backing constraints cannot be dropped; they stay in place
+                    log.info("Keeping index", "index", index.getKey(), "reason", e.getMessage());
+                }
+            }
+        }
+        return rebuildStatements;
+    }
+}
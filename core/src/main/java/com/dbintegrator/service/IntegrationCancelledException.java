@@ -0,0 +1,19 @@
+package com.dbintegrator.service;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown on the worker thread when an integration run has been cancelled.
+ * It is an SQLException so it unwinds through the same rollback paths as a
+ * database error.
+ */
+public class IntegrationCancelledException extends SQLException {
+    private static final long serialVersionUID = 1L;
+
+    // SQLSTATE for "query canceled"
+    private static final String CANCELLED_STATE = "57014";
+
+    public IntegrationCancelledException() {
+        super("Integration cancelled", CANCELLED_STATE);
+    }
+}
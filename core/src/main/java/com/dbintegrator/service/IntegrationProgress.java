@@ -0,0 +1,243 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.util.Log;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress and cancellation state of one integration run. The worker thread
+ * counts rows and runs its SQL on connections passed through track, which
+ * registers every statement they create; any other thread may read the
+ * counters or cancel the run, which cancels every open statement so that
+ * blocking JDBC calls, writer batches included, return promptly.
+ */
+public class IntegrationProgress {
+    private static final Log log = Log.get(IntegrationProgress.class);
+
+    public interface Listener {
+        void progressChanged(IntegrationProgress progress);
+    }
+
+    // Listener notifications are throttled so per-row counting stays cheap
+    private static final long NOTIFY_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong rowsCommitted = new AtomicLong();
+    private final Set<Statement> activeStatements = ConcurrentHashMap.newKeySet();
+
+    private volatile long expectedRows = -1;
+    private volatile long startNanos = System.nanoTime();
+    private volatile long lastNotifyNanos;
+    private volatile boolean cancelled;
+    private volatile Listener listener;
+
+    /**
+     * Restart the clock used for rate and ETA
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param expectedRows Source rows the run is expected to read, or -1 if unknown
+     */
+    public void setExpectedRows(long expectedRows) {
+        this.expectedRows = expectedRows;
+    }
+
+    public long getExpectedRows() {
+        return expectedRows;
+    }
+
+    public void addRowsRead(long rows) {
+        rowsRead.addAndGet(rows);
+        notifyListener(false);
+    }
+
+    public void addRowsWritten(long rows) {
+        rowsWritten.addAndGet(rows);
+        notifyListener(true);
+    }
+
+    /**
+     * Count rows whose transaction has been committed, which a cancel or
+     * failure can no longer roll back
+     */
+    public void addRowsCommitted(long rows) {
+        rowsCommitted.addAndGet(rows);
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getRowsCommitted() {
+        return rowsCommitted.get();
+    }
+
+    public double getRowsPerSecond() {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        return seconds > 0 ? rowsRead.get() / seconds : 0;
+    }
+
+    /**
+     * @return Fraction of expected rows read, or -1 if the total is unknown
+     */
+    public double getFractionDone() {
+        long expected = expectedRows;
+        return expected > 0 ? Math.min(1.0, (double) rowsRead.get() / expected) : -1;
+    }
+
+    /**
+     * @return Estimated seconds remaining, or -1 if it cannot be estimated yet
+     */
+    public long getEtaSeconds() {
+        long expected = expectedRows;
+        double rate = getRowsPerSecond();
+        if (expected <= 0 || rate <= 0) {
+            return -1;
+        }
+        return Math.round(Math.max(0, expected - rowsRead.get()) / rate);
+    }
+
+    /**
+     * Wrap a connection so that cancel() can interrupt every statement it
+     * creates, until the statement is closed. Creating a statement once the
+     * run is cancelled throws IntegrationCancelledException.
+     * @param conn Connection the run executes SQL on
+     * @return Connection to use in its place
+     */
+    public Connection track(Connection conn) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(conn, method, args);
+            if (result instanceof Statement) {
+                return track((Statement) result, method.getReturnType());
+            }
+            return result;
+        });
+    }
+
+    private Object track(Statement stmt, Class<?> type) throws SQLException {
+        activeStatements.add(stmt);
+        if (cancelled) {
+            activeStatements.remove(stmt);
+            stmt.close();
+            throw new IntegrationCancelledException();
+        }
+        return proxy(type, (proxy, method, args) -> {
+            if ("close".equals(method.getName())) {
+                activeStatements.remove(stmt);
+            }
+            return invoke(stmt, method, args);
+        });
+    }
+
+    /**
+     * Request cancellation and cancel every in-flight statement. The worker
+     * sees the failure, rolls back its transaction and stops.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement stmt : activeStatements) {
+            try {
+                stmt.cancel();
+            } catch (SQLException e) {
+                log.warn("Error cancelling statement", "error", e.getMessage());
+            }
+        }
+        notifyListener(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Called by the worker between units of work
+     * @throws IntegrationCancelledException if cancellation was requested
+     */
+    public void checkCancelled() throws IntegrationCancelledException {
+        if (cancelled) {
+            throw new IntegrationCancelledException();
+        }
+    }
+
+    /**
+     * @return What a cancelled or failed run left behind, e.g. "changes
+     * rolled back" or "1000 rows already committed were kept, the rest rolled back"
+     */
+    public String rollbackSummary() {
+        long committed = rowsCommitted.get();
+        if (committed == 0) {
+            return "changes rolled back";
+        }
+        return committed + " rows already committed were kept, the rest rolled back";
+    }
+
+    /**
+     * @return One-line status, e.g. "Read 120 / 500, written 118 rows (350 rows/s, ETA 1s)"
+     */
+    public String summary() {
+        StringBuilder summary = new StringBuilder("Read ").append(rowsRead.get());
+        if (expectedRows > 0) {
+            summary.append(" / ").append(expectedRows);
+        }
+        summary.append(", written ").append(rowsWritten.get()).append(" rows (")
+                .append(Math.round(getRowsPerSecond())).append(" rows/s");
+
+        long eta = getEtaSeconds();
+        if (eta >= 0) {
+            summary.append(", ETA ").append(eta).append("s");
+        }
+        summary.append(")");
+
+        if (cancelled) {
+            summary.append(" - cancelling");
+        }
+        return summary.toString();
+    }
+
+    private void notifyListener(boolean force) {
+        Listener current = listener;
+        if (current == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (force || now - lastNotifyNanos >= NOTIFY_INTERVAL_NANOS) {
+            lastNotifyNanos = now;
+            current.progressChanged(this);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(IntegrationProgress.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
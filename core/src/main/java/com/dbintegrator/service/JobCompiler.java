@@ -0,0 +1,163 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.IntegrationOptions;
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.model.TableColumn;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.DialectDescriptor;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.MetadataCache;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Turns job definitions into execution plans. Every table and column a job
+ * names is checked against the databases' metadata, which comes from the
+ * shared MetadataCache, so loading many jobs over the same tables costs one
+ * metadata lookup per table and launching a plan costs none.
+ */
+public class JobCompiler {
+    private static final Log log = Log.get(JobCompiler.class);
+
+    private final DatabaseConnectionManager sourceDbManager;
+    private final DatabaseConnectionManager destDbManager;
+    private final DatabaseMetadataService sourceMetadataService;
+    private final DatabaseMetadataService destMetadataService;
+
+    // Table name (upper case) -> columns, per side
+    private final Map<String, List<TableColumn>> sourceColumns = new ConcurrentHashMap<>();
+    private final Map<String, List<TableColumn>> destColumns = new ConcurrentHashMap<>();
+
+    public JobCompiler(DatabaseConnectionManager sourceDbManager, DatabaseConnectionManager destDbManager) {
+        this.sourceDbManager = sourceDbManager;
+        this.destDbManager = destDbManager;
+        this.sourceMetadataService = new DatabaseMetadataService(sourceDbManager);
+        this.destMetadataService = new DatabaseMetadataService(destDbManager);
+    }
+
+    /**
+     * Validate a job against the source and destination tables and compile it
+     * @param job Job to compile
+     * @return Plan ready to run
+     * @throws SQLException if database access error occurs while reading metadata
+     * @throws IllegalArgumentException listing every table or column the databases do not have
+     */
+    public ExecutionPlan compile(JobDefinition job) throws SQLException {
+        List<String> problems = new ArrayList<>();
+        List<ColumnMapping> resolved = new ArrayList<>();
+
+        for (ColumnMapping mapping : job.getMappings()) {
+            TableColumn sourceColumn = resolve(sourceColumns, sourceMetadataService,
+                    mapping.getSourceTable(), mapping.getSourceColumn().getName(), "source", problems);
+            TableColumn destColumn = resolve(destColumns, destMetadataService,
+                    mapping.getDestinationTable(), mapping.getDestinationColumn().getName(), "destination", problems);
+            if (sourceColumn != null && destColumn != null) {
+                resolved.add(new ColumnMapping(mapping.getSourceTable(), sourceColumn,
+                        mapping.getDestinationTable(), destColumn));
+            }
+        }
+
+        // Key and match columns used by the integration queries
+        for (String sourceTable : tables(job, true)) {
+            resolve(sourceColumns, sourceMetadataService, sourceTable,
+                    DataIntegrationService.idColumnFor(sourceTable), "source", problems);
+            if (job.getType() == JobDefinition.JobType.MERGE) {
+                resolve(sourceColumns, sourceMetadataService, sourceTable, job.getSourceMatchColumn(), "source", problems);
+                if (job.getOptions().getDedupPolicy() == IntegrationOptions.DedupPolicy.MAX_BY) {
+                    resolve(sourceColumns, sourceMetadataService, sourceTable,
+                            job.getOptions().getDedupOrderColumn(), "source", problems);
+                }
+            }
+        }
+        if (job.getType() == JobDefinition.JobType.MERGE) {
+            for (String destTable : tables(job, false)) {
+                String idColumn = DataIntegrationService.idColumnFor(destTable);
+                if (resolve(destColumns, destMetadataService, destTable, idColumn, "destination", problems) != null) {
+                    warnUnlessPrimaryKey(destTable, idColumn);
+                }
+                resolve(destColumns, destMetadataService, destTable, job.getDestMatchColumn(), "destination", problems);
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Job " + job.getName() + " does not match the databases: " +
+                    String.join("; ", problems));
+        }
+
+        ExecutionPlan plan = new ExecutionPlan(job, resolved, getDestDialect());
+        log.info("Compiled job", "plan", plan);
+        return plan;
+    }
+
+    /**
+     * Forget cached metadata, e.g. after the connections or the schemas change
+     */
+    public void invalidate() {
+        sourceColumns.clear();
+        destColumns.clear();
+        MetadataCache.global().invalidate(sourceDbManager);
+        MetadataCache.global().invalidate(destDbManager);
+    }
+
+    private DialectDescriptor getDestDialect() throws SQLException {
+        return destDbManager.getDialect();
+    }
+
+    // Merges number new rows from MAX(id) + 1, which only stays collision-free on a key
+    private void warnUnlessPrimaryKey(String destTable, String idColumn) {
+        try {
+            List<String> key = destMetadataService.getPrimaryKeyColumns(destTable);
+            if (!key.isEmpty() && !(key.size() == 1 && key.get(0).equalsIgnoreCase(idColumn))) {
+                log.warn("ID column is not the primary key", "table", destTable, "idColumn", idColumn,
+                        "primaryKey", key);
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot read primary key", "table", destTable, "error", e.getMessage());
+        }
+    }
+
+    private static TableColumn resolve(Map<String, List<TableColumn>> cache, DatabaseMetadataService metadataService,
+                                       String table, String columnName, String side,
+                                       List<String> problems) {
+        List<TableColumn> columns = cache.get(table.toUpperCase());
+        if (columns == null) {
+            String missing = side + " table " + table + " not found";
+            if (problems.contains(missing)) {
+                return null;
+            }
+            try {
+                columns = metadataService.getTableColumns(table);
+            } catch (SQLException e) {
+                // A missing table surfaces as a failed column lookup; not cached, so it is retried
+                log.warn("Cannot read columns", "table", table, "error", e.getMessage());
+                problems.add(missing);
+                return null;
+            }
+            cache.put(table.toUpperCase(), columns);
+        }
+
+        for (TableColumn column : columns) {
+            if (column.getName().equalsIgnoreCase(columnName)) {
+                return column;
+            }
+        }
+        problems.add(side + " column " + table + "." + columnName + " not found");
+        return null;
+    }
+
+    private static List<String> tables(JobDefinition job, boolean source) {
+        List<String> tables = new ArrayList<>();
+        for (ColumnMapping mapping : job.getMappings()) {
+            String table = source ? mapping.getSourceTable() : mapping.getDestinationTable();
+            if (!tables.contains(table)) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.SqlProfiler;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.Log;
+
+import java.sql.SQLException;
+
+/**
+ * Runs a JobDefinition through DataIntegrationService. Has no UI
+ * dependencies, so it can be driven from the command line or a scheduler.
+ */
+public class JobRunner {
+    private static final Log log = Log.get(JobRunner.class);
+
+    private final DatabaseConnectionManager sourceDbManager;
+    private final DatabaseConnectionManager destDbManager;
+    private final JobCompiler compiler;
+
+    public JobRunner(DatabaseConnectionManager sourceDbManager, DatabaseConnectionManager destDbManager) {
+        this.sourceDbManager = sourceDbManager;
+        this.destDbManager = destDbManager;
+        this.compiler = new JobCompiler(sourceDbManager, destDbManager);
+    }
+
+    /**
+     * Validate a job against the databases; see JobCompiler
+     * @throws SQLException if database access error occurs
+     * @throws IllegalArgumentException if the job names tables or columns that do not exist
+     */
+    public ExecutionPlan compile(JobDefinition job) throws SQLException {
+        return compiler.compile(job);
+    }
+
+    /**
+     * Run a job to completion
+     * @param job Job to run
+     * @param progress Receives row counts; cancelling it stops the job and rolls back
+     * @return Number of destination rows created or updated
+     * @throws SQLException if database access error occurs or the job is cancelled
+     */
+    public int run(JobDefinition job, IntegrationProgress progress) throws SQLException {
+        return run(compile(job), progress);
+    }
+
+    /**
+     * Run a compiled job to completion without further metadata lookups
+     * @param plan Plan from compile
+     * @param progress Receives row counts; cancelling it stops the job and rolls back
+     * @return Number of destination rows created or updated
+     * @throws SQLException if database access error occurs or the job is cancelled
+     */
+    public int run(ExecutionPlan plan, IntegrationProgress progress) throws SQLException {
+        JobDefinition job = plan.getJob();
+        DataIntegrationService integrationService = new DataIntegrationService(sourceDbManager, destDbManager);
+        integrationService.setProgress(progress);
+        integrationService.setDestDialect(plan.getDestDialect());
+        progress.start();
+
+        log.info("Running job", "job", job, "options", job.getOptions());
+
+        try {
+            if (job.getType() == JobDefinition.JobType.UPDATE) {
+                return integrationService.integrateData(plan.getMappings(),
+                        job.getSourceWhereClause(), job.getDestWhereClause());
+            }
+            return integrationService.mergeData(plan.getMappings(), job.getSourceWhereClause(),
+                    job.getDestMatchColumn(), job.getSourceMatchColumn(), job.getOptions());
+        } finally {
+            // Process-wide totals, so scheduled runs accumulate
+            log.info(MetricsRegistry.global().report());
+            if (SqlProfiler.global().isEnabled()) {
+                log.info(SqlProfiler.global().report(SqlProfiler.DEFAULT_TOP));
+            }
+        }
+    }
+}
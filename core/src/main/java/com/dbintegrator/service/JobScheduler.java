@@ -0,0 +1,340 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.model.JobSchedule;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.util.CronExpression;
+import com.dbintegrator.util.Log;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs compiled jobs on their cron or fixed-delay schedules.
+ * <ul>
+ * <li>At most maxConcurrentRuns jobs run at once, sized to what the
+ * databases can serve; runs waiting for a slot start in priority order.</li>
+ * <li>A fire time later than the job's misfire threshold is handled by its
+ * misfire policy: RUN_ONCE catches up with a single run, SKIP waits for the
+ * next regular time. The threshold is checked when the timer fires
+ * (scheduler paused, machine asleep) and again when a queued run gets a
+ * slot (slots busy).</li>
+ * <li>A job never overlaps itself. A fire time that arrives while the
+ * previous run is queued or running is a misfire too: SKIP drops it,
+ * RUN_ONCE runs the job once more after the current run, however many fire
+ * times it covered.</li>
+ * </ul>
+ */
+public class JobScheduler {
+    private static final Log log = Log.get(JobScheduler.class);
+
+    private final JobRunner runner;
+    private final ScheduledExecutorService timer;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, ScheduledJob> jobs = new ConcurrentHashMap<>();
+    // Tie-breaker so equal priorities run in submission order
+    private final AtomicLong submissionSequence = new AtomicLong();
+    private volatile boolean started;
+    private volatile boolean shutdown;
+
+    /**
+     * @param runner Runs each job against the configured databases
+     * @param maxConcurrentRuns Jobs allowed to run at the same time
+     */
+    public JobScheduler(JobRunner runner, int maxConcurrentRuns) {
+        this.runner = runner;
+        this.timer = Executors.newSingleThreadScheduledExecutor(daemonThreads("job-scheduler"));
+        // PriorityBlockingQueue orders waiting runs; execute() keeps RunRequest comparable
+        this.workers = new ThreadPoolExecutor(maxConcurrentRuns, maxConcurrentRuns, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), daemonThreads("job-runner"));
+        MetricsRegistry.global().gauge(MetricsRegistry.SCHEDULER_QUEUE, () -> workers.getQueue().size());
+    }
+
+    /**
+     * Register a compiled job; it fires once the scheduler is started
+     * @throws IllegalArgumentException if the job has no schedule or its name is taken
+     */
+    public void schedule(ExecutionPlan plan) {
+        JobDefinition job = plan.getJob();
+        JobSchedule schedule = job.getSchedule();
+        if (schedule == null) {
+            throw new IllegalArgumentException("Job " + job.getName() + " has no schedule");
+        }
+
+        ScheduledJob scheduledJob = new ScheduledJob(plan,
+                schedule.getCron() != null ? CronExpression.parse(schedule.getCron()) : null);
+        if (jobs.putIfAbsent(job.getName(), scheduledJob) != null) {
+            throw new IllegalArgumentException("Job " + job.getName() + " is already scheduled");
+        }
+        log.info("Scheduled job", "job", job.getName(), "schedule", schedule);
+
+        if (started) {
+            scheduleFirst(scheduledJob);
+        }
+    }
+
+    public void start() {
+        started = true;
+        for (ScheduledJob scheduledJob : jobs.values()) {
+            scheduleFirst(scheduledJob);
+        }
+    }
+
+    /**
+     * Queue a job immediately, outside its schedule
+     * @return false if the job is unknown or already queued or running
+     */
+    public boolean runNow(String jobName) {
+        ScheduledJob scheduledJob = jobs.get(jobName);
+        return scheduledJob != null && submit(scheduledJob, null);
+    }
+
+    /**
+     * Stop firing, cancel running jobs (their transactions roll back) and wait for them
+     * @param timeout Longest time to wait for running jobs
+     */
+    public void shutdown(Duration timeout) {
+        shutdown = true;
+        timer.shutdownNow();
+        workers.shutdown();
+        workers.getQueue().clear();
+
+        for (ScheduledJob scheduledJob : jobs.values()) {
+            IntegrationProgress progress = scheduledJob.currentProgress;
+            if (progress != null) {
+                log.info("Cancelling running job", "job", scheduledJob.job.getName());
+                progress.cancel();
+            }
+        }
+
+        try {
+            if (!workers.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Jobs still running after shutdown timeout; abandoning them", "timeout", timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return Next fire time of each job, for status output
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (ScheduledJob scheduledJob : jobs.values()) {
+            lines.add(scheduledJob.job.getName() + ": next " + scheduledJob.nextFire +
+                    (scheduledJob.active.get() ? " (running)" : ""));
+        }
+        return lines;
+    }
+
+    private void scheduleFirst(ScheduledJob scheduledJob) {
+        if (scheduledJob.cron != null) {
+            scheduleAt(scheduledJob, scheduledJob.cron.next(ZonedDateTime.now()));
+        } else {
+            // Fixed-delay jobs run once at start-up, then after each delay
+            scheduleAt(scheduledJob, ZonedDateTime.now());
+        }
+    }
+
+    private void scheduleAt(ScheduledJob scheduledJob, ZonedDateTime fireTime) {
+        if (shutdown) {
+            return;
+        }
+        scheduledJob.nextFire = fireTime;
+        long delayMillis = Math.max(0, Duration.between(ZonedDateTime.now(), fireTime).toMillis());
+        timer.schedule(() -> fire(scheduledJob, fireTime), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void fire(ScheduledJob scheduledJob, ZonedDateTime fireTime) {
+        JobSchedule schedule = scheduledJob.job.getSchedule();
+        ZonedDateTime now = ZonedDateTime.now();
+        boolean misfired = isMisfire(schedule, fireTime, now);
+
+        boolean submitted = false;
+        if (misfired && schedule.getMisfirePolicy() == JobSchedule.MisfirePolicy.SKIP) {
+            log.warn("Job missed its fire time, skipping", "job", scheduledJob.job.getName(), "fireTime", fireTime);
+        } else {
+            if (misfired) {
+                log.warn("Job missed its fire time, catching up", "job", scheduledJob.job.getName(), "fireTime", fireTime);
+            }
+            submitted = submit(scheduledJob, fireTime);
+        }
+
+        if (scheduledJob.cron != null) {
+            // Next regular time after now, so missed fire times collapse instead of replaying
+            scheduleAt(scheduledJob, scheduledJob.cron.next(now));
+        } else if (!submitted) {
+            // Fixed-delay jobs that did run are rescheduled when the run ends
+            scheduleAt(scheduledJob, now.plus(schedule.getFixedDelay()));
+        }
+    }
+
+    private static boolean isMisfire(JobSchedule schedule, ZonedDateTime fireTime, ZonedDateTime now) {
+        return Duration.between(fireTime, now).compareTo(schedule.getMisfireThreshold()) > 0;
+    }
+
+    /**
+     * Queue a run, or apply the misfire policy if the job is queued or running
+     * @param fireTime Fire time being served, or null for runNow
+     * @return true if the run was queued, or a catch-up run was promised for
+     * when the current one ends
+     */
+    private boolean submit(ScheduledJob scheduledJob, ZonedDateTime fireTime) {
+        if (shutdown) {
+            return false;
+        }
+        // Locked against runEnded, so a promised catch-up is never missed
+        synchronized (scheduledJob) {
+            if (!scheduledJob.active.compareAndSet(false, true)) {
+                if (fireTime != null
+                        && scheduledJob.job.getSchedule().getMisfirePolicy() == JobSchedule.MisfirePolicy.RUN_ONCE) {
+                    log.info("Job is still running, will run once more after it", "job", scheduledJob.job.getName());
+                    scheduledJob.catchUpFireTime = fireTime;
+                    return true;
+                }
+                log.info("Job is still running, skipping overlapping run", "job", scheduledJob.job.getName());
+                return false;
+            }
+        }
+        try {
+            workers.execute(new RunRequest(scheduledJob, fireTime, submissionSequence.incrementAndGet()));
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Lost a race with shutdown
+            scheduledJob.active.set(false);
+            return false;
+        }
+    }
+
+    private void runJob(ScheduledJob scheduledJob, ZonedDateTime fireTime) {
+        JobDefinition job = scheduledJob.job;
+        JobSchedule schedule = job.getSchedule();
+        if (fireTime != null && isMisfire(schedule, fireTime, ZonedDateTime.now())) {
+            // Waited for a slot past the misfire threshold
+            if (schedule.getMisfirePolicy() == JobSchedule.MisfirePolicy.SKIP) {
+                log.warn("Job waited past its fire time for a slot, skipping", "job", job.getName(),
+                        "fireTime", fireTime);
+                runEnded(scheduledJob, fireTime);
+                return;
+            }
+            log.warn("Job waited past its fire time for a slot, catching up", "job", job.getName(),
+                    "fireTime", fireTime);
+        }
+
+        IntegrationProgress progress = new IntegrationProgress();
+        scheduledJob.currentProgress = progress;
+        RunRegistry.Run run = RunRegistry.global().register(job.getName(), progress);
+        run.started();
+        long started = System.currentTimeMillis();
+
+        try {
+            int rowsAffected = runner.run(scheduledJob.plan, progress);
+            run.finished(RunRegistry.Status.SUCCEEDED, null);
+            log.info("Job succeeded", "job", job.getName(), "rows", rowsAffected,
+                    "elapsedMs", System.currentTimeMillis() - started);
+        } catch (SQLException e) {
+            if (progress.isCancelled()) {
+                run.finished(RunRegistry.Status.CANCELLED, e.getMessage());
+                log.warn("Job cancelled", "job", job.getName(), "error", e.getMessage());
+            } else {
+                run.finished(RunRegistry.Status.FAILED, e.getMessage());
+                log.error("Job failed", "job", job.getName(), "error", e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            run.finished(RunRegistry.Status.FAILED, String.valueOf(e));
+            log.error("Job failed", "job", job.getName(), e);
+        } finally {
+            scheduledJob.currentProgress = null;
+            runEnded(scheduledJob, fireTime);
+        }
+    }
+
+    /**
+     * Free the job for its next run: a catch-up run promised while this one
+     * was queued or running, otherwise the next fixed-delay time
+     */
+    private void runEnded(ScheduledJob scheduledJob, ZonedDateTime fireTime) {
+        ZonedDateTime catchUp;
+        synchronized (scheduledJob) {
+            catchUp = scheduledJob.catchUpFireTime;
+            scheduledJob.catchUpFireTime = null;
+            scheduledJob.active.set(false);
+        }
+
+        if (catchUp != null && submit(scheduledJob, catchUp)) {
+            // The catch-up run reschedules a fixed-delay job when it ends
+            return;
+        }
+        if (fireTime != null && scheduledJob.cron == null) {
+            scheduleAt(scheduledJob, ZonedDateTime.now().plus(scheduledJob.job.getSchedule().getFixedDelay()));
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class ScheduledJob {
+        final ExecutionPlan plan;
+        final JobDefinition job;
+        final CronExpression cron;
+        // Queued or running; guards against overlapping runs
+        final AtomicBoolean active = new AtomicBoolean();
+        volatile ZonedDateTime nextFire;
+        volatile IntegrationProgress currentProgress;
+        // Fire time that overlapped the current run, under RUN_ONCE; guarded by this
+        ZonedDateTime catchUpFireTime;
+
+        ScheduledJob(ExecutionPlan plan, CronExpression cron) {
+            this.plan = plan;
+            this.job = plan.getJob();
+            this.cron = cron;
+        }
+    }
+
+    private class RunRequest implements Runnable, Comparable<RunRequest> {
+        final ScheduledJob scheduledJob;
+        // Null for runNow
+        final ZonedDateTime fireTime;
+        final long sequence;
+
+        RunRequest(ScheduledJob scheduledJob, ZonedDateTime fireTime, long sequence) {
+            this.scheduledJob = scheduledJob;
+            this.fireTime = fireTime;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void run() {
+            runJob(scheduledJob, fireTime);
+        }
+
+        @Override
+        public int compareTo(RunRequest other) {
+            int byPriority = Integer.compare(other.scheduledJob.job.getSchedule().getPriority(),
+                    scheduledJob.job.getSchedule().getPriority());
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
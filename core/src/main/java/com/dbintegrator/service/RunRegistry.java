@@ -0,0 +1,270 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.RunHistoryEntry;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.RunHistoryStore;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Integration runs of this process, for status displays: the ones queued or
+ * running, and the last few that finished. Runs are registered by whatever
+ * launches them (IntegrationTask, JobScheduler); readers poll getRuns()
+ * rather than being notified, so a run costs nothing extra per row.
+ * Listeners hear about each run once it finishes, e.g. to record it with
+ * RunHistoryStore.
+ */
+public final class RunRegistry {
+    private static final Log log = Log.get(RunRegistry.class);
+
+    public interface Listener {
+        void runFinished(Run run) throws Exception;
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this != QUEUED && this != RUNNING;
+        }
+    }
+
+    // Finished runs kept for display
+    private static final int RECENT_RUNS = 20;
+
+    private static final RunRegistry GLOBAL = new RunRegistry();
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Set<Run> active = ConcurrentHashMap.newKeySet();
+    private final Deque<Run> recent = new ArrayDeque<>();
+    private final LongAdder failedRuns = new LongAdder();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public static RunRegistry global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param name Job or screen the run belongs to
+     * @param progress Progress the run will report into
+     * @return Run in state QUEUED; call started() and finished() on it
+     */
+    public Run register(String name, IntegrationProgress progress) {
+        Run run = new Run(this, ids.incrementAndGet(), name, progress);
+        active.add(run);
+        return run;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Record every run that finishes from now on in a history store
+     */
+    public void recordHistory(RunHistoryStore historyStore) {
+        addListener(run -> historyStore.record(run.toHistoryEntry()));
+    }
+
+    /**
+     * @return Queued and running runs, then recently finished ones, newest first
+     */
+    public List<Run> getRuns() {
+        List<Run> runs = new ArrayList<>(active);
+        runs.sort((a, b) -> Long.compare(b.id, a.id));
+        synchronized (recent) {
+            runs.addAll(recent);
+        }
+        return runs;
+    }
+
+    public int getQueuedCount() {
+        return countActive(Status.QUEUED);
+    }
+
+    public int getRunningCount() {
+        return countActive(Status.RUNNING);
+    }
+
+    /**
+     * @return Runs that failed since the process started, cancellations excluded
+     */
+    public long getFailedCount() {
+        return failedRuns.sum();
+    }
+
+    private int countActive(Status status) {
+        int count = 0;
+        for (Run run : active) {
+            if (run.status == status) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void retire(Run run) {
+        if (run.status == Status.FAILED) {
+            failedRuns.increment();
+        }
+        synchronized (recent) {
+            recent.addFirst(run);
+            while (recent.size() > RECENT_RUNS) {
+                recent.removeLast();
+            }
+        }
+        active.remove(run);
+
+        long roundTrips = run.getMetricDelta(MetricsRegistry.LATENCY_ROUND_TRIPS);
+        if (roundTrips > 0) {
+            log.info("Injected latency", "run", run.name, "roundTrips", roundTrips,
+                    "injectedMs", run.getMetricDelta(MetricsRegistry.LATENCY_INJECTED) / 1000);
+        }
+
+        for (Listener listener : listeners) {
+            try {
+                listener.runFinished(run);
+            } catch (Exception e) {
+                // Reporting must not turn a finished run into a failed one
+                log.warn("Run listener failed", "run", run.name, "error", e.getMessage());
+            }
+        }
+    }
+
+    public static final class Run {
+        private final RunRegistry registry;
+        private final long id;
+        private final String name;
+        private final IntegrationProgress progress;
+        private final long queuedMillis = System.currentTimeMillis();
+        private volatile long startedMillis;
+        private volatile long finishedMillis;
+        private volatile Status status = Status.QUEUED;
+        private volatile String error;
+        // Process-wide counter and timer totals when the run started, and what they grew by
+        private Map<String, Long> metricsAtStart = Map.of();
+        private volatile Map<String, Long> metricDeltas = Map.of();
+
+        private Run(RunRegistry registry, long id, String name, IntegrationProgress progress) {
+            this.registry = registry;
+            this.id = id;
+            this.name = name;
+            this.progress = progress;
+        }
+
+        public void started() {
+            metricsAtStart = metricTotals();
+            startedMillis = System.currentTimeMillis();
+            status = Status.RUNNING;
+        }
+
+        /**
+         * @param status Final status
+         * @param error Failure message, or null
+         */
+        public void finished(Status status, String error) {
+            if (this.status.isFinished()) {
+                return;
+            }
+            this.finishedMillis = System.currentTimeMillis();
+            Map<String, Long> deltas = new HashMap<>();
+            metricTotals().forEach((metric, total) ->
+                    deltas.put(metric, total - metricsAtStart.getOrDefault(metric, 0L)));
+            this.metricDeltas = deltas;
+            this.error = error;
+            this.status = status;
+            registry.retire(this);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public IntegrationProgress getProgress() {
+            return progress;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public long getQueuedMillis() {
+            return queuedMillis;
+        }
+
+        public long getStartedMillis() {
+            return startedMillis;
+        }
+
+        public long getFinishedMillis() {
+            return finishedMillis;
+        }
+
+        /**
+         * How much a counter or timer (total nanoseconds) grew while the run
+         * ran, once it has finished. The metrics are process-wide, so the
+         * deltas of runs that overlapped include each other's work.
+         */
+        public long getMetricDelta(String name) {
+            return metricDeltas.getOrDefault(name, 0L);
+        }
+
+        /**
+         * @return Summary of the finished run for RunHistoryStore
+         */
+        public RunHistoryEntry toHistoryEntry() {
+            RunHistoryEntry entry = new RunHistoryEntry();
+            entry.setJob(name);
+            entry.setStatus(status.name());
+            entry.setStartedMillis(startedMillis != 0 ? startedMillis : queuedMillis);
+            entry.setFinishedMillis(finishedMillis);
+            entry.setRowsRead(progress.getRowsRead());
+            entry.setRowsWritten(progress.getRowsWritten());
+            entry.setRowsSkipped(getMetricDelta(MetricsRegistry.ROWS_SKIPPED));
+            entry.setRowsFailed(getMetricDelta(MetricsRegistry.ROWS_FAILED));
+            entry.setError(error);
+            for (String stage : RunHistoryStore.getStages()) {
+                entry.setStageMillis(stage, getMetricDelta(stage) / 1_000_000);
+            }
+            return entry;
+        }
+
+        /**
+         * @return Time spent running so far, or in total once finished
+         */
+        public long getElapsedMillis() {
+            if (startedMillis == 0) {
+                return 0;
+            }
+            return (finishedMillis != 0 ? finishedMillis : System.currentTimeMillis()) - startedMillis;
+        }
+
+        private static Map<String, Long> metricTotals() {
+            MetricsRegistry metrics = MetricsRegistry.global();
+            Map<String, Long> totals = new HashMap<>(metrics.getCounters());
+            for (String stage : RunHistoryStore.getStages()) {
+                totals.put(stage, metrics.timer(stage).getTotalNanos());
+            }
+            return totals;
+        }
+    }
+}
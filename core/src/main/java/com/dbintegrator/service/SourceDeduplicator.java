@@ -0,0 +1,104 @@
+package com.dbintegrator.service;
+
+import com.dbintegrator.model.IntegrationOptions.DedupPolicy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses extracted source rows that share a match value, so that the
+ * writer sees one row per destination key instead of an insert followed by
+ * repeated updates of the same row. Rows are held in a hash map keyed by
+ * match value; rows without a match value are never merged.
+ */
+public class SourceDeduplicator {
+    private final DedupPolicy policy;
+    private final int keyIndex;
+    private final int orderIndex;
+
+    // First-seen order of keys is kept so output order follows the extract
+    private final Map<String, Object[]> rowsByKey = new LinkedHashMap<>();
+    private final List<Object[]> unkeyedRows = new ArrayList<>();
+    private int rowsSeen;
+
+    /**
+     * @param policy Resolution policy for rows sharing a key; NONE is not accepted
+     * @param keyIndex Position of the match value in each row
+     * @param orderIndex Position of the order column for MAX_BY, ignored otherwise
+     */
+    public SourceDeduplicator(DedupPolicy policy, int keyIndex, int orderIndex) {
+        if (policy == DedupPolicy.NONE) {
+            throw new IllegalArgumentException("Deduplication policy NONE does not collapse rows");
+        }
+        this.policy = policy;
+        this.keyIndex = keyIndex;
+        this.orderIndex = orderIndex;
+    }
+
+    public void add(Object[] row) {
+        rowsSeen++;
+
+        Object key = row[keyIndex];
+        if (key == null) {
+            unkeyedRows.add(row);
+            return;
+        }
+
+        String matchValue = key.toString();
+        Object[] current = rowsByKey.get(matchValue);
+        if (current == null || replaces(current, row)) {
+            rowsByKey.put(matchValue, row);
+        }
+    }
+
+    /**
+     * @return Surviving rows, one per match value, followed by rows without a match value
+     */
+    public List<Object[]> rows() {
+        List<Object[]> rows = new ArrayList<>(rowsByKey.size() + unkeyedRows.size());
+        rows.addAll(rowsByKey.values());
+        rows.addAll(unkeyedRows);
+        return rows;
+    }
+
+    public int getRowsSeen() {
+        return rowsSeen;
+    }
+
+    public int getRowsKept() {
+        return rowsByKey.size() + unkeyedRows.size();
+    }
+
+    private boolean replaces(Object[] current, Object[] candidate) {
+        switch (policy) {
+            case FIRST:
+                return false;
+            case LAST:
+                return true;
+            default:
+                // MAX_BY: ties keep the earlier row
+                return compareValues(candidate[orderIndex], current[orderIndex]) > 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            // Nulls sort lowest
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+                return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            }
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+        }
+        if (a instanceof Comparable && a.getClass().isInstance(b)) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+}
@@ -0,0 +1,188 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background writer behind Log. Records wait in a fixed-size ring buffer
+ * (an ArrayBlockingQueue) and are written in batches by a single daemon
+ * thread. When the buffer is full, TRACE to INFO records are dropped and
+ * counted rather than slowing the caller down; WARN and ERROR records wait
+ * for space so problems are never lost.
+ */
+final class AsyncLogWriter {
+    static final String CAPACITY_PROPERTY = "dbintegrator.log.buffer";
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 256;
+    private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private static final AsyncLogWriter INSTANCE = new AsyncLogWriter(
+            Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY));
+
+    private final BlockingQueue<Record> queue;
+    private final AtomicLong dropped = new AtomicLong();
+    private final LongAdder totalDropped = MetricsRegistry.global().counter(MetricsRegistry.LOG_DROPPED);
+    private final Thread writerThread;
+
+    private AsyncLogWriter(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, capacity));
+        MetricsRegistry.global().gauge(MetricsRegistry.LOG_QUEUE, queue::size);
+        this.writerThread = new Thread(this::drainLoop, "log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        // Write out what is still queued when the JVM exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "log-flush"));
+    }
+
+    static AsyncLogWriter instance() {
+        return INSTANCE;
+    }
+
+    void submit(Record record) {
+        if (record.level.compareTo(Log.Level.WARN) < 0) {
+            if (!queue.offer(record)) {
+                dropped.incrementAndGet();
+                totalDropped.increment();
+            }
+            return;
+        }
+
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            // Do not lose a warning because the caller is being cancelled
+            Thread.currentThread().interrupt();
+            write(List.of(record));
+        }
+    }
+
+    /**
+     * Block until records queued before this call are written, or a timeout passes
+     */
+    void flush() {
+        if (Thread.currentThread() == writerThread || !writerThread.isAlive()) {
+            return;
+        }
+        Record marker = new Record(0, Log.Level.ERROR, null, null, null, null);
+        marker.written = new CountDownLatch(1);
+        try {
+            if (queue.offer(marker, FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                marker.written.await(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        List<Record> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // A failing toString() in a field must not stop logging
+                System.err.println("Log writer error: " + e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Record> batch) {
+        // Looked up on every batch so redirections (see IntegrationCli) apply
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+
+        long droppedCount = dropped.getAndSet(0);
+        if (droppedCount > 0) {
+            err.println(TIME_FORMAT.format(Instant.now()) + " WARN  [log-writer] Log - " +
+                    droppedCount + " log messages dropped, buffer full");
+        }
+
+        boolean wroteOut = false;
+        boolean wroteErr = false;
+        for (Record record : batch) {
+            if (record.written != null) {
+                out.flush();
+                err.flush();
+                record.written.countDown();
+                continue;
+            }
+            boolean isError = record.level.compareTo(Log.Level.WARN) >= 0;
+            PrintStream stream = isError ? err : out;
+            stream.println(format(record));
+            if (record.thrown != null) {
+                record.thrown.printStackTrace(stream);
+            }
+            wroteOut |= !isError;
+            wroteErr |= isError;
+        }
+        if (wroteOut) {
+            out.flush();
+        }
+        if (wroteErr) {
+            err.flush();
+        }
+    }
+
+    private static String format(Record record) {
+        StringBuilder line = new StringBuilder(128)
+                .append(TIME_FORMAT.format(Instant.ofEpochMilli(record.timeMillis)))
+                .append(' ').append(String.format("%-5s", record.level))
+                .append(" [").append(record.thread).append("] ")
+                .append(record.logger).append(" - ").append(record.message);
+
+        Object[] fields = record.fields;
+        int fieldCount = record.thrown != null ? fields.length - 1 : fields.length;
+        for (int i = 0; i < fieldCount; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            if (i + 1 < fieldCount) {
+                line.append(fields[i + 1]);
+            }
+        }
+        return line.toString();
+    }
+
+    static final class Record {
+        final long timeMillis;
+        final Log.Level level;
+        final String logger;
+        final String thread;
+        final String message;
+        final Object[] fields;
+        final Throwable thrown;
+        // Set on flush markers only
+        CountDownLatch written;
+
+        Record(long timeMillis, Log.Level level, String logger, String thread, String message, Object[] fields) {
+            this.timeMillis = timeMillis;
+            this.level = level;
+            this.logger = logger;
+            this.thread = thread;
+            this.message = message;
+            this.fields = fields != null ? fields : new Object[0];
+            this.thrown = this.fields.length > 0 && this.fields[this.fields.length - 1] instanceof Throwable
+                    ? (Throwable) this.fields[this.fields.length - 1] : null;
+        }
+    }
+}
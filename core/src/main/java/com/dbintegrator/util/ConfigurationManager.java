@@ -15,6 +15,8 @@ import java.security.spec.KeySpec;
 import java.util.Base64;
 
 public class ConfigurationManager {
+    private static final Log log = Log.get(ConfigurationManager.class);
+
     private static final String CONFIG_FILE = "db_connections.properties";
     // Simple secret key for basic encryption - in a production app, use more secure key management
     private static final String SECRET_KEY = "OracleDBIntegrator";
@@ -34,28 +36,36 @@ public class ConfigurationManager {
     private static final String DEST_PASSWORD = "dest.password";
 
     private Properties properties;
+    private final File configFile;
 
     public ConfigurationManager() {
+        this(new File(CONFIG_FILE));
+    }
+
+    /**
+     * @param configFile Connection properties file, e.g. one deployed with a batch job
+     */
+    public ConfigurationManager(File configFile) {
+        this.configFile = configFile;
         properties = new Properties();
         loadConfiguration();
     }
 
     private void loadConfiguration() {
-        File configFile = new File(CONFIG_FILE);
         if (configFile.exists()) {
             try (FileInputStream fis = new FileInputStream(configFile)) {
                 properties.load(fis);
             } catch (Exception e) {
-                System.err.println("Error loading configuration: " + e.getMessage());
+                log.error("Error loading configuration", "error", e.getMessage());
             }
         }
     }
 
     public void saveConfiguration() {
-        try (FileOutputStream fos = new FileOutputStream(CONFIG_FILE)) {
+        try (FileOutputStream fos = new FileOutputStream(configFile)) {
             properties.store(fos, "Database Connection Configuration");
         } catch (Exception e) {
-            System.err.println("Error saving configuration: " + e.getMessage());
+            log.error("Error saving configuration", "error", e.getMessage());
         }
     }
 
@@ -141,7 +151,7 @@ public class ConfigurationManager {
             byte[] encrypted = cipher.doFinal(property.getBytes(StandardCharsets.UTF_8));
             return Base64.getEncoder().encodeToString(encrypted);
         } catch (Exception e) {
-            System.err.println("Error encrypting property: " + e.getMessage());
+            log.error("Error encrypting property", "error", e.getMessage());
             return property;
         }
     }
@@ -161,7 +171,7 @@ public class ConfigurationManager {
             byte[] decrypted = cipher.doFinal(decoded);
             return new String(decrypted, StandardCharsets.UTF_8);
         } catch (Exception e) {
-            System.err.println("Error decrypting property: " + e.getMessage());
+            log.error("Error decrypting property", "error", e.getMessage());
             return property;
         }
     }
@@ -0,0 +1,135 @@
+package com.dbintegrator.util;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Standard five-field cron expression: minute, hour, day of month, month and
+ * day of week (0 or 7 = Sunday). Fields accept *, single values, ranges
+ * (1-5), lists (1,15) and steps (*&#47;15, 8-18/2). As in cron, when both day
+ * fields are restricted a time matches if either of them does.
+ */
+public final class CronExpression {
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    private CronExpression(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Cron expression needs 5 fields: " + expression);
+        }
+        this.expression = expression.trim();
+        this.minutes = parseField(fields[0], 0, 59, expression);
+        this.hours = parseField(fields[1], 0, 23, expression);
+        this.daysOfMonth = parseField(fields[2], 1, 31, expression);
+        this.months = parseField(fields[3], 1, 12, expression);
+        this.daysOfWeek = parseField(fields[4], 0, 7, expression);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    /**
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static CronExpression parse(String expression) {
+        return new CronExpression(expression);
+    }
+
+    /**
+     * @param after Reference time
+     * @return First matching time strictly after the reference time
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        // Four years covers every reachable combination, including Feb 29
+        ZonedDateTime limit = time.plusYears(4);
+
+        while (time.isBefore(limit)) {
+            if (!months.get(time.getMonthValue())) {
+                time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!dayMatches(time)) {
+                time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(time.getHour())) {
+                time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(time.getMinute())) {
+                time = time.plusMinutes(1);
+            } else {
+                return time;
+            }
+        }
+        throw new IllegalStateException("Cron expression never matches: " + expression);
+    }
+
+    private boolean dayMatches(ZonedDateTime time) {
+        boolean domMatch = daysOfMonth.get(time.getDayOfMonth());
+        // java.time numbers Monday..Sunday as 1..7; cron uses 0 for Sunday
+        boolean dowMatch = daysOfWeek.get(time.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return domMatch || dowMatch;
+        }
+        return domMatch && dowMatch;
+    }
+
+    private static BitSet parseField(String field, int min, int max, String expression) {
+        BitSet values = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, expression);
+                part = part.substring(0, slash);
+            }
+
+            int start;
+            int end;
+            if (part.equals("*")) {
+                start = min;
+                end = max;
+            } else if (part.contains("-")) {
+                String[] range = part.split("-", 2);
+                start = parseNumber(range[0], min, max, expression);
+                end = parseNumber(range[1], min, max, expression);
+            } else {
+                start = parseNumber(part, min, max, expression);
+                // "5/10" means from 5 to the end of the range
+                end = slash >= 0 ? max : start;
+            }
+            if (start > end) {
+                throw new IllegalArgumentException("Invalid range " + part + " in cron expression: " + expression);
+            }
+
+            for (int value = start; value <= end; value += step) {
+                values.set(value);
+            }
+        }
+        return values;
+    }
+
+    private static int parseNumber(String text, int min, int max, String expression) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Value " + value + " out of range " + min + "-" + max +
+                        " in cron expression: " + expression);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value '" + text + "' in cron expression: " + expression);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
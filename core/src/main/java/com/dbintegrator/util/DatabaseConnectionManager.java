@@ -0,0 +1,217 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.monitoring.ConnectionWaitEvent;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.SqlProfiler;
+import com.dbintegrator.monitoring.Timer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+public class DatabaseConnectionManager {
+    private static final Log log = Log.get(DatabaseConnectionManager.class);
+
+    // Connections one manager may have open at once for concurrent lookups
+    public static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+    private static final Timer CONNECTION_ACQUIRE = MetricsRegistry.global().timer(MetricsRegistry.CONNECTION_ACQUIRE);
+
+    private String host;
+    private int port;
+    private String sid;
+    private String username;
+    private String password;
+    private String connectionUrl;
+    private volatile int maxConnections = DEFAULT_MAX_CONNECTIONS;
+    private final ResizableSemaphore connectionPermits = new ResizableSemaphore(DEFAULT_MAX_CONNECTIONS);
+    // Read from the first connection that asks, see getDialect
+    private volatile DialectDescriptor dialect;
+
+    public DatabaseConnectionManager(String host, int port, String sid, String username, String password) {
+        this.host = host;
+        this.port = port;
+        this.sid = sid;
+        this.username = username;
+        this.password = password;
+
+        // For H2 in-memory databases, use a different connection URL
+        if (sid.equals("sourcedb") || sid.equals("destdb")) {
+            this.connectionUrl = "jdbc:h2:mem:" + sid + ";MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+        } else {
+            // Standard Oracle connection URL
+            this.connectionUrl = String.format("jdbc:oracle:thin:@%s:%d:%s", host, port, sid);
+        }
+    }
+
+    /**
+     * Connect to a database by JDBC URL rather than Oracle host/port/SID,
+     * e.g. an H2 file database (see TestFixtureStore)
+     * @param connectionUrl JDBC URL
+     */
+    public DatabaseConnectionManager(String connectionUrl, String username, String password) {
+        this.connectionUrl = connectionUrl;
+        this.username = username;
+        this.password = password;
+        this.host = "";
+        this.sid = connectionUrl;
+    }
+
+    /**
+     * Open a new connection. Nothing here keeps a reference to it, so
+     * concurrent callers each get their own and must close it themselves.
+     * @return New connection
+     * @throws SQLException if database access error occurs
+     */
+    public Connection getConnection() throws SQLException {
+        // Always create a new connection to avoid closed database issues
+        try {
+            // Simulated network latency, for benchmarking against a local database
+            String url = connectionUrl;
+            String latency = System.getProperty(LatencyInjectingDriver.LATENCY_PROPERTY, "");
+            if (!latency.isEmpty() && !url.startsWith(LatencyInjectingDriver.URL_PREFIX)) {
+                try {
+                    url = LatencyInjectingDriver.wrapUrl(latency, url);
+                } catch (IllegalArgumentException e) {
+                    throw new SQLException(e.getMessage(), e);
+                }
+            }
+            boolean delayed = url.startsWith(LatencyInjectingDriver.URL_PREFIX);
+            String databaseUrl = delayed ? LatencyInjectingDriver.databaseUrl(url) : url;
+
+            // Ensure driver is loaded
+            if (databaseUrl.startsWith("jdbc:h2:")) {
+                Class.forName("org.h2.Driver");
+            } else {
+                Class.forName("oracle.jdbc.driver.OracleDriver");
+            }
+            if (delayed) {
+                Class.forName(LatencyInjectingDriver.class.getName());
+            }
+
+            // Create new connection with specific properties
+            Properties props = new Properties();
+            props.setProperty("user", username);
+            props.setProperty("password", password);
+
+            ConnectionWaitEvent waitEvent = new ConnectionWaitEvent();
+            waitEvent.begin();
+            long start = CONNECTION_ACQUIRE.start();
+            Connection connection = DriverManager.getConnection(url, props);
+            CONNECTION_ACQUIRE.stop(start);
+            waitEvent.end();
+            if (waitEvent.shouldCommit()) {
+                waitEvent.database = getConnectionInfo();
+                waitEvent.phase = ConnectionWaitEvent.CONNECT;
+                waitEvent.commit();
+            }
+            if (SqlProfiler.global().isEnabled()) {
+                return SqlProfiler.global().wrap(connection);
+            }
+            return connection;
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Database driver not found", e);
+        }
+    }
+
+    /**
+     * What the database is and can do. Read once, on the first call, so
+     * callers need not open a connection of their own to find out.
+     * @return Descriptor of the database
+     * @throws SQLException if database access error occurs
+     */
+    public DialectDescriptor getDialect() throws SQLException {
+        DialectDescriptor resolved = dialect;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = dialect;
+                if (resolved == null) {
+                    try (Connection conn = getConnection()) {
+                        resolved = DialectDescriptor.of(conn, username);
+                    }
+                    log.debug("Database dialect", "database", getConnectionInfo(),
+                            "product", resolved.getProductName(), "version", resolved.getProductVersion());
+                    dialect = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Set how many connections concurrent work may hold against this database.
+     * The permits are resized in place, so work already holding one keeps it
+     * and returns it to the same semaphore; after a shrink, new work waits
+     * until enough of those have been released.
+     * @param maxConnections Connection capacity, at least 1
+     */
+    public synchronized void setMaxConnections(int maxConnections) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("maxConnections must be at least 1");
+        }
+        int change = maxConnections - this.maxConnections;
+        if (change > 0) {
+            connectionPermits.release(change);
+        } else if (change < 0) {
+            connectionPermits.reducePermits(-change);
+        }
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Permits bounding concurrent connections; see JdbcTaskExecutor
+     * @return Semaphore sized to getMaxConnections()
+     */
+    public Semaphore getConnectionPermits() {
+        return connectionPermits;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getSid() {
+        return sid;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getConnectionUrl() {
+        return connectionUrl;
+    }
+
+    public String getConnectionInfo() {
+        if (host.isEmpty()) {
+            return username + "@" + connectionUrl;
+        }
+        return String.format("%s@%s:%d/%s", username, host, port, sid);
+    }
+
+    /**
+     * Semaphore whose capacity can shrink while permits are held
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.dbintegrator.util;
+
+/**
+ * SQL dialect of a connected database. Used to pick write strategies and
+ * other vendor-specific behaviour without sprinkling product-name checks
+ * throughout the services. Resolve it through
+ * DatabaseConnectionManager.getDialect(), which reads it once.
+ */
+public enum DatabaseDialect {
+    ORACLE(true),
+    H2(false),
+    GENERIC(false);
+
+    private final boolean arrayBinding;
+
+    DatabaseDialect(boolean arrayBinding) {
+        this.arrayBinding = arrayBinding;
+    }
+
+    /**
+     * Whether whole column arrays can be bound in one call and applied
+     * server-side (Oracle collections with a FORALL block).
+     * @return true if array-bind DML is available
+     */
+    public boolean supportsArrayBinding() {
+        return arrayBinding;
+    }
+
+    /**
+     * Maps a JDBC product name to a dialect
+     * @param productName Value of DatabaseMetaData.getDatabaseProductName()
+     * @return Matching dialect, GENERIC if unknown
+     */
+    public static DatabaseDialect fromProductName(String productName) {
+        if (productName == null) {
+            return GENERIC;
+        }
+        String name = productName.toUpperCase();
+        if (name.contains("ORACLE")) {
+            return ORACLE;
+        } else if (name.contains("H2")) {
+            return H2;
+        }
+        return GENERIC;
+    }
+}
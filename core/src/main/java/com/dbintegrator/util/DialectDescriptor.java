@@ -0,0 +1,104 @@
+package com.dbintegrator.util;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * What a connected database is and what it can do, read from its metadata
+ * once per DatabaseConnectionManager (see getDialect there) so that the
+ * services can ask without opening a connection each time.
+ */
+public final class DialectDescriptor {
+    private final DatabaseDialect dialect;
+    private final String productName;
+    private final String productVersion;
+    private final int majorVersion;
+    private final String defaultSchema;
+
+    DialectDescriptor(DatabaseDialect dialect, String productName, String productVersion,
+                      int majorVersion, String defaultSchema) {
+        this.dialect = dialect;
+        this.productName = productName;
+        this.productVersion = productVersion;
+        this.majorVersion = majorVersion;
+        this.defaultSchema = defaultSchema;
+    }
+
+    /**
+     * Reads the descriptor of an open connection
+     * @param connection Open connection to inspect
+     * @param username User the connection logged on as
+     * @return Descriptor of the connected database
+     * @throws SQLException if database access error occurs
+     */
+    public static DialectDescriptor of(Connection connection, String username) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String productName = metaData.getDatabaseProductName();
+        DatabaseDialect dialect = DatabaseDialect.fromProductName(productName);
+
+        String defaultSchema;
+        if (dialect == DatabaseDialect.H2) {
+            // H2 uses PUBLIC as the default schema
+            defaultSchema = "PUBLIC";
+        } else {
+            // Oracle typically uses the username as schema
+            defaultSchema = username.toUpperCase();
+        }
+
+        return new DialectDescriptor(dialect, productName, metaData.getDatabaseProductVersion(),
+                metaData.getDatabaseMajorVersion(), defaultSchema);
+    }
+
+    /**
+     * @return Dialect used to pick vendor-specific behaviour
+     */
+    public DatabaseDialect getDialect() {
+        return dialect;
+    }
+
+    public boolean isH2() {
+        return dialect == DatabaseDialect.H2;
+    }
+
+    public boolean isOracle() {
+        return dialect == DatabaseDialect.ORACLE;
+    }
+
+    /**
+     * @return Value of DatabaseMetaData.getDatabaseProductName()
+     */
+    public String getProductName() {
+        return productName;
+    }
+
+    /**
+     * @return Value of DatabaseMetaData.getDatabaseProductVersion()
+     */
+    public String getProductVersion() {
+        return productVersion;
+    }
+
+    public int getMajorVersion() {
+        return majorVersion;
+    }
+
+    /**
+     * @return Schema holding the user's tables, for metadata queries
+     */
+    public String getDefaultSchema() {
+        return defaultSchema;
+    }
+
+    /**
+     * @see DatabaseDialect#supportsArrayBinding()
+     */
+    public boolean supportsArrayBinding() {
+        return dialect.supportsArrayBinding();
+    }
+
+    @Override
+    public String toString() {
+        return dialect + " " + productVersion;
+    }
+}
@@ -0,0 +1,104 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.monitoring.ConnectionWaitEvent;
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.Timer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs independent blocking JDBC calls concurrently, one virtual thread per
+ * call. Each call holds a permit from the connection manager's semaphore
+ * while it runs, so hundreds of lookups share a small number of database
+ * connections instead of opening one each.
+ */
+public final class JdbcTaskExecutor {
+    private static final Timer PERMIT_WAIT = MetricsRegistry.global().timer(MetricsRegistry.PERMIT_WAIT);
+
+    @FunctionalInterface
+    public interface JdbcCall<T, R> {
+        R apply(T input) throws SQLException;
+    }
+
+    private JdbcTaskExecutor() {
+    }
+
+    /**
+     * Apply a JDBC call to every input concurrently
+     * @param dbManager Database the calls run against; bounds their concurrency
+     * @param inputs Inputs, e.g. IDs to look up
+     * @param call Blocking call to make for each input
+     * @return Results in input order
+     * @throws SQLException if any call fails; further failures are attached as suppressed
+     */
+    public static <T, R> List<R> mapConcurrently(DatabaseConnectionManager dbManager, List<T> inputs,
+                                                 JdbcCall<T, R> call) throws SQLException {
+        if (inputs.size() <= 1) {
+            // Nothing to overlap
+            List<R> results = new ArrayList<>(inputs.size());
+            for (T input : inputs) {
+                results.add(call.apply(input));
+            }
+            return results;
+        }
+
+        Semaphore permits = dbManager.getConnectionPermits();
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (T input : inputs) {
+                futures.add(executor.submit(() -> {
+                    ConnectionWaitEvent waitEvent = new ConnectionWaitEvent();
+                    waitEvent.begin();
+                    long start = PERMIT_WAIT.start();
+                    permits.acquire();
+                    PERMIT_WAIT.stop(start);
+                    waitEvent.end();
+                    if (waitEvent.shouldCommit()) {
+                        waitEvent.database = dbManager.getConnectionInfo();
+                        waitEvent.phase = ConnectionWaitEvent.PERMIT;
+                        waitEvent.commit();
+                    }
+                    try {
+                        return call.apply(input);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            List<R> results = new ArrayList<>(inputs.size());
+            SQLException failure = null;
+            for (Future<R> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    SQLException cause = e.getCause() instanceof SQLException
+                            ? (SQLException) e.getCause()
+                            : new SQLException("Concurrent lookup failed", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                    results.add(null);
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for concurrent lookups", e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.IntegrationOptions;
+import com.dbintegrator.model.JobDefinition;
+import com.dbintegrator.model.JobSchedule;
+import com.dbintegrator.model.TableColumn;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Reads a job definition from a properties file:
+ * <pre>
+ * job.name=resource-sync
+ * job.type=MERGE
+ * source.table=HR_ALL_PEOPLE
+ * dest.table=RSRC
+ * mapping.1=FULL_NAME -> NAME
+ * mapping.2=JOB_TITLE -> ROLE
+ * source.where=DEPARTMENT_NAME = 'Finance'
+ * source.match=EMAIL_ADDRESS
+ * dest.match=EMAIL
+ * load.mode=AUTO
+ * dedup.policy=LAST
+ * schedule.cron=0 6-18/2 * * 1-5
+ * schedule.priority=8
+ * schedule.misfire=SKIP
+ * </pre>
+ * Mapping columns may be qualified as TABLE.COLUMN to override the default
+ * tables; mappings are applied in the order of their numeric suffix.
+ * Scheduled jobs set either schedule.cron or schedule.delay (an ISO-8601
+ * duration such as PT15M, measured from the end of the previous run).
+ */
+public class JobDefinitionLoader {
+
+    private JobDefinitionLoader() {
+    }
+
+    /**
+     * Load and validate a job definition
+     * @param file Job properties file
+     * @return Parsed job
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the definition is incomplete or invalid
+     */
+    public static JobDefinition load(File file) throws IOException {
+        Properties properties = new Properties();
+        try (FileInputStream fis = new FileInputStream(file)) {
+            properties.load(fis);
+        }
+
+        JobDefinition job = fromProperties(properties);
+        if (job.getName() == null) {
+            String fileName = file.getName();
+            job.setName(fileName.endsWith(".properties")
+                    ? fileName.substring(0, fileName.length() - ".properties".length()) : fileName);
+        }
+        return job;
+    }
+
+    /**
+     * Build a job definition from already loaded properties
+     * @throws IllegalArgumentException if the definition is incomplete or invalid
+     */
+    public static JobDefinition fromProperties(Properties properties) {
+        JobDefinition job = new JobDefinition();
+        job.setName(trimToNull(properties.getProperty("job.name")));
+        job.setType(parseEnum(JobDefinition.JobType.class, properties.getProperty("job.type"),
+                JobDefinition.JobType.MERGE));
+
+        String sourceTable = trimToNull(properties.getProperty("source.table"));
+        String destTable = trimToNull(properties.getProperty("dest.table"));
+        job.setMappings(parseMappings(properties, sourceTable, destTable));
+
+        job.setSourceWhereClause(trimToNull(properties.getProperty("source.where")));
+        job.setDestWhereClause(trimToNull(properties.getProperty("dest.where")));
+        job.setSourceMatchColumn(trimToNull(properties.getProperty("source.match")));
+        job.setDestMatchColumn(trimToNull(properties.getProperty("dest.match")));
+
+        IntegrationOptions options = IntegrationOptions.defaults();
+        options.setLoadMode(parseEnum(IntegrationOptions.LoadMode.class,
+                properties.getProperty("load.mode"), IntegrationOptions.LoadMode.AUTO));
+        options.setRebuildIndexes(Boolean.parseBoolean(properties.getProperty("rebuild.indexes", "false").trim()));
+        options.setDedupPolicy(parseEnum(IntegrationOptions.DedupPolicy.class,
+                properties.getProperty("dedup.policy"), IntegrationOptions.DedupPolicy.NONE));
+        options.setDedupOrderColumn(trimToNull(properties.getProperty("dedup.order")));
+        job.setOptions(options);
+        job.setSchedule(parseSchedule(properties));
+
+        validate(job);
+        return job;
+    }
+
+    /**
+     * Write a job definition in the format read by fromProperties
+     * @param job Job to write
+     * @return Properties holding the job
+     */
+    public static Properties toProperties(JobDefinition job) {
+        Properties properties = new Properties();
+        putIfSet(properties, "job.name", job.getName());
+        properties.setProperty("job.type", job.getType().name());
+
+        // The first mapping's tables become the defaults; other tables are written qualified
+        String sourceTable = job.getMappings().isEmpty() ? null : job.getMappings().get(0).getSourceTable();
+        String destTable = job.getMappings().isEmpty() ? null : job.getMappings().get(0).getDestinationTable();
+        putIfSet(properties, "source.table", sourceTable);
+        putIfSet(properties, "dest.table", destTable);
+        for (int i = 0; i < job.getMappings().size(); i++) {
+            ColumnMapping mapping = job.getMappings().get(i);
+            properties.setProperty("mapping." + (i + 1),
+                    qualifiedName(mapping.getSourceTable(), mapping.getSourceColumn(), sourceTable) + " -> " +
+                    qualifiedName(mapping.getDestinationTable(), mapping.getDestinationColumn(), destTable));
+        }
+
+        putIfSet(properties, "source.where", job.getSourceWhereClause());
+        putIfSet(properties, "dest.where", job.getDestWhereClause());
+        putIfSet(properties, "source.match", job.getSourceMatchColumn());
+        putIfSet(properties, "dest.match", job.getDestMatchColumn());
+
+        IntegrationOptions options = job.getOptions();
+        properties.setProperty("load.mode", options.getLoadMode().name());
+        properties.setProperty("rebuild.indexes", String.valueOf(options.isRebuildIndexes()));
+        properties.setProperty("dedup.policy", options.getDedupPolicy().name());
+        putIfSet(properties, "dedup.order", options.getDedupOrderColumn());
+
+        JobSchedule schedule = job.getSchedule();
+        if (schedule != null) {
+            putIfSet(properties, "schedule.cron", schedule.getCron());
+            if (schedule.getFixedDelay() != null) {
+                properties.setProperty("schedule.delay", schedule.getFixedDelay().toString());
+            }
+            properties.setProperty("schedule.priority", String.valueOf(schedule.getPriority()));
+            properties.setProperty("schedule.misfire", schedule.getMisfirePolicy().name());
+            properties.setProperty("schedule.misfire.threshold", schedule.getMisfireThreshold().toString());
+        }
+        return properties;
+    }
+
+    private static String qualifiedName(String table, TableColumn column, String defaultTable) {
+        return table.equals(defaultTable) ? column.getName() : table + "." + column.getName();
+    }
+
+    private static void putIfSet(Properties properties, String key, String value) {
+        if (value != null) {
+            properties.setProperty(key, value);
+        }
+    }
+
+    private static JobSchedule parseSchedule(Properties properties) {
+        String cron = trimToNull(properties.getProperty("schedule.cron"));
+        String delay = trimToNull(properties.getProperty("schedule.delay"));
+        if (cron == null && delay == null) {
+            return null;
+        }
+        if (cron != null && delay != null) {
+            throw new IllegalArgumentException("Set either schedule.cron or schedule.delay, not both");
+        }
+
+        JobSchedule schedule = new JobSchedule();
+        if (cron != null) {
+            // Fail at load time rather than when the scheduler starts
+            CronExpression.parse(cron);
+            schedule.setCron(cron);
+        } else {
+            schedule.setFixedDelay(parseDuration("schedule.delay", delay));
+        }
+
+        String priority = trimToNull(properties.getProperty("schedule.priority"));
+        if (priority != null) {
+            try {
+                schedule.setPriority(Integer.parseInt(priority));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("schedule.priority must be a number: " + priority);
+            }
+        }
+        schedule.setMisfirePolicy(parseEnum(JobSchedule.MisfirePolicy.class,
+                properties.getProperty("schedule.misfire"), JobSchedule.MisfirePolicy.RUN_ONCE));
+
+        String threshold = trimToNull(properties.getProperty("schedule.misfire.threshold"));
+        if (threshold != null) {
+            schedule.setMisfireThreshold(parseDuration("schedule.misfire.threshold", threshold));
+        }
+        return schedule;
+    }
+
+    private static Duration parseDuration(String key, String value) {
+        try {
+            Duration duration = Duration.parse(value);
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException(key + " must be positive: " + value);
+            }
+            return duration;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(key + " must be an ISO-8601 duration such as PT15M: " + value);
+        }
+    }
+
+    private static List<ColumnMapping> parseMappings(Properties properties, String sourceTable, String destTable) {
+        // Numeric suffix -> mapping text, so mapping.10 follows mapping.9
+        TreeMap<Integer, String> entries = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("mapping.")) {
+                try {
+                    entries.put(Integer.parseInt(key.substring("mapping.".length())), properties.getProperty(key));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Mapping key must be mapping.<number>: " + key);
+                }
+            }
+        }
+
+        List<ColumnMapping> mappings = new ArrayList<>();
+        for (String entry : entries.values()) {
+            String[] sides = entry.split("->");
+            if (sides.length != 2) {
+                throw new IllegalArgumentException("Mapping must look like SOURCE_COLUMN -> DEST_COLUMN: " + entry);
+            }
+
+            String[] source = qualify(sides[0].trim(), sourceTable, "source", entry);
+            String[] dest = qualify(sides[1].trim(), destTable, "dest", entry);
+
+            mappings.add(new ColumnMapping(
+                    source[0], new TableColumn(source[1], "", 0, true),
+                    dest[0], new TableColumn(dest[1], "", 0, true)));
+        }
+        return mappings;
+    }
+
+    // TABLE.COLUMN or COLUMN with a default table -> {table, column}
+    private static String[] qualify(String column, String defaultTable, String side, String entry) {
+        int dot = column.lastIndexOf('.');
+        if (dot > 0) {
+            return new String[]{column.substring(0, dot), column.substring(dot + 1)};
+        }
+        if (defaultTable == null) {
+            throw new IllegalArgumentException("No " + side + ".table set for unqualified column in mapping: " + entry);
+        }
+        return new String[]{defaultTable, column};
+    }
+
+    private static void validate(JobDefinition job) {
+        if (job.getMappings().isEmpty()) {
+            throw new IllegalArgumentException("Job defines no mappings");
+        }
+
+        if (job.getType() == JobDefinition.JobType.MERGE) {
+            if (job.getSourceMatchColumn() == null || job.getDestMatchColumn() == null) {
+                throw new IllegalArgumentException("MERGE jobs need source.match and dest.match");
+            }
+            if (job.getOptions().getDedupPolicy() == IntegrationOptions.DedupPolicy.MAX_BY &&
+                    job.getOptions().getDedupOrderColumn() == null) {
+                throw new IllegalArgumentException("dedup.policy=MAX_BY needs dedup.order");
+            }
+        } else if (job.getDestWhereClause() == null) {
+            // integrateData would otherwise fall back to updating an arbitrary row
+            throw new IllegalArgumentException("UPDATE jobs need dest.where");
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+}
@@ -0,0 +1,132 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.model.JobDefinition;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saved job definitions, one properties file per job in a directory
+ * (./jobs by default, next to db_connections.properties; see userStore for
+ * the per-user directory the UI uses). The files use the JobDefinitionLoader
+ * format, so they can also be run directly with IntegrationCli.
+ */
+public class JobStore {
+    private static final Log log = Log.get(JobStore.class);
+
+    private static final String DEFAULT_DIRECTORY = "jobs";
+    private static final String USER_DIRECTORY = ".dbintegrator" + File.separator + "jobs";
+    private static final String EXTENSION = ".properties";
+
+    private final File directory;
+
+    public JobStore() {
+        this(new File(DEFAULT_DIRECTORY));
+    }
+
+    public JobStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return Store in ~/.dbintegrator/jobs, independent of the directory the
+     *         application was started from
+     */
+    public static JobStore userStore() {
+        return new JobStore(new File(System.getProperty("user.home"), USER_DIRECTORY));
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return Names of the saved jobs, sorted
+     */
+    public List<String> list() {
+        List<String> names = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                String fileName = file.getName();
+                names.add(fileName.substring(0, fileName.length() - EXTENSION.length()));
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    public boolean contains(String name) {
+        return fileFor(name).isFile();
+    }
+
+    /**
+     * Load and validate a saved job
+     * @param name Job name
+     * @return Saved job, or null if there is none with this name
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the saved definition is invalid
+     */
+    public JobDefinition load(String name) throws IOException {
+        File file = fileFor(name);
+        if (!file.isFile()) {
+            return null;
+        }
+        JobDefinition job = JobDefinitionLoader.load(file);
+        job.setName(name);
+        return job;
+    }
+
+    /**
+     * @return Every saved job; jobs that fail to load are reported and left out
+     */
+    public List<JobDefinition> loadAll() {
+        List<JobDefinition> jobs = new ArrayList<>();
+        for (String name : list()) {
+            try {
+                jobs.add(load(name));
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Skipping saved job", "job", name, "error", e.getMessage());
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Save a job, replacing any saved job with the same name
+     * @throws IOException if the file cannot be written
+     */
+    public void save(JobDefinition job) throws IOException {
+        if (job.getName() == null || job.getName().isEmpty()) {
+            throw new IllegalArgumentException("A job needs a name to be saved");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create job directory " + directory);
+        }
+
+        // Write beside the old file and swap, so readers never see a half-written job
+        File target = fileFor(job.getName());
+        File temp = new File(directory, target.getName() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            JobDefinitionLoader.toProperties(job).store(fos, "Job " + job.getName());
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public boolean delete(String name) {
+        return fileFor(name).delete();
+    }
+
+    private File fileFor(String name) {
+        // Job names become file names; keep them to a safe character set
+        if (name == null || !name.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Job names may only contain letters, digits, '-', '_' and '.': " + name);
+        }
+        return new File(directory, name + EXTENSION);
+    }
+}
@@ -0,0 +1,335 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC driver that wraps another and delays every round-trip to the
+ * server, so changes to batching and fetch sizes can be measured against a
+ * local H2 database as if it were across a WAN.
+ * <pre>
+ * jdbc:latency:SPEC:jdbc:h2:mem:destdb;MODE=Oracle
+ * </pre>
+ * SPEC is the delay in milliseconds per round-trip:
+ * <ul>
+ * <li>{@code 30}: fixed</li>
+ * <li>{@code 20-40}: uniformly jittered between the two</li>
+ * <li>{@code 30~0.4}: log-normal with median 30 and shape 0.4, for a long tail</li>
+ * </ul>
+ * The system property {@code dbintegrator.jdbc.latency} (or the CLI option
+ * {@code --latency}) applies a SPEC to every DatabaseConnectionManager.
+ * <p>
+ * Round-trips are counted the way the Oracle thin driver makes them: one
+ * per connect, execute, executeBatch, commit, rollback and metadata query,
+ * plus one per further fetch once the rows already read reach a multiple of
+ * the fetch size. Preparing a statement costs none, as Oracle parses on the
+ * first execute. The count and the delay added are kept in MetricsRegistry
+ * (LATENCY_ROUND_TRIPS, LATENCY_INJECTED).
+ */
+public final class LatencyInjectingDriver implements Driver {
+    public static final String URL_PREFIX = "jdbc:latency:";
+    public static final String LATENCY_PROPERTY = "dbintegrator.jdbc.latency";
+
+    // Oracle's default fetch size, used when the driver reports 0
+    private static final int DEFAULT_FETCH_SIZE = 10;
+
+    private static final Pattern FIXED = Pattern.compile("(\\d+(?:\\.\\d+)?)(?:ms)?");
+    private static final Pattern UNIFORM = Pattern.compile("(\\d+(?:\\.\\d+)?)-(\\d+(?:\\.\\d+)?)(?:ms)?");
+    private static final Pattern LOG_NORMAL = Pattern.compile("(\\d+(?:\\.\\d+)?)(?:ms)?~(\\d+(?:\\.\\d+)?)");
+
+    private static final LongAdder ROUND_TRIPS = MetricsRegistry.global().counter(MetricsRegistry.LATENCY_ROUND_TRIPS);
+    private static final LongAdder INJECTED = MetricsRegistry.global().counter(MetricsRegistry.LATENCY_INJECTED);
+
+    static {
+        try {
+            DriverManager.registerDriver(new LatencyInjectingDriver());
+        } catch (SQLException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * @param spec Delay SPEC, see the class comment
+     * @param url URL of the database to delay
+     * @return URL routing connections to url through this driver
+     * @throws IllegalArgumentException if spec is not a valid SPEC
+     */
+    public static String wrapUrl(String spec, String url) {
+        validate(spec);
+        return URL_PREFIX + spec + ":" + url;
+    }
+
+    /**
+     * @throws IllegalArgumentException if spec is not a valid SPEC
+     */
+    public static void validate(String spec) {
+        parse(spec);
+    }
+
+    /**
+     * @return URL of the database behind a latency URL; other URLs unchanged
+     */
+    public static String databaseUrl(String url) {
+        if (!url.startsWith(URL_PREFIX)) {
+            return url;
+        }
+        int separator = url.indexOf(':', URL_PREFIX.length());
+        return separator < 0 ? "" : url.substring(separator + 1);
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        String delegateUrl = databaseUrl(url);
+        if (delegateUrl.isEmpty()) {
+            throw new SQLException("Expected " + URL_PREFIX + "SPEC:URL, got " + url);
+        }
+        Delay delay;
+        try {
+            delay = parse(url.substring(URL_PREFIX.length(), url.length() - delegateUrl.length() - 1));
+        } catch (IllegalArgumentException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+
+        delay.roundTrip();
+        Connection connection = DriverManager.getDriver(delegateUrl).connect(delegateUrl, info);
+        if (connection == null) {
+            throw new SQLException("No driver accepted " + delegateUrl);
+        }
+        return proxy(Connection.class, new ConnectionHandler(connection, delay));
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(URL_PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    static Delay parse(String spec) {
+        String text = spec.trim();
+        Matcher matcher = FIXED.matcher(text);
+        if (matcher.matches()) {
+            double millis = Double.parseDouble(matcher.group(1));
+            return new Delay(millis, millis, 0);
+        }
+        matcher = UNIFORM.matcher(text);
+        if (matcher.matches()) {
+            double min = Double.parseDouble(matcher.group(1));
+            double max = Double.parseDouble(matcher.group(2));
+            if (max < min) {
+                throw new IllegalArgumentException("Latency range is reversed: " + spec);
+            }
+            return new Delay(min, max, 0);
+        }
+        matcher = LOG_NORMAL.matcher(text);
+        if (matcher.matches()) {
+            double median = Double.parseDouble(matcher.group(1));
+            return new Delay(median, median, Double.parseDouble(matcher.group(2)));
+        }
+        throw new IllegalArgumentException("Latency must be MS, MIN-MAX or MEDIAN~SHAPE: " + spec);
+    }
+
+    /**
+     * Delay per round-trip: uniform between min and max, or log-normal
+     * around min when sigma is set
+     */
+    static final class Delay {
+        private final double minMillis;
+        private final double maxMillis;
+        private final double sigma;
+
+        Delay(double minMillis, double maxMillis, double sigma) {
+            this.minMillis = minMillis;
+            this.maxMillis = maxMillis;
+            this.sigma = sigma;
+        }
+
+        long nextNanos() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double millis;
+            if (sigma > 0) {
+                millis = minMillis * Math.exp(sigma * random.nextGaussian());
+            } else if (maxMillis > minMillis) {
+                millis = minMillis + random.nextDouble() * (maxMillis - minMillis);
+            } else {
+                millis = minMillis;
+            }
+            return (long) (millis * 1_000_000);
+        }
+
+        void roundTrip() {
+            long nanos = nextNanos();
+            ROUND_TRIPS.increment();
+            INJECTED.add(nanos / 1000);
+            // parkNanos may return early; sleep out the rest unless interrupted
+            long deadline = System.nanoTime() + nanos;
+            long remaining = nanos;
+            while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+                LockSupport.parkNanos(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(LatencyInjectingDriver.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection delegate;
+        private final Delay delay;
+
+        ConnectionHandler(Connection delegate, Delay delay) {
+            this.delegate = delegate;
+            this.delay = delay;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("commit".equals(name) || "rollback".equals(name) || "isValid".equals(name)) {
+                delay.roundTrip();
+            }
+            Object result = LatencyInjectingDriver.invoke(delegate, method, args);
+            if (result instanceof CallableStatement) {
+                return proxy(CallableStatement.class, new StatementHandler(result, (Connection) proxy, delay));
+            }
+            if (result instanceof PreparedStatement) {
+                return proxy(PreparedStatement.class, new StatementHandler(result, (Connection) proxy, delay));
+            }
+            if (result instanceof Statement) {
+                return proxy(Statement.class, new StatementHandler(result, (Connection) proxy, delay));
+            }
+            if (result instanceof DatabaseMetaData) {
+                return proxy(DatabaseMetaData.class, new StatementHandler(result, (Connection) proxy, delay));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Statements and DatabaseMetaData: every call returning rows, and every
+     * execute, is a round-trip
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Object delegate;
+        private final Connection connection;
+        private final Delay delay;
+
+        StatementHandler(Object delegate, Connection connection, Delay delay) {
+            this.delegate = delegate;
+            this.connection = connection;
+            this.delay = delay;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getConnection".equals(name)) {
+                return connection;
+            }
+            boolean returnsRows = ResultSet.class.equals(method.getReturnType())
+                    && !"getResultSet".equals(name) && !"getGeneratedKeys".equals(name);
+            if (name.startsWith("execute") || returnsRows) {
+                delay.roundTrip();
+            }
+            Object result = LatencyInjectingDriver.invoke(delegate, method, args);
+            if (result instanceof ResultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler((ResultSet) result, proxy, delay));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet delegate;
+        private final Object statement;
+        private final Delay delay;
+        private long fetched;
+
+        ResultSetHandler(ResultSet delegate, Object statement, Delay delay) {
+            this.delegate = delegate;
+            this.statement = statement;
+            this.delay = delay;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getStatement".equals(name)) {
+                return statement instanceof Statement ? statement : null;
+            }
+            if (!"next".equals(name)) {
+                return LatencyInjectingDriver.invoke(delegate, method, args);
+            }
+
+            // The execute call brought the first fetch; later ones start once it is used up
+            int fetchSize = delegate.getFetchSize() > 0 ? delegate.getFetchSize() : DEFAULT_FETCH_SIZE;
+            if (fetched > 0 && fetched % fetchSize == 0) {
+                delay.roundTrip();
+            }
+            Object result = LatencyInjectingDriver.invoke(delegate, method, args);
+            if (Boolean.TRUE.equals(result)) {
+                fetched++;
+            }
+            return result;
+        }
+    }
+}
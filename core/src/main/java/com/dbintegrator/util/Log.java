@@ -0,0 +1,112 @@
+package com.dbintegrator.util;
+
+import java.util.Locale;
+
+/**
+ * Logging facade for the application's diagnostics. Callers only put a
+ * record into a bounded in-memory queue; a background thread formats it
+ * and writes it to the console, so integration loops never wait on
+ * console I/O.
+ * <pre>
+ * private static final Log log = Log.get(DataIntegrationService.class);
+ * log.info("Merged rows", "table", destTable, "rows", rowsMerged);
+ * </pre>
+ * Messages carry optional key/value fields, rendered as {@code key=value}
+ * after the message; a Throwable as the last argument is printed with its
+ * stack trace. Field values are rendered on the writer thread, so pass
+ * values that are not modified afterwards.
+ * <p>
+ * The level is INFO by default and can be set with the system property
+ * {@code dbintegrator.log.level} or setLevel. Per-row detail (table dumps,
+ * columns found while probing metadata) is logged at DEBUG and is therefore
+ * off unless asked for; where such a message needs work to build, guard it
+ * with isDebugEnabled() so disabled calls cost nothing in row loops.
+ */
+public final class Log {
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR
+    }
+
+    public static final String LEVEL_PROPERTY = "dbintegrator.log.level";
+
+    private static volatile Level threshold = parseLevel(System.getProperty(LEVEL_PROPERTY), Level.INFO);
+
+    private final String name;
+
+    private Log(String name) {
+        this.name = name;
+    }
+
+    public static Log get(Class<?> type) {
+        return new Log(type.getSimpleName());
+    }
+
+    public static Level getLevel() {
+        return threshold;
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    /**
+     * @param value Level name, case-insensitive
+     * @param defaultLevel Returned when the value is null or unknown
+     */
+    public static Level parseLevel(String value, Level defaultLevel) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultLevel;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+
+    /**
+     * Wait until everything logged so far has been written, e.g. before exiting
+     */
+    public static void flush() {
+        AsyncLogWriter.instance().flush();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.compareTo(threshold) >= 0;
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public void trace(String message, Object... fields) {
+        log(Level.TRACE, message, fields);
+    }
+
+    public void debug(String message, Object... fields) {
+        log(Level.DEBUG, message, fields);
+    }
+
+    public void info(String message, Object... fields) {
+        log(Level.INFO, message, fields);
+    }
+
+    public void warn(String message, Object... fields) {
+        log(Level.WARN, message, fields);
+    }
+
+    public void error(String message, Object... fields) {
+        log(Level.ERROR, message, fields);
+    }
+
+    public void log(Level level, String message, Object... fields) {
+        if (isEnabled(level)) {
+            AsyncLogWriter.instance().submit(new AsyncLogWriter.Record(System.currentTimeMillis(), level, name,
+                    Thread.currentThread().getName(), message, fields));
+        }
+    }
+}
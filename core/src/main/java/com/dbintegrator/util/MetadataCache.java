@@ -0,0 +1,361 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Database metadata shared by every DatabaseMetadataService and JobCompiler
+ * in the process, so that opening a tab or compiling a job does not query
+ * the data dictionary again. Entries are kept per database, keyed by user
+ * and URL, so every DatabaseConnectionManager for the same schema shares
+ * them. The entry keys are TABLES, and COLUMNS or PRIMARY_KEY followed by
+ * the upper-case table name.
+ * <p>
+ * A database's entries last for the TTL: 5 minutes unless set with the
+ * system property {@code dbintegrator.metadata.ttl.seconds}, where 0 turns
+ * caching off. When the TTL runs out on an Oracle database, the data
+ * dictionary is asked about the cached tables only: LAST_DDL_TIME of each
+ * one in the login schema or behind a private or public synonym of its
+ * name, and, if the table list is cached, the number of tables in the login
+ * schema and their newest LAST_DDL_TIME. If none of them changed since the
+ * last check, the entries are kept for another TTL; otherwise they are
+ * dropped. Other databases always drop them. The check runs outside the
+ * cache's lock, so lookups are served from the entries in the meantime. A
+ * primary key found only by searching every schema is not covered; DDL on
+ * such a table is picked up once other DDL is seen, or after invalidate.
+ * <p>
+ * Each database keeps at most {@code dbintegrator.metadata.max.entries}
+ * entries (20000), and at most 16 databases are kept, dropping the least
+ * recently used first in both cases. Call invalidate after DDL run by this
+ * process, or when the user asks for fresh metadata.
+ * <p>
+ * Cached values are shared between callers, who must not modify them.
+ * Failed loads are not cached.
+ */
+public final class MetadataCache {
+    private static final Log log = Log.get(MetadataCache.class);
+
+    public static final String TTL_PROPERTY = "dbintegrator.metadata.ttl.seconds";
+    public static final String MAX_ENTRIES_PROPERTY = "dbintegrator.metadata.max.entries";
+
+    public static final String TABLES = "tables";
+    public static final String COLUMNS = "columns:";
+    public static final String PRIMARY_KEY = "pk:";
+
+    private static final long DEFAULT_TTL_SECONDS = 300;
+    private static final int DEFAULT_MAX_ENTRIES = 20_000;
+    private static final int MAX_DATABASES = 16;
+
+    // Database time, and the table list's state in the login schema
+    private static final String ORACLE_TABLE_LIST_QUERY =
+            "SELECT SYSDATE, MAX(LAST_DDL_TIME), COUNT(*) FROM USER_OBJECTS WHERE OBJECT_TYPE = 'TABLE'";
+    // Newest DDL of each named table, found the way the metadata lookups resolve names
+    private static final String ORACLE_TABLE_DDL_QUERY =
+            "SELECT OBJECT_NAME, LAST_DDL_TIME FROM USER_OBJECTS " +
+            "WHERE OBJECT_TYPE IN ('TABLE', 'VIEW') AND OBJECT_NAME IN (%1$s) " +
+            "UNION ALL " +
+            "SELECT s.SYNONYM_NAME, o.LAST_DDL_TIME FROM ALL_SYNONYMS s " +
+            "JOIN ALL_OBJECTS o ON o.OWNER = s.TABLE_OWNER AND o.OBJECT_NAME = s.TABLE_NAME " +
+            "WHERE s.OWNER IN (USER, 'PUBLIC') AND s.SYNONYM_NAME IN (%1$s) " +
+            "AND o.OBJECT_TYPE IN ('TABLE', 'VIEW')";
+    // Oracle rejects longer IN lists
+    private static final int MAX_IN_LIST = 1000;
+
+    private static final LongAdder HITS = MetricsRegistry.global().counter(MetricsRegistry.METADATA_HITS);
+    private static final LongAdder MISSES = MetricsRegistry.global().counter(MetricsRegistry.METADATA_MISSES);
+
+    private static final MetadataCache GLOBAL = new MetadataCache(
+            TimeUnit.SECONDS.toNanos(Long.getLong(TTL_PROPERTY, DEFAULT_TTL_SECONDS)),
+            Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    // Guarded by itself; least recently used first
+    private final Map<String, Database> databases = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Database> eldest) {
+            return size() > MAX_DATABASES;
+        }
+    };
+
+    MetadataCache(long ttlNanos, int maxEntries) {
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return Cache shared by the services of this process
+     */
+    public static MetadataCache global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @param dbManager Database the metadata describes
+     * @param key Entry key, see the class comment
+     * @param loader Reads the value from the database when it is not cached
+     * @return Cached or freshly loaded value
+     * @throws SQLException if the loader fails
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(DatabaseConnectionManager dbManager, String key, Loader<T> loader) throws SQLException {
+        if (ttlNanos <= 0) {
+            return loader.load();
+        }
+
+        Database database = database(dbManager);
+        database.expireIfStale(dbManager);
+        Object value = database.get(key);
+        if (value != null) {
+            HITS.increment();
+            return (T) value;
+        }
+
+        MISSES.increment();
+        T loaded = loader.load();
+        if (loaded != null) {
+            database.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Store a value read in bulk, e.g. one table's columns out of a query
+     * over the whole schema, so later gets of its key are hits
+     * @param dbManager Database the metadata describes
+     * @param key Entry key, see the class comment
+     * @param value Value to share; ignored if null
+     */
+    public void put(DatabaseConnectionManager dbManager, String key, Object value) {
+        if (ttlNanos <= 0 || value == null) {
+            return;
+        }
+        Database database = database(dbManager);
+        database.expireIfStale(dbManager);
+        database.put(key, value);
+    }
+
+    private Database database(DatabaseConnectionManager dbManager) {
+        synchronized (databases) {
+            return databases.computeIfAbsent(dbManager.getConnectionInfo(), info -> new Database());
+        }
+    }
+
+    /**
+     * Drop everything cached for a database
+     */
+    public void invalidate(DatabaseConnectionManager dbManager) {
+        Database removed;
+        synchronized (databases) {
+            removed = databases.remove(dbManager.getConnectionInfo());
+        }
+        if (removed != null) {
+            log.debug("Metadata cache invalidated", "database", dbManager.getConnectionInfo());
+        }
+    }
+
+    /**
+     * Drop what is cached for one table, and the table list, e.g. after
+     * creating, altering or dropping it
+     */
+    public void invalidate(DatabaseConnectionManager dbManager, String table) {
+        Database database;
+        synchronized (databases) {
+            database = databases.get(dbManager.getConnectionInfo());
+        }
+        if (database != null) {
+            String name = table.toUpperCase();
+            database.remove(TABLES);
+            database.remove(COLUMNS + name);
+            database.remove(PRIMARY_KEY + name);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (databases) {
+            databases.clear();
+        }
+    }
+
+    /**
+     * Entries of one database, least recently used first
+     */
+    private final class Database {
+        private final Map<String, Object> entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        private long checkedNanos = System.nanoTime();
+        // Data dictionary state at the last check, Oracle only
+        private DdlState ddlState;
+
+        synchronized Object get(String key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(String key, Object value) {
+            entries.put(key, value);
+        }
+
+        synchronized void remove(String key) {
+            entries.remove(key);
+        }
+
+        /**
+         * Once the TTL has run out, keep the entries only if the database
+         * can show that no DDL ran on the cached tables since the last check
+         */
+        void expireIfStale(DatabaseConnectionManager dbManager) {
+            Set<String> tables;
+            boolean tableList;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (now - checkedNanos < ttlNanos) {
+                    return;
+                }
+                // Other callers keep using the entries while this one checks
+                checkedNanos = now;
+                tables = cachedTables();
+                tableList = entries.containsKey(TABLES);
+            }
+
+            DdlState state = null;
+            try {
+                if (dbManager.getDialect().isOracle()) {
+                    try (Connection conn = dbManager.getConnection()) {
+                        state = readDdlState(conn, tables);
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("Cannot check for schema changes", "database", dbManager.getConnectionInfo(),
+                        "error", e.getMessage());
+            }
+
+            synchronized (this) {
+                DdlState previous = ddlState;
+                ddlState = state;
+                if (state != null && previous != null && !state.changedSince(previous, tables, tableList)) {
+                    return;
+                }
+                entries.clear();
+            }
+            log.debug("Metadata cache expired", "database", dbManager.getConnectionInfo());
+        }
+
+        private Set<String> cachedTables() {
+            Set<String> tables = new HashSet<>();
+            for (String key : entries.keySet()) {
+                if (key.startsWith(COLUMNS)) {
+                    tables.add(key.substring(COLUMNS.length()));
+                } else if (key.startsWith(PRIMARY_KEY)) {
+                    tables.add(key.substring(PRIMARY_KEY.length()));
+                }
+            }
+            return tables;
+        }
+    }
+
+    /**
+     * Read what the data dictionary says about the table list and the named tables
+     * @param conn Connection to an Oracle database
+     * @param tables Upper-case table names
+     * @throws SQLException if database access error occurs
+     */
+    static DdlState readDdlState(Connection conn, Collection<String> tables) throws SQLException {
+        DdlState state = new DdlState();
+        // The database time is read first, so DDL running during the check is seen next time
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(ORACLE_TABLE_LIST_QUERY)) {
+            rs.next();
+            state.checkedAt = rs.getTimestamp(1);
+            state.newestTable = rs.getTimestamp(2);
+            state.tableCount = rs.getInt(3);
+        }
+
+        List<String> names = new ArrayList<>(tables);
+        for (int from = 0; from < names.size(); from += MAX_IN_LIST) {
+            List<String> chunk = names.subList(from, Math.min(from + MAX_IN_LIST, names.size()));
+            String sql = String.format(ORACLE_TABLE_DDL_QUERY, String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i));
+                    stmt.setString(chunk.size() + i + 1, chunk.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        state.ddlTimes.merge(rs.getString(1), rs.getTimestamp(2),
+                                (a, b) -> a.after(b) ? a : b);
+                    }
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * What the data dictionary said about a database's cached tables at one check
+     */
+    static final class DdlState {
+        // Database time when the check started
+        Timestamp checkedAt;
+        // Newest DDL on a table in the login schema, null if there are none
+        Timestamp newestTable;
+        int tableCount;
+        // Cached table name -> newest DDL on what the name resolves to
+        final Map<String, Timestamp> ddlTimes = new HashMap<>();
+
+        /**
+         * @param previous State at the last check
+         * @param tables Tables cached while this state was read
+         * @param tableList Whether the table list was cached
+         * @return true if DDL ran on a cached table, or on the login schema's
+         *         tables when the table list is cached, since previous
+         */
+        boolean changedSince(DdlState previous, Set<String> tables, boolean tableList) {
+            if (tableList && (tableCount != previous.tableCount || ranSince(newestTable, previous))) {
+                return true;
+            }
+            for (Timestamp ddlTime : ddlTimes.values()) {
+                if (ranSince(ddlTime, previous)) {
+                    return true;
+                }
+            }
+            // A table that resolved last time and no longer does was dropped or renamed
+            for (String table : previous.ddlTimes.keySet()) {
+                if (tables.contains(table) && !ddlTimes.containsKey(table)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean ranSince(Timestamp ddlTime, DdlState previous) {
+            // LAST_DDL_TIME has whole seconds; DDL in the second of the last check counts as new
+            return ddlTime != null && !ddlTime.before(previous.checkedAt);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.dbintegrator.util;
+
+import com.dbintegrator.model.RunHistoryEntry;
+import com.dbintegrator.monitoring.MetricsRegistry;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summaries of finished integration runs, kept in an embedded H2 database
+ * file (./history/runs.mv.db by default, next to the jobs directory). The
+ * file is opened with AUTO_SERVER, so the UI and a scheduled CLI process can
+ * use it at the same time.
+ * <p>
+ * flagRegressions compares each run with the median throughput of the same
+ * job's preceding runs and names the stage whose time per row grew most,
+ * so a slowdown can be traced to the run where it started.
+ */
+public class RunHistoryStore {
+    private static final Log log = Log.get(RunHistoryStore.class);
+
+    // Preceding successful runs a run is compared with
+    public static final int TRAILING_WINDOW = 7;
+    // A run is flagged when its throughput falls below the trailing median by this factor
+    public static final double REGRESSION_FACTOR = 1.5;
+    // Preceding runs needed before a median means anything
+    private static final int MIN_BASELINE = 3;
+
+    private static final String DEFAULT_DIRECTORY = "history";
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    // Timer in MetricsRegistry -> column holding its total for the run
+    private static final String[][] STAGE_COLUMNS = {
+            {MetricsRegistry.CONNECTION_ACQUIRE, "CONNECTION_WAIT_MS"},
+            {MetricsRegistry.PERMIT_WAIT, "PERMIT_WAIT_MS"},
+            {MetricsRegistry.STATEMENT_EXECUTE, "EXECUTE_MS"},
+            {MetricsRegistry.TRANSFORM, "TRANSFORM_MS"},
+            {MetricsRegistry.COMMIT, "COMMIT_MS"}
+    };
+
+    private final String url;
+    private volatile boolean schemaReady;
+
+    public RunHistoryStore() {
+        this(new File(DEFAULT_DIRECTORY));
+    }
+
+    public RunHistoryStore(File directory) {
+        this.url = "jdbc:h2:file:" + new File(directory, "runs").getAbsolutePath() + ";AUTO_SERVER=TRUE";
+    }
+
+    /**
+     * @return Metric names whose per-run totals are kept
+     */
+    public static List<String> getStages() {
+        List<String> stages = new ArrayList<>();
+        for (String[] stage : STAGE_COLUMNS) {
+            stages.add(stage[0]);
+        }
+        return stages;
+    }
+
+    /**
+     * Store a finished run
+     * @throws SQLException if the history database cannot be written
+     */
+    public void record(RunHistoryEntry entry) throws SQLException {
+        StringBuilder columns = new StringBuilder("JOB, STATUS, STARTED_AT, FINISHED_AT, " +
+                "ROWS_READ, ROWS_WRITTEN, ROWS_SKIPPED, ROWS_FAILED, ERROR");
+        StringBuilder values = new StringBuilder("?, ?, ?, ?, ?, ?, ?, ?, ?");
+        for (String[] stage : STAGE_COLUMNS) {
+            columns.append(", ").append(stage[1]);
+            values.append(", ?");
+        }
+
+        try (Connection conn = connect();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "INSERT INTO RUN_HISTORY (" + columns + ") VALUES (" + values + ")")) {
+            String error = entry.getError();
+            if (error != null && error.length() > MAX_ERROR_LENGTH) {
+                error = error.substring(0, MAX_ERROR_LENGTH);
+            }
+            int index = 1;
+            stmt.setString(index++, entry.getJob());
+            stmt.setString(index++, entry.getStatus());
+            stmt.setTimestamp(index++, new Timestamp(entry.getStartedMillis()));
+            stmt.setTimestamp(index++, new Timestamp(entry.getFinishedMillis()));
+            stmt.setLong(index++, entry.getRowsRead());
+            stmt.setLong(index++, entry.getRowsWritten());
+            stmt.setLong(index++, entry.getRowsSkipped());
+            stmt.setLong(index++, entry.getRowsFailed());
+            stmt.setString(index++, error);
+            for (String[] stage : STAGE_COLUMNS) {
+                stmt.setLong(index++, entry.getStageMillis(stage[0]));
+            }
+            stmt.executeUpdate();
+        }
+        log.debug("Recorded run", "run", entry);
+    }
+
+    /**
+     * @return Names of the jobs with recorded runs, sorted
+     * @throws SQLException if the history database cannot be read
+     */
+    public List<String> listJobs() throws SQLException {
+        List<String> jobs = new ArrayList<>();
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT JOB FROM RUN_HISTORY ORDER BY JOB")) {
+            while (rs.next()) {
+                jobs.add(rs.getString(1));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * Load a job's latest runs, flagged against the runs before each of them
+     * @param job Job name
+     * @param limit Most runs to return
+     * @return Runs, oldest first
+     * @throws SQLException if the history database cannot be read
+     */
+    public List<RunHistoryEntry> load(String job, int limit) throws SQLException {
+        List<RunHistoryEntry> runs = new ArrayList<>();
+        try (Connection conn = connect();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT * FROM RUN_HISTORY WHERE JOB = ? ORDER BY STARTED_AT DESC, ID DESC LIMIT ?")) {
+            stmt.setString(1, job);
+            // Earlier runs are needed as the baseline of the oldest ones returned
+            stmt.setInt(2, limit + TRAILING_WINDOW);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    runs.add(readEntry(rs));
+                }
+            }
+        }
+        Collections.reverse(runs);
+        flagRegressions(runs);
+        return runs.size() > limit ? new ArrayList<>(runs.subList(runs.size() - limit, runs.size())) : runs;
+    }
+
+    /**
+     * Set the trailing median, regression flag and grown stage of each run
+     * @param runs Runs of one job, oldest first
+     */
+    public static void flagRegressions(List<RunHistoryEntry> runs) {
+        List<RunHistoryEntry> baseline = new ArrayList<>();
+        for (RunHistoryEntry run : runs) {
+            run.setRegression(false);
+            run.setGrownStage(null);
+            run.setTrailingMedianRowsPerSecond(-1);
+
+            if (baseline.size() >= MIN_BASELINE) {
+                double[] rates = new double[baseline.size()];
+                for (int i = 0; i < rates.length; i++) {
+                    rates[i] = baseline.get(i).getRowsPerSecond();
+                }
+                double median = median(rates);
+                run.setTrailingMedianRowsPerSecond(median);
+
+                if (isComparable(run) && run.getRowsPerSecond() * REGRESSION_FACTOR < median) {
+                    run.setRegression(true);
+                    run.setGrownStage(grownStage(run, baseline));
+                }
+            }
+
+            if (isComparable(run)) {
+                baseline.add(run);
+                if (baseline.size() > TRAILING_WINDOW) {
+                    baseline.remove(0);
+                }
+            }
+        }
+    }
+
+    // Only complete runs that moved rows say anything about throughput
+    private static boolean isComparable(RunHistoryEntry run) {
+        return "SUCCEEDED".equals(run.getStatus()) && run.getRowsRead() > 0 && run.getElapsedMillis() > 0;
+    }
+
+    /**
+     * @return Stage with the largest increase in milliseconds per row over its trailing median
+     */
+    private static String grownStage(RunHistoryEntry run, List<RunHistoryEntry> baseline) {
+        String grown = null;
+        double largestIncrease = 0;
+        for (String[] stage : STAGE_COLUMNS) {
+            double[] perRow = new double[baseline.size()];
+            for (int i = 0; i < perRow.length; i++) {
+                perRow[i] = (double) baseline.get(i).getStageMillis(stage[0]) / baseline.get(i).getRowsRead();
+            }
+            double increase = (double) run.getStageMillis(stage[0]) / run.getRowsRead() - median(perRow);
+            if (increase > largestIncrease) {
+                largestIncrease = increase;
+                grown = stage[0];
+            }
+        }
+        return grown;
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private static RunHistoryEntry readEntry(ResultSet rs) throws SQLException {
+        RunHistoryEntry entry = new RunHistoryEntry();
+        entry.setId(rs.getLong("ID"));
+        entry.setJob(rs.getString("JOB"));
+        entry.setStatus(rs.getString("STATUS"));
+        entry.setStartedMillis(rs.getTimestamp("STARTED_AT").getTime());
+        entry.setFinishedMillis(rs.getTimestamp("FINISHED_AT").getTime());
+        entry.setRowsRead(rs.getLong("ROWS_READ"));
+        entry.setRowsWritten(rs.getLong("ROWS_WRITTEN"));
+        entry.setRowsSkipped(rs.getLong("ROWS_SKIPPED"));
+        entry.setRowsFailed(rs.getLong("ROWS_FAILED"));
+        entry.setError(rs.getString("ERROR"));
+        for (String[] stage : STAGE_COLUMNS) {
+            entry.setStageMillis(stage[0], rs.getLong(stage[1]));
+        }
+        return entry;
+    }
+
+    private Connection connect() throws SQLException {
+        Connection conn = DriverManager.getConnection(url, "sa", "");
+        if (!schemaReady) {
+            createSchema(conn);
+            schemaReady = true;
+        }
+        return conn;
+    }
+
+    private static void createSchema(Connection conn) throws SQLException {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS RUN_HISTORY (" +
+                "ID BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "JOB VARCHAR(200) NOT NULL, " +
+                "STATUS VARCHAR(20) NOT NULL, " +
+                "STARTED_AT TIMESTAMP NOT NULL, " +
+                "FINISHED_AT TIMESTAMP NOT NULL, " +
+                "ROWS_READ BIGINT, ROWS_WRITTEN BIGINT, ROWS_SKIPPED BIGINT, ROWS_FAILED BIGINT, " +
+                "ERROR VARCHAR(" + MAX_ERROR_LENGTH + ")");
+        for (String[] stage : STAGE_COLUMNS) {
+            ddl.append(", ").append(stage[1]).append(" BIGINT");
+        }
+        ddl.append(")");
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(ddl.toString());
+            stmt.execute("CREATE INDEX IF NOT EXISTS RUN_HISTORY_JOB ON RUN_HISTORY (JOB, STARTED_AT)");
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.dbintegrator.util;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Fills the test schemas created by TestDatabaseManager with generated rows,
+ * in addition to the hand-written sample rows. Every value is derived from
+ * the seed and the row index alone, so the source and destination sides
+ * agree with each other without sharing state, and the same settings give
+ * the same databases on every run (dates are relative to today, as in the
+ * sample rows). A million rows per table needs about 3 GB of heap.
+ * <p>
+ * Row {@code i} has ID {@code firstId + i} on both sides. Its match key
+ * (project NAME, resource NAME / FULL_NAME) is {@code "Project k"} /
+ * {@code "Resource k"}, where k is i unless the row duplicates an earlier
+ * key. The workload is shaped by:
+ * <ul>
+ * <li>overlap ratio: share of source rows that already exist in the destination</li>
+ * <li>change ratio: share of those whose descriptive columns differ, i.e. real updates</li>
+ * <li>duplicate ratio: share of source rows that reuse an earlier row's match key</li>
+ * <li>skew: 0 spreads duplicates and departments evenly; higher values
+ *     concentrate them on a few hot keys and departments</li>
+ * </ul>
+ * Rows are written with JDBC batches and committed every batch. The
+ * destination match columns are indexed afterwards.
+ */
+public final class TestDataGenerator {
+    private static final Log log = Log.get(TestDataGenerator.class);
+
+    public static final long DEFAULT_SEED = 42;
+    // Generated IDs start here, clear of the sample rows
+    public static final int DEFAULT_FIRST_ID = 1_000_000;
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+    private static final int DEPARTMENTS = 20;
+
+    // Salts keeping the per-row decisions independent of each other
+    private static final long OVERLAP = 1;
+    private static final long CHANGE = 2;
+    private static final long DUPLICATE = 3;
+    private static final long DUPLICATE_OF = 4;
+    private static final long DEPARTMENT = 5;
+
+    private static final String[] STATUSES = {"Planned", "In Progress", "Completed", "On Hold"};
+
+    private int rows;
+    private long seed = DEFAULT_SEED;
+    private int firstId = DEFAULT_FIRST_ID;
+    private double overlapRatio = 0.5;
+    private double changeRatio = 0.5;
+    private double duplicateRatio;
+    private double skew;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private final long today = System.currentTimeMillis() / 86_400_000L * 86_400_000L;
+
+    /**
+     * @param rows Generated rows per source table
+     */
+    public TestDataGenerator(int rows) {
+        setRows(rows);
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public void setRows(int rows) {
+        if (rows < 0) {
+            throw new IllegalArgumentException("Row count must not be negative: " + rows);
+        }
+        this.rows = rows;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getFirstId() {
+        return firstId;
+    }
+
+    public void setFirstId(int firstId) {
+        this.firstId = firstId;
+    }
+
+    public double getOverlapRatio() {
+        return overlapRatio;
+    }
+
+    public void setOverlapRatio(double overlapRatio) {
+        this.overlapRatio = ratio("Overlap", overlapRatio);
+    }
+
+    public double getChangeRatio() {
+        return changeRatio;
+    }
+
+    public void setChangeRatio(double changeRatio) {
+        this.changeRatio = ratio("Change", changeRatio);
+    }
+
+    public double getDuplicateRatio() {
+        return duplicateRatio;
+    }
+
+    public void setDuplicateRatio(double duplicateRatio) {
+        this.duplicateRatio = ratio("Duplicate", duplicateRatio);
+    }
+
+    public double getSkew() {
+        return skew;
+    }
+
+    public void setSkew(double skew) {
+        if (skew < 0) {
+            throw new IllegalArgumentException("Skew must not be negative: " + skew);
+        }
+        this.skew = skew;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Add generated rows to PROJECT, TASKS and RSRC
+     * @param conn Connection to a database set up by TestDatabaseManager.setupSourceTestData
+     * @throws SQLException if database access error occurs
+     */
+    public void fillSource(Connection conn) throws SQLException {
+        long started = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            insert(conn, "INSERT INTO PROJECT (ID, NAME, DESCRIPTION) VALUES (?, ?, ?)", (stmt, i) -> {
+                stmt.setInt(1, firstId + i);
+                stmt.setString(2, "Project " + keyOf(i));
+                stmt.setString(3, description(i, true));
+                return true;
+            });
+            insert(conn, "INSERT INTO TASKS (ID, PROJECT_ID, NAME, DESCRIPTION, STATUS, ASSIGNEE, PRIORITY, " +
+                    "START_DATE, END_DATE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", (stmt, i) -> {
+                setTask(stmt, i, true);
+                return true;
+            });
+            insert(conn, "INSERT INTO RSRC (RSRC_ID, NAME, EMAIL, PHONE, DEPARTMENT, ROLE, COST_RATE, " +
+                    "AVAILABILITY, CALENDAR_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", (stmt, i) -> {
+                stmt.setInt(1, firstId + i);
+                stmt.setString(2, "Resource " + keyOf(i));
+                stmt.setString(3, email(i, true));
+                stmt.setString(4, phone(i));
+                stmt.setString(5, department(i));
+                stmt.setString(6, "Role " + (i % 7));
+                stmt.setInt(7, 50 + i % 50);
+                stmt.setInt(8, 100 - i % 3 * 10);
+                stmt.setInt(9, 1);
+                return true;
+            });
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        log.info("Generated source rows", "generator", this,
+                "millis", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Add the generated rows that overlap the source to PA_PROJECTS, PA_TASKS
+     * and HR_ALL_PEOPLE
+     * @param conn Connection to a database set up by TestDatabaseManager.setupDestTestData
+     * @throws SQLException if database access error occurs
+     */
+    public void fillDest(Connection conn) throws SQLException {
+        long started = System.nanoTime();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            insert(conn, "INSERT INTO PA_PROJECTS (ID, NAME, DESCRIPTION) VALUES (?, ?, ?)", (stmt, i) -> {
+                if (!inDest(i)) {
+                    return false;
+                }
+                stmt.setInt(1, firstId + i);
+                stmt.setString(2, "Project " + i);
+                stmt.setString(3, description(i, !changed(i)));
+                return true;
+            });
+            insert(conn, "INSERT INTO PA_TASKS (ID, PROJECT_ID, NAME, DESCRIPTION, STATUS, ASSIGNEE, PRIORITY, " +
+                    "START_DATE, END_DATE) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", (stmt, i) -> {
+                if (!inDest(i)) {
+                    return false;
+                }
+                setTask(stmt, i, !changed(i));
+                return true;
+            });
+            insert(conn, "INSERT INTO HR_ALL_PEOPLE (PERSON_ID, FULL_NAME, EMAIL_ADDRESS, PHONE_NUMBER, " +
+                    "DEPARTMENT_NAME, JOB_TITLE, SALARY, HIRE_DATE, EMPLOYEE_NUMBER, MANAGER_ID) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", (stmt, i) -> {
+                if (!inDest(i)) {
+                    return false;
+                }
+                stmt.setInt(1, firstId + i);
+                stmt.setString(2, "Resource " + i);
+                stmt.setString(3, email(i, !changed(i)));
+                stmt.setString(4, phone(i));
+                stmt.setString(5, department(i));
+                stmt.setString(6, "Title " + (i % 7));
+                stmt.setInt(7, 60000 + i % 100 * 1000);
+                stmt.setDate(8, day(-(i % 3000)));
+                stmt.setString(9, "EMP" + (firstId + i));
+                stmt.setNull(10, Types.NUMERIC);
+                return true;
+            });
+
+            // Merges look rows up by these; EBS indexes them too
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE INDEX IF NOT EXISTS PA_PROJECTS_NAME ON PA_PROJECTS (NAME)");
+                stmt.execute("CREATE INDEX IF NOT EXISTS HR_ALL_PEOPLE_FULL_NAME ON HR_ALL_PEOPLE (FULL_NAME)");
+            }
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        log.info("Generated destination rows", "generator", this,
+                "millis", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * @return Index whose match key source row i carries: i itself, or an
+     * earlier row's for duplicates
+     */
+    public int keyOf(int index) {
+        if (index == 0 || unit(index, DUPLICATE) >= duplicateRatio) {
+            return index;
+        }
+        // u^(1 + skew) piles up near 0 as skew grows, so low indices become hot keys
+        return (int) (index * Math.pow(unit(index, DUPLICATE_OF), 1 + skew));
+    }
+
+    /**
+     * @return true if row i exists in the destination. Rows carrying a
+     * duplicated key have none of their own; their key belongs to the original.
+     */
+    public boolean inDest(int index) {
+        return keyOf(index) == index && unit(index, OVERLAP) < overlapRatio;
+    }
+
+    /**
+     * @return true if row i differs between source and destination
+     */
+    public boolean changed(int index) {
+        return unit(index, CHANGE) < changeRatio;
+    }
+
+    private interface RowBinder {
+        /**
+         * Bind row i, or return false to leave it out
+         */
+        boolean bind(PreparedStatement stmt, int index) throws SQLException;
+    }
+
+    private void insert(Connection conn, String sql, RowBinder binder) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (int i = 0; i < rows; i++) {
+                if (!binder.bind(stmt, i)) {
+                    continue;
+                }
+                stmt.addBatch();
+                if (++pending == batchSize) {
+                    stmt.executeBatch();
+                    conn.commit();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                stmt.executeBatch();
+                conn.commit();
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+    }
+
+    private void setTask(PreparedStatement stmt, int i, boolean current) throws SQLException {
+        stmt.setInt(1, firstId + i);
+        stmt.setInt(2, firstId + i);
+        stmt.setString(3, "Task " + keyOf(i));
+        stmt.setString(4, description(i, current));
+        stmt.setString(5, current ? STATUSES[i % STATUSES.length] : "Planned");
+        stmt.setString(6, "Resource " + keyOf(i));
+        stmt.setString(7, i % 3 == 0 ? "High" : "Medium");
+        stmt.setDate(8, day(i % 365));
+        stmt.setDate(9, day(i % 365 + 30));
+    }
+
+    private static String description(int i, boolean current) {
+        return "Generated row " + i + (current ? ", current revision" : ", previous revision");
+    }
+
+    private static String email(int i, boolean current) {
+        return "resource" + i + (current ? "@example.com" : "@old.example.com");
+    }
+
+    private static String phone(int i) {
+        return "555-" + (1000 + i % 9000);
+    }
+
+    private String department(int i) {
+        return "Department " + (int) (DEPARTMENTS * Math.pow(unit(i, DEPARTMENT), 1 + skew));
+    }
+
+    private Date day(int offset) {
+        return new Date(today + offset * 86_400_000L);
+    }
+
+    /**
+     * @return Value in [0, 1) fixed by the seed, row index and salt (SplitMix64 finalizer)
+     */
+    private double unit(int index, long salt) {
+        long z = seed + index * 0x9E3779B97F4A7C15L + salt * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private static double ratio(String name, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " ratio must be between 0 and 1: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return rows + " rows, seed " + seed + ", overlap " + overlapRatio + ", change " + changeRatio +
+                ", duplicates " + duplicateRatio + ", skew " + skew;
+    }
+}
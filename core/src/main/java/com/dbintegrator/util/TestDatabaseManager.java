@@ -3,6 +3,8 @@ package com.dbintegrator.util;
 import java.sql.*;
 
 public class TestDatabaseManager {
+    private static final Log log = Log.get(TestDatabaseManager.class);
+
     // String constants for connection URLs
     private static final String SOURCE_URL = "jdbc:h2:mem:sourcedb;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
     private static final String DEST_URL = "jdbc:h2:mem:destdb;MODE=Oracle;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
@@ -10,52 +12,90 @@ public class TestDatabaseManager {
     private static final String PASSWORD = "";
 
     public static DatabaseConnectionManager getSourceTestConnection() throws SQLException {
+        return getSourceTestConnection(null);
+    }
+
+    /**
+     * @param generator Adds generated rows after the sample rows; null for the sample rows only
+     */
+    public static DatabaseConnectionManager getSourceTestConnection(TestDataGenerator generator)
+            throws SQLException {
         DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(
                 "localhost", 1521, "sourcedb", USERNAME, PASSWORD
         );
 
         try (Connection conn = connectionManager.getConnection()) {
             setupSourceTestData(conn);
+            if (generator != null) {
+                generator.fillSource(conn);
+            }
 
             // Debug print
-            System.out.println("===== SOURCE TEST DATABASE TABLES =====");
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery("SHOW TABLES")) {
-                while (rs.next()) {
-                    System.out.println("Table: " + rs.getString(1));
+            if (log.isDebugEnabled()) {
+                log.debug("===== SOURCE TEST DATABASE TABLES =====");
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SHOW TABLES")) {
+                    while (rs.next()) {
+                        log.debug("Found table", "table", rs.getString(1));
+                    }
+                } catch (Exception e) {
+                    log.warn("Error listing tables", "error", e.getMessage());
                 }
-            } catch (Exception e) {
-                System.err.println("Error listing tables: " + e.getMessage());
             }
 
-            printProjectTableContents(connectionManager, "PROJECT");
-            printResourceTableContents(connectionManager, "RSRC");
+            // Generated tables are too large to list
+            if (generator == null) {
+                printProjectTableContents(connectionManager, "PROJECT");
+                printResourceTableContents(connectionManager, "RSRC");
+            }
         } catch (SQLException e) {
             throw new SQLException("Failed to set up source test database", e);
         }
 
+        // The tables were just recreated
+        MetadataCache.global().invalidate(connectionManager);
         return connectionManager;
     }
 
     public static DatabaseConnectionManager getDestTestConnection() throws SQLException {
+        return getDestTestConnection(null);
+    }
+
+    /**
+     * @param generator Adds generated rows after the sample rows; null for the sample rows only
+     */
+    public static DatabaseConnectionManager getDestTestConnection(TestDataGenerator generator)
+            throws SQLException {
         DatabaseConnectionManager connectionManager = new DatabaseConnectionManager(
                 "localhost", 1521, "destdb", USERNAME, PASSWORD
         );
 
         try (Connection conn = connectionManager.getConnection()) {
             setupDestTestData(conn);
+            if (generator != null) {
+                generator.fillDest(conn);
+            }
 
-            // Debug print
-            printProjectTableContents(connectionManager, "PA_PROJECTS");
-            printResourceTableContents(connectionManager, "HR_ALL_PEOPLE");
+            // Debug print; generated tables are too large to list
+            if (generator == null) {
+                printProjectTableContents(connectionManager, "PA_PROJECTS");
+                printResourceTableContents(connectionManager, "HR_ALL_PEOPLE");
+            }
         } catch (SQLException e) {
             throw new SQLException("Failed to set up destination test database", e);
         }
 
+        MetadataCache.global().invalidate(connectionManager);
         return connectionManager;
     }
 
-    private static void setupSourceTestData(Connection conn) throws SQLException {
+    /**
+     * Creates the P6 test schema (PROJECT, TASKS, RSRC) with sample rows,
+     * dropping any existing tables first
+     * @param conn Connection to the database to populate
+     * @throws SQLException if database access error occurs
+     */
+    public static void setupSourceTestData(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             // Drop existing tables to avoid conflicts
             stmt.execute("DROP TABLE IF EXISTS TASKS");
@@ -69,21 +109,22 @@ public class TestDatabaseManager {
                     "description VARCHAR2(500))");
 
             // Insert expanded set of sample projects
-            stmt.execute("INSERT INTO PROJECT VALUES " +
+            stmt.addBatch("INSERT INTO PROJECT VALUES " +
                     "(1, 'Enterprise Resource Planning (ERP) Implementation', " +
                     "'Comprehensive ERP system rollout across organization')");
-            stmt.execute("INSERT INTO PROJECT VALUES " +
+            stmt.addBatch("INSERT INTO PROJECT VALUES " +
                     "(2, 'Customer Relationship Management (CRM) Upgrade', " +
                     "'Modernizing customer engagement and tracking system')");
-            stmt.execute("INSERT INTO PROJECT VALUES " +
+            stmt.addBatch("INSERT INTO PROJECT VALUES " +
                     "(3, 'Supply Chain Optimization Project', " +
                     "'Improving logistics and supply chain efficiency')");
-            stmt.execute("INSERT INTO PROJECT VALUES " +
+            stmt.addBatch("INSERT INTO PROJECT VALUES " +
                     "(4, 'Digital Transformation Initiative', " +
                     "'Comprehensive digital strategy and implementation')");
-            stmt.execute("INSERT INTO PROJECT VALUES " +
+            stmt.addBatch("INSERT INTO PROJECT VALUES " +
                     "(5, 'Cybersecurity Enhancement Program', " +
                     "'Upgrading and fortifying organizational cybersecurity infrastructure')");
+            stmt.executeBatch();
 
             // Create tasks table
             stmt.execute("CREATE TABLE TASKS (" +
@@ -100,64 +141,65 @@ public class TestDatabaseManager {
 
             // Insert sample tasks for each project
             // Project 1: ERP Implementation
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(1, 1, 'Requirements Analysis', " +
                     "'Conduct comprehensive requirements gathering for ERP implementation', " +
                     "'In Progress', 'John Anderson', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 30)");
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(2, 1, 'System Design', " +
                     "'Create detailed technical design for ERP system', " +
                     "'Planned', 'Emily Roberts', 'High', " +
                     "CURRENT_DATE + 31, CURRENT_DATE + 60)");
 
             // Project 2: CRM Upgrade
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(3, 2, 'Current System Audit', " +
                     "'Analyze existing CRM system capabilities and limitations', " +
                     "'Not Started', 'Michael Chen', 'Medium', " +
                     "CURRENT_DATE, CURRENT_DATE + 45)");
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(4, 2, 'New Features Design', " +
                     "'Develop specification for new CRM features', " +
                     "'Pending', 'Sarah Kim', 'High', " +
                     "CURRENT_DATE + 46, CURRENT_DATE + 90)");
 
             // Project 3: Supply Chain Optimization
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(5, 3, 'Vendor Analysis', " +
                     "'Evaluate current supply chain vendors and performance', " +
                     "'In Progress', 'David Martinez', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 40)");
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(6, 3, 'Process Mapping', " +
                     "'Create detailed process flow for supply chain operations', " +
                     "'Planned', 'Lisa Wong', 'Medium', " +
                     "CURRENT_DATE + 41, CURRENT_DATE + 70)");
 
             // Project 4: Digital Transformation
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(7, 4, 'Digital Strategy Development', " +
                     "'Create comprehensive digital transformation roadmap', " +
                     "'Not Started', 'Alex Rodriguez', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 60)");
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(8, 4, 'Technology Assessment', " +
                     "'Evaluate emerging technologies for digital transformation', " +
                     "'Pending', 'Rachel Green', 'Medium', " +
                     "CURRENT_DATE + 61, CURRENT_DATE + 90)");
 
             // Project 5: Cybersecurity Enhancement
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(9, 5, 'Security Vulnerability Assessment', " +
                     "'Conduct comprehensive security vulnerability scan', " +
                     "'In Progress', 'Thomas Wilson', 'Critical', " +
                     "CURRENT_DATE, CURRENT_DATE + 30)");
-            stmt.execute("INSERT INTO TASKS VALUES " +
+            stmt.addBatch("INSERT INTO TASKS VALUES " +
                     "(10, 5, 'Security Policy Review', " +
                     "'Update and revise organizational security policies', " +
                     "'Planned', 'Jennifer Lopez', 'High', " +
                     "CURRENT_DATE + 31, CURRENT_DATE + 60)");
+            stmt.executeBatch();
 
             // Create P6 Resources table (RSRC) with RSRC_ID instead of ID
             stmt.execute("CREATE TABLE RSRC (" +
@@ -172,30 +214,37 @@ public class TestDatabaseManager {
                     "CALENDAR_ID NUMBER)");
 
             // Insert sample resources
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(101, 'John Anderson', 'janderson@example.com', '555-1001', 'IT', 'Senior Developer', 85.00, 100, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(102, 'Emily Roberts', 'eroberts@example.com', '555-1002', 'IT', 'Solution Architect', 95.00, 80, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(103, 'Michael Chen', 'mchen@example.com', '555-1003', 'Business Analysis', 'Business Analyst', 75.00, 100, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(104, 'Sarah Kim', 'skim@example.com', '555-1004', 'UX', 'UX Designer', 80.00, 90, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(105, 'David Martinez', 'dmartinez@example.com', '555-1005', 'Supply Chain', 'Supply Chain Analyst', 70.00, 100, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(106, 'Lisa Wong', 'lwong@example.com', '555-1006', 'Business Analysis', 'Process Analyst', 75.00, 90, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(107, 'Alex Rodriguez', 'arodriguez@example.com', '555-1007', 'Strategy', 'Digital Strategist', 90.00, 80, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(108, 'Rachel Green', 'rgreen@example.com', '555-1008', 'IT', 'Technology Analyst', 80.00, 100, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(109, 'Thomas Wilson', 'twilson@example.com', '555-1009', 'Security', 'Security Specialist', 85.00, 90, 1)");
-            stmt.execute("INSERT INTO RSRC VALUES " +
+            stmt.addBatch("INSERT INTO RSRC VALUES " +
                     "(110, 'Jennifer Lopez', 'jlopez@example.com', '555-1010', 'Compliance', 'Compliance Officer', 75.00, 100, 1)");
+            stmt.executeBatch();
         }
     }
 
-    private static void setupDestTestData(Connection conn) throws SQLException {
+    /**
+     * Creates the EBS test schema (PA_PROJECTS, PA_TASKS, HR_ALL_PEOPLE) with
+     * sample rows, dropping any existing tables first
+     * @param conn Connection to the database to populate
+     * @throws SQLException if database access error occurs
+     */
+    public static void setupDestTestData(Connection conn) throws SQLException {
         try (Statement stmt = conn.createStatement()) {
             // Drop existing tables to avoid conflicts
             stmt.execute("DROP TABLE IF EXISTS PA_TASKS");
@@ -209,21 +258,22 @@ public class TestDatabaseManager {
                     "description VARCHAR2(500))");
 
             // Insert corresponding projects with slightly different names
-            stmt.execute("INSERT INTO PA_PROJECTS VALUES " +
+            stmt.addBatch("INSERT INTO PA_PROJECTS VALUES " +
                     "(101, 'Enterprise Resource Planning System', " +
                     "'Strategic ERP system implementation and integration')");
-            stmt.execute("INSERT INTO PA_PROJECTS VALUES " +
+            stmt.addBatch("INSERT INTO PA_PROJECTS VALUES " +
                     "(102, 'Advanced CRM Solution', " +
                     "'Next-generation customer relationship management platform')");
-            stmt.execute("INSERT INTO PA_PROJECTS VALUES " +
+            stmt.addBatch("INSERT INTO PA_PROJECTS VALUES " +
                     "(103, 'Supply Chain Management Optimization', " +
                     "'Advanced logistics and supply chain efficiency project')");
-            stmt.execute("INSERT INTO PA_PROJECTS VALUES " +
+            stmt.addBatch("INSERT INTO PA_PROJECTS VALUES " +
                     "(104, 'Digital Strategy Execution', " +
                     "'Comprehensive digital transformation and innovation initiative')");
-            stmt.execute("INSERT INTO PA_PROJECTS VALUES " +
+            stmt.addBatch("INSERT INTO PA_PROJECTS VALUES " +
                     "(105, 'Enterprise Cybersecurity Program', " +
                     "'Advanced cybersecurity infrastructure and protection strategy')");
+            stmt.executeBatch();
 
             // Create tasks table
             stmt.execute("CREATE TABLE PA_TASKS (" +
@@ -240,64 +290,65 @@ public class TestDatabaseManager {
 
             // Insert corresponding tasks with slight variations
             // Project 101: ERP System
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(101, 101, 'Initial ERP Requirements Review', " +
                     "'Validate and refine ERP implementation requirements', " +
                     "'In Review', 'Emma Thompson', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 30)");
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(102, 101, 'ERP Architecture Planning', " +
                     "'Develop comprehensive system architecture framework', " +
                     "'Planned', 'Ryan Clark', 'High', " +
                     "CURRENT_DATE + 31, CURRENT_DATE + 60)");
 
             // Project 102: CRM Solution
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(103, 102, 'CRM System Evaluation', " +
                     "'Comprehensive analysis of current CRM capabilities', " +
                     "'Not Started', 'Olivia Martin', 'Medium', " +
                     "CURRENT_DATE, CURRENT_DATE + 45)");
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(104, 102, 'CRM Enhancement Specification', " +
                     "'Develop detailed specifications for CRM improvements', " +
                     "'Pending', 'Ethan Brooks', 'High', " +
                     "CURRENT_DATE + 46, CURRENT_DATE + 90)");
 
             // Project 103: Supply Chain Management
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(105, 103, 'Vendor Performance Analysis', " +
                     "'Detailed assessment of supply chain vendor performance', " +
                     "'In Progress', 'Sophie Turner', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 40)");
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(106, 103, 'Logistics Process Optimization', " +
                     "'Develop strategies for improving supply chain efficiency', " +
                     "'Planned', 'Lucas Anderson', 'Medium', " +
                     "CURRENT_DATE + 41, CURRENT_DATE + 70)");
 
             // Project 104: Digital Strategy
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(107, 104, 'Digital Transformation Strategy', " +
                     "'Create comprehensive digital innovation roadmap', " +
                     "'Not Started', 'Isabella Garcia', 'High', " +
                     "CURRENT_DATE, CURRENT_DATE + 60)");
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(108, 104, 'Emerging Technology Assessment', " +
                     "'Comprehensive review of potential transformative technologies', " +
                     "'Pending', 'Noah Martinez', 'Medium', " +
                     "CURRENT_DATE + 61, CURRENT_DATE + 90)");
 
             // Project 105: Cybersecurity Program
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(109, 105, 'Security Vulnerability Diagnostics', " +
                     "'In-depth security vulnerability and risk assessment', " +
                     "'In Progress', 'Ava Wilson', 'Critical', " +
                     "CURRENT_DATE, CURRENT_DATE + 30)");
-            stmt.execute("INSERT INTO PA_TASKS VALUES " +
+            stmt.addBatch("INSERT INTO PA_TASKS VALUES " +
                     "(110, 105, 'Cybersecurity Policy Modernization', " +
                     "'Comprehensive review and update of security policies', " +
                     "'Planned', 'Mason Taylor', 'High', " +
                     "CURRENT_DATE + 31, CURRENT_DATE + 60)");
+            stmt.executeBatch();
 
             // Create EBS Resources table (HR_ALL_PEOPLE) with PERSON_ID instead of ID
             stmt.execute("CREATE TABLE HR_ALL_PEOPLE (" +
@@ -313,39 +364,58 @@ public class TestDatabaseManager {
                     "MANAGER_ID NUMBER)");
 
             // Insert sample HR resources that correspond to P6 resources
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1001, 'John Anderson', 'john.anderson@company.com', '888-101', " +
                     "'Information Technology', 'Sr. Developer', 120000, CURRENT_DATE - 1000, 'EMP001', 1050)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1002, 'Emily Roberts', 'emily.roberts@company.com', '888-102', " +
                     "'Information Technology', 'Principal Architect', 140000, CURRENT_DATE - 1200, 'EMP002', 1050)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1003, 'Michael Chen', 'michael.chen@company.com', '888-103', " +
                     "'Business Analysis', 'Senior Business Analyst', 110000, CURRENT_DATE - 900, 'EMP003', 1051)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1004, 'Sarah Kim', 'sarah.kim@company.com', '888-104', " +
                     "'User Experience', 'Lead UX Designer', 115000, CURRENT_DATE - 800, 'EMP004', 1052)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1005, 'David Martinez', 'david.martinez@company.com', '888-105', " +
                     "'Supply Chain Management', 'Supply Chain Specialist', 105000, CURRENT_DATE - 750, 'EMP005', 1053)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1006, 'Lisa Wong', 'lisa.wong@company.com', '888-106', " +
                     "'Business Analysis', 'Process Improvement Specialist', 108000, CURRENT_DATE - 920, 'EMP006', 1051)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1007, 'Alexander Rodriguez', 'alex.rodriguez@company.com', '888-107', " +
                     "'Strategic Planning', 'Digital Strategy Director', 135000, CURRENT_DATE - 1100, 'EMP007', 1054)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1008, 'Rachel Green', 'rachel.green@company.com', '888-108', " +
                     "'Information Technology', 'Technology Analyst II', 98000, CURRENT_DATE - 600, 'EMP008', 1050)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1009, 'Thomas Wilson', 'thomas.wilson@company.com', '888-109', " +
                     "'Information Security', 'Security Engineer', 125000, CURRENT_DATE - 850, 'EMP009', 1055)");
-            stmt.execute("INSERT INTO HR_ALL_PEOPLE VALUES " +
+            stmt.addBatch("INSERT INTO HR_ALL_PEOPLE VALUES " +
                     "(1010, 'Jennifer Lopez', 'jennifer.lopez@company.com', '888-110', " +
                     "'Compliance', 'Senior Compliance Officer', 118000, CURRENT_DATE - 1050, 'EMP010', 1056)");
+            stmt.executeBatch();
         }
     }
 
+    /**
+     * @param url JDBC URL, e.g. from DatabaseMetaData.getURL()
+     * @return true for the test databases, in memory or mounted from a TestFixtureStore fixture
+     */
+    public static boolean isTestDatabaseUrl(String url) {
+        if (url == null || !url.startsWith("jdbc:h2:")) {
+            return false;
+        }
+        int settings = url.indexOf(';');
+        String database = settings >= 0 ? url.substring(0, settings) : url;
+        for (String name : new String[]{TestFixtureStore.SOURCE_DB, TestFixtureStore.DEST_DB}) {
+            if (database.endsWith(":" + name) || database.endsWith("/" + name) || database.endsWith("\\" + name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public static boolean testBasicH2Connection() {
         try {
             Class.forName("org.h2.Driver");
@@ -356,14 +426,17 @@ public class TestDatabaseManager {
                 return true;
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("H2 test connection failed", e);
             return false;
         }
     }
 
     public static void printProjectTableContents(DatabaseConnectionManager dbManager, String tableName) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         try {
-            System.out.println("Printing contents of table: " + tableName);
+            log.debug("Printing contents of table", "table", tableName);
             try (Connection conn = dbManager.getConnection();
                  Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery("SELECT id, name, description FROM " + tableName)) {
@@ -371,25 +444,25 @@ public class TestDatabaseManager {
                 int count = 0;
                 while (rs.next()) {
                     count++;
-                    System.out.println("Project " + count + ": " +
-                            "ID=" + rs.getInt("id") +
-                            ", Name=" + rs.getString("name") +
-                            ", Description=" + rs.getString("description"));
+                    log.debug("Project", "row", count, "id", rs.getInt("id"),
+                            "name", rs.getString("name"), "description", rs.getString("description"));
                 }
 
                 if (count == 0) {
-                    System.err.println("NO PROJECTS FOUND IN TABLE: " + tableName);
+                    log.warn("No projects found", "table", tableName);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error printing project table contents:");
-            e.printStackTrace();
+            log.warn("Error printing project table contents", e);
         }
     }
 
     public static void printResourceTableContents(DatabaseConnectionManager dbManager, String tableName) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
         try {
-            System.out.println("Printing contents of resource table: " + tableName);
+            log.debug("Printing contents of resource table", "table", tableName);
             try (Connection conn = dbManager.getConnection();
                  Statement stmt = conn.createStatement()) {
 
@@ -402,12 +475,9 @@ public class TestDatabaseManager {
 
                     while (rs.next()) {
                         count++;
-                        System.out.println("Resource " + count + ": " +
-                                "ID=" + rs.getInt("RSRC_ID") +
-                                ", Name=" + rs.getString("NAME") +
-                                ", Email=" + rs.getString("EMAIL") +
-                                ", Department=" + rs.getString("DEPARTMENT") +
-                                ", Role=" + rs.getString("ROLE"));
+                        log.debug("Resource", "row", count, "id", rs.getInt("RSRC_ID"),
+                                "name", rs.getString("NAME"), "email", rs.getString("EMAIL"),
+                                "department", rs.getString("DEPARTMENT"), "role", rs.getString("ROLE"));
                     }
                 } else {
                     // EBS resource table - use PERSON_ID instead of ID
@@ -415,24 +485,20 @@ public class TestDatabaseManager {
 
                     while (rs.next()) {
                         count++;
-                        System.out.println("Resource " + count + ": " +
-                                "ID=" + rs.getInt("PERSON_ID") +
-                                ", Name=" + rs.getString("FULL_NAME") +
-                                ", Email=" + rs.getString("EMAIL_ADDRESS") +
-                                ", Department=" + rs.getString("DEPARTMENT_NAME") +
-                                ", Job=" + rs.getString("JOB_TITLE"));
+                        log.debug("Resource", "row", count, "id", rs.getInt("PERSON_ID"),
+                                "name", rs.getString("FULL_NAME"), "email", rs.getString("EMAIL_ADDRESS"),
+                                "department", rs.getString("DEPARTMENT_NAME"), "job", rs.getString("JOB_TITLE"));
                     }
                 }
 
                 rs.close();
 
                 if (count == 0) {
-                    System.err.println("NO RESOURCES FOUND IN TABLE: " + tableName);
+                    log.warn("No resources found", "table", tableName);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Error printing resource table contents:");
-            e.printStackTrace();
+            log.warn("Error printing resource table contents", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.dbintegrator.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prebuilt test databases, so large generated scenarios do not have to be
+ * regenerated on every launch. Each fixture is a directory under ./fixtures
+ * holding the source and destination schemas of TestDatabaseManager as H2
+ * file databases (sourcedb.mv.db, destdb.mv.db), optionally with portable
+ * SCRIPT archives of both (sourcedb.zip, destdb.zip). Database files are
+ * tied to the H2 version that wrote them; archives are not, and a fixture
+ * that has only archives is restored from them when first mounted.
+ * <p>
+ * A mounted fixture is either opened read-only in place, which is instant
+ * but only suits the source side, or copied to fixtures/NAME/work first so
+ * an integration can write to it without changing the fixture.
+ */
+public class TestFixtureStore {
+    private static final Log log = Log.get(TestFixtureStore.class);
+
+    public enum Mount {
+        // Open the fixture itself; writes fail
+        READ_ONLY,
+        // Open a fresh copy of the fixture
+        COPY
+    }
+
+    public static final String SOURCE_DB = "sourcedb";
+    public static final String DEST_DB = "destdb";
+
+    private static final String DEFAULT_DIRECTORY = "fixtures";
+    private static final String WORK_DIRECTORY = "work";
+    private static final String DB_EXTENSION = ".mv.db";
+    private static final String ARCHIVE_EXTENSION = ".zip";
+    private static final String USERNAME = "sa";
+    private static final String PASSWORD = "";
+
+    private final File directory;
+
+    public TestFixtureStore() {
+        this(new File(DEFAULT_DIRECTORY));
+    }
+
+    public TestFixtureStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return Names of the fixtures with database files or archives, sorted
+     */
+    public List<String> list() {
+        List<String> names = new ArrayList<>();
+        File[] dirs = directory.listFiles(File::isDirectory);
+        if (dirs != null) {
+            for (File dir : dirs) {
+                if (contains(dir.getName())) {
+                    names.add(dir.getName());
+                }
+            }
+        }
+        names.sort(null);
+        return names;
+    }
+
+    public boolean contains(String name) {
+        for (String db : new String[]{SOURCE_DB, DEST_DB}) {
+            if (!file(name, db + DB_EXTENSION).isFile() && !file(name, db + ARCHIVE_EXTENSION).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Build a fixture from the sample rows plus generated ones, replacing any
+     * fixture of the same name
+     * @param name Fixture name, used as its directory name
+     * @param generator Generated rows to add; null for the sample rows only
+     * @throws SQLException if a database cannot be written
+     */
+    public void build(String name, TestDataGenerator generator) throws SQLException {
+        long started = System.nanoTime();
+        File fixture = fixtureDirectory(name);
+        deleteDatabases(fixture);
+        if (!fixture.isDirectory() && !fixture.mkdirs()) {
+            throw new SQLException("Cannot create fixture directory " + fixture);
+        }
+
+        try (Connection conn = open(name, SOURCE_DB, "")) {
+            TestDatabaseManager.setupSourceTestData(conn);
+            if (generator != null) {
+                generator.fillSource(conn);
+            }
+            shutdownCompact(conn);
+        }
+        try (Connection conn = open(name, DEST_DB, "")) {
+            TestDatabaseManager.setupDestTestData(conn);
+            if (generator != null) {
+                generator.fillDest(conn);
+            }
+            shutdownCompact(conn);
+        }
+        log.info("Built test fixture", "fixture", name, "generator", generator,
+                "millis", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Write SCRIPT archives of a built fixture, for sharing it or keeping it
+     * across H2 upgrades
+     * @throws SQLException if the fixture does not exist or cannot be scripted
+     */
+    public void archive(String name) throws SQLException {
+        for (String db : new String[]{SOURCE_DB, DEST_DB}) {
+            requireDatabase(name, db);
+            File archive = file(name, db + ARCHIVE_EXTENSION);
+            try (Connection conn = open(name, db, ";ACCESS_MODE_DATA=r");
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("SCRIPT TO '" + sqlPath(archive) + "' COMPRESSION ZIP");
+            }
+            log.info("Archived test fixture", "fixture", name, "archive", archive);
+        }
+    }
+
+    /**
+     * @param name Fixture name
+     * @param mount How to open it
+     * @return Connection manager for the fixture's source database
+     * @throws SQLException if the fixture does not exist or cannot be opened
+     */
+    public DatabaseConnectionManager mountSource(String name, Mount mount) throws SQLException {
+        return mount(name, SOURCE_DB, mount);
+    }
+
+    /**
+     * @param name Fixture name
+     * @param mount How to open it; integrations write here, so normally COPY
+     * @return Connection manager for the fixture's destination database
+     * @throws SQLException if the fixture does not exist or cannot be opened
+     */
+    public DatabaseConnectionManager mountDest(String name, Mount mount) throws SQLException {
+        return mount(name, DEST_DB, mount);
+    }
+
+    private DatabaseConnectionManager mount(String name, String db, Mount mount) throws SQLException {
+        long started = System.nanoTime();
+        restoreIfArchived(name, db);
+        requireDatabase(name, db);
+
+        String url;
+        if (mount == Mount.READ_ONLY) {
+            url = url(file(name, db), ";ACCESS_MODE_DATA=r");
+        } else {
+            File work = new File(fixtureDirectory(name), WORK_DIRECTORY);
+            if (!work.isDirectory() && !work.mkdirs()) {
+                throw new SQLException("Cannot create fixture work directory " + work);
+            }
+            try {
+                Files.copy(file(name, db + DB_EXTENSION).toPath(), new File(work, db + DB_EXTENSION).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                throw new SQLException("Cannot copy test fixture " + name + "/" + db + ": " + e.getMessage(), e);
+            }
+            url = url(new File(work, db), "");
+        }
+        log.info("Mounted test fixture", "fixture", name, "database", db, "mount", mount,
+                "millis", (System.nanoTime() - started) / 1_000_000);
+        DatabaseConnectionManager dbManager = new DatabaseConnectionManager(url, USERNAME, PASSWORD);
+        // An earlier build of the fixture may have been mounted at the same URL
+        MetadataCache.global().invalidate(dbManager);
+        return dbManager;
+    }
+
+    private void restoreIfArchived(String name, String db) throws SQLException {
+        File archive = file(name, db + ARCHIVE_EXTENSION);
+        if (file(name, db + DB_EXTENSION).isFile() || !archive.isFile()) {
+            return;
+        }
+        try (Connection conn = open(name, db, "");
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("RUNSCRIPT FROM '" + sqlPath(archive) + "' COMPRESSION ZIP");
+            shutdownCompact(conn);
+        }
+        log.info("Restored test fixture from archive", "fixture", name, "archive", archive);
+    }
+
+    private void requireDatabase(String name, String db) throws SQLException {
+        if (!file(name, db + DB_EXTENSION).isFile()) {
+            throw new SQLException("Test fixture " + name + " has no " + db + " database in " + fixtureDirectory(name));
+        }
+    }
+
+    private Connection open(String name, String db, String settings) throws SQLException {
+        return DriverManager.getConnection(url(file(name, db), settings), USERNAME, PASSWORD);
+    }
+
+    private static String url(File database, String settings) {
+        return "jdbc:h2:file:" + database.getAbsolutePath() + ";MODE=Oracle" + settings;
+    }
+
+    // Rewrites the file without the free space left by the bulk inserts
+    private static void shutdownCompact(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN COMPACT");
+        }
+    }
+
+    private static void deleteDatabases(File fixture) throws SQLException {
+        for (String db : new String[]{SOURCE_DB, DEST_DB}) {
+            for (String extension : new String[]{DB_EXTENSION, ".trace.db", ARCHIVE_EXTENSION}) {
+                File file = new File(fixture, db + extension);
+                if (file.exists() && !file.delete()) {
+                    throw new SQLException("Cannot replace test fixture file " + file);
+                }
+            }
+        }
+    }
+
+    private static String sqlPath(File file) {
+        return file.getAbsolutePath().replace("'", "''");
+    }
+
+    private File fixtureDirectory(String name) {
+        if (name.isEmpty() || !name.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Fixture names may only contain letters, digits, '.', '_' and '-': "
+                    + name);
+        }
+        return new File(directory, name);
+    }
+
+    private File file(String name, String fileName) {
+        return new File(fixtureDirectory(name), fileName);
+    }
+}
@@ -1,7 +0,0 @@
-package com.dbintegrator;
-
-public class Launcher {
-    public static void main(String[] args) {
-        OracleDBIntegratorApp.main(args);
-    }
-}
\ No newline at end of file
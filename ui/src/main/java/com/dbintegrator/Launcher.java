@@ -0,0 +1,14 @@
+package com.dbintegrator;
+
+import java.util.Arrays;
+
+public class Launcher {
+    public static void main(String[] args) {
+        // "run <job.properties>" runs a job headless, without loading JavaFX
+        if (args.length > 0 && "run".equals(args[0])) {
+            IntegrationCli.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        OracleDBIntegratorApp.main(args);
+    }
+}
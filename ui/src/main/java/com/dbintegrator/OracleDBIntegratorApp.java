@@ -1,5 +1,10 @@
 package com.dbintegrator;
 
+import com.dbintegrator.service.RunRegistry;
+import com.dbintegrator.ui.FxStallDetector;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.RunHistoryStore;
+
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -8,23 +13,38 @@ import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
 public class OracleDBIntegratorApp extends Application {
+    private static final Log log = Log.get(OracleDBIntegratorApp.class);
+
+    private FxStallDetector stallDetector;
 
     @Override
     public void start(Stage primaryStage) {
         try {
+            // Every integration started from the UI is kept for the Run History tab
+            RunRegistry.global().recordHistory(new RunHistoryStore());
+
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/com/dbintegrator/ui/main_view.fxml"));
             BorderPane root = loader.load();
 
             Scene scene = new Scene(root);
+            // Logs whatever blocks the FX thread, e.g. JDBC calls made from event handlers
+            stallDetector = FxStallDetector.start(scene);
             primaryStage.setTitle("Oracle DB Integrator");
             primaryStage.setScene(scene);
             primaryStage.show();
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to start application", e);
             showError("Application Error", "Failed to start application: " + e.getMessage());
         }
     }
 
+    @Override
+    public void stop() {
+        if (stallDetector != null) {
+            stallDetector.stop();
+        }
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
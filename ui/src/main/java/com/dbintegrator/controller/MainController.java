@@ -4,12 +4,17 @@ import com.dbintegrator.model.ColumnMapping;
 import com.dbintegrator.model.Project;
 import com.dbintegrator.model.TableColumn;
 import com.dbintegrator.service.DatabaseMetadataService;
+import com.dbintegrator.service.CoalescingUpdateBuffer;
 import com.dbintegrator.service.DataIntegrationService;
+import com.dbintegrator.ui.IntegrationTask;
 import com.dbintegrator.ui.MultiProjectSelectionDialog;
 import com.dbintegrator.ui.ProjectSelectionDialog;
 import com.dbintegrator.util.ConfigurationManager;
 import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.MetadataCache;
 import com.dbintegrator.util.TestDatabaseManager;
+import com.dbintegrator.util.TestFixtureStore;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -30,6 +35,11 @@ import java.util.List;
 import java.util.Optional;
 
 public class MainController {
+    private static final Log log = Log.get(MainController.class);
+
+    // Names a TestFixtureStore fixture for test mode to mount instead of recreating the test tables
+    private static final String TEST_FIXTURE_PROPERTY = "dbintegrator.test.fixture";
+
     // Constants for fixed table names
     private static final String SOURCE_TABLE_NAME = "PROJECT";
     private static final String DEST_TABLE_NAME = "PA_PROJECTS";
@@ -56,12 +66,16 @@ public class MainController {
     @FXML private Button testModeButton;
     @FXML private Button openH2ConsoleButton;
     @FXML private Button verifyResultsButton;
+    @FXML private Label integrationStatusLabel;
+    @FXML private ProgressBar integrationProgressBar;
+    @FXML private Button cancelIntegrationButton;
     @FXML private TextArea sourceProjectDetailsArea;
     @FXML private TextArea destProjectDetailsArea;
 
     // Controllers for other tabs
     @FXML private TaskIntegrationController taskIntegrationController;
     @FXML private ResourceIntegrationController resourceIntegrationController;
+    @FXML private MonitoringController monitoringController;
 
     // Database and Project Management
     private DatabaseConnectionManager sourceDbManager;
@@ -91,6 +105,7 @@ public class MainController {
             if (sourceDbManager != null && destDbManager != null) {
                 setupTaskIntegrationTab();
                 setupResourceIntegrationTab();
+                setupMonitoringTab();
             }
         });
     }
@@ -98,18 +113,18 @@ public class MainController {
     private void setupTaskIntegrationTab() {
         try {
             if (taskIntegrationController == null) {
-                System.err.println("TaskIntegrationController reference is null");
+                log.error("TaskIntegrationController reference is null");
                 return;
             }
 
             // Set database managers
             if (sourceDbManager != null) {
-                System.out.println("Setting source DB manager in Task Integration Tab");
+                log.info("Setting source DB manager in Task Integration Tab");
                 taskIntegrationController.setSourceDbManager(sourceDbManager);
             }
 
             if (destDbManager != null) {
-                System.out.println("Setting destination DB manager in Task Integration Tab");
+                log.info("Setting destination DB manager in Task Integration Tab");
                 taskIntegrationController.setDestDbManager(destDbManager);
             }
 
@@ -117,28 +132,34 @@ public class MainController {
             taskIntegrationController.forceProjectLoading();
 
         } catch (Exception e) {
-            System.err.println("Error in setupTaskIntegrationTab:");
-            e.printStackTrace();
+            log.error("Error in setupTaskIntegrationTab", e);
+        }
+    }
+
+    private void setupMonitoringTab() {
+        if (monitoringController != null) {
+            monitoringController.setSourceDbManager(sourceDbManager);
+            monitoringController.setDestDbManager(destDbManager);
         }
     }
 
     private void setupResourceIntegrationTab() {
         try {
             if (resourceIntegrationController == null) {
-                System.err.println("ResourceIntegrationController reference is null");
+                log.error("ResourceIntegrationController reference is null");
                 return;
             }
 
-            System.out.println("Setting up Resource Integration Tab");
+            log.info("Setting up Resource Integration Tab");
 
             // Set database managers
             if (sourceDbManager != null) {
-                System.out.println("Setting source DB manager in Resource Integration Tab");
+                log.info("Setting source DB manager in Resource Integration Tab");
                 resourceIntegrationController.setSourceDbManager(sourceDbManager);
             }
 
             if (destDbManager != null) {
-                System.out.println("Setting destination DB manager in Resource Integration Tab");
+                log.info("Setting destination DB manager in Resource Integration Tab");
                 resourceIntegrationController.setDestDbManager(destDbManager);
             }
 
@@ -146,8 +167,7 @@ public class MainController {
             resourceIntegrationController.forceResourceLoading();
 
         } catch (Exception e) {
-            System.err.println("Error in setupResourceIntegrationTab:");
-            e.printStackTrace();
+            log.error("Error in setupResourceIntegrationTab", e);
         }
     }
 
@@ -157,22 +177,19 @@ public class MainController {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT id, name, description FROM " + tableName)) {
 
-            System.out.println("Contents of " + tableName + " table:");
+            log.info("Contents of table", "table", tableName);
             int count = 0;
             while (rs.next()) {
                 count++;
-                System.out.println("Project " + count + ": " +
-                        "ID=" + rs.getInt("id") +
-                        ", Name=" + rs.getString("name") +
-                        ", Description=" + rs.getString("description"));
+                log.debug("Project", "row", count, "id", rs.getInt("id"),
+                        "name", rs.getString("name"), "description", rs.getString("description"));
             }
 
             if (count == 0) {
-                System.err.println("NO PROJECTS FOUND IN TABLE: " + tableName);
+                log.error("No projects found", "table", tableName);
             }
         } catch (SQLException e) {
-            System.err.println("Error printing table contents for " + tableName + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error printing table contents", "table", tableName, e);
         }
     }
 
@@ -263,6 +280,7 @@ public class MainController {
             // Setup integration tabs
             setupTaskIntegrationTab();
             setupResourceIntegrationTab();
+            setupMonitoringTab();
         }
     }
 
@@ -283,6 +301,8 @@ public class MainController {
             dialog.showAndWait();
 
             if (controller.getConnectionManager() != null) {
+                // Connecting again is how users pick up schema changes
+                MetadataCache.global().invalidate(controller.getConnectionManager());
                 if (isSource) {
                     sourceDbManager = controller.getConnectionManager();
                     sourceDbLabel.setText("Source: " + sourceDbManager.getConnectionInfo());
@@ -302,6 +322,7 @@ public class MainController {
                     // Setup integration tabs
                     setupTaskIntegrationTab();
                     setupResourceIntegrationTab();
+                    setupMonitoringTab();
                 }
             }
         } catch (IOException e) {
@@ -466,10 +487,18 @@ public class MainController {
                 throw new SQLException("H2 database connection test failed");
             }
 
-            // Set up test connections
-            logTextArea.appendText("Setting up test connections...\n");
-            sourceDbManager = TestDatabaseManager.getSourceTestConnection();
-            destDbManager = TestDatabaseManager.getDestTestConnection();
+            // Set up test connections; a prebuilt fixture skips recreating the tables
+            String fixture = System.getProperty(TEST_FIXTURE_PROPERTY);
+            if (fixture != null && !fixture.isEmpty()) {
+                logTextArea.appendText("Mounting test fixture " + fixture + "...\n");
+                TestFixtureStore fixtures = new TestFixtureStore();
+                sourceDbManager = fixtures.mountSource(fixture, TestFixtureStore.Mount.READ_ONLY);
+                destDbManager = fixtures.mountDest(fixture, TestFixtureStore.Mount.COPY);
+            } else {
+                logTextArea.appendText("Setting up test connections...\n");
+                sourceDbManager = TestDatabaseManager.getSourceTestConnection();
+                destDbManager = TestDatabaseManager.getDestTestConnection();
+            }
 
             // Update connection labels
             sourceDbLabel.setText("Source: Test Database Connection");
@@ -491,6 +520,7 @@ public class MainController {
             // Setup integration tabs with test connections
             setupTaskIntegrationTab();
             setupResourceIntegrationTab();
+            setupMonitoringTab();
 
             // Set test mode flag
             testModeEnabled = true;
@@ -547,43 +577,56 @@ public class MainController {
             return;
         }
 
-        try {
-            // Determine integration direction
-            boolean sourceToDestDirection = sourceToDestRadio.isSelected();
-            DatabaseConnectionManager srcManager = sourceToDestDirection ? sourceDbManager : destDbManager;
-            DatabaseConnectionManager dstManager = sourceToDestDirection ? destDbManager : sourceDbManager;
-
-            List<Project> sourceProjects = sourceToDestDirection ? selectedSourceProjects : selectedDestProjects;
-            List<Project> destProjects = sourceToDestDirection ? selectedDestProjects : selectedSourceProjects;
-
-            // Log the operation details
-            logTextArea.appendText("Direction: " +
-                    (sourceToDestDirection ? "Source → Destination" : "Destination → Source") + "\n");
-            logTextArea.appendText("Integrating " + sourceProjects.size() + " source projects to " +
-                    destProjects.size() + " destination projects\n");
-
-            // Adjust mappings for direction if needed
-            List<ColumnMapping> directedMappings = new ArrayList<>(mappings);
-            if (!sourceToDestDirection) {
-                // Swap source and destination for each mapping
-                directedMappings = new ArrayList<>();
-                for (ColumnMapping mapping : mappings) {
-                    directedMappings.add(new ColumnMapping(
-                            mapping.getDestinationTable(), mapping.getDestinationColumn(),
-                            mapping.getSourceTable(), mapping.getSourceColumn()
-                    ));
-                }
+        // Determine integration direction
+        boolean sourceToDestDirection = sourceToDestRadio.isSelected();
+        DatabaseConnectionManager srcManager = sourceToDestDirection ? sourceDbManager : destDbManager;
+        DatabaseConnectionManager dstManager = sourceToDestDirection ? destDbManager : sourceDbManager;
+
+        // Copies, since the selections may change while the integration runs
+        List<Project> sourceProjects = new ArrayList<>(sourceToDestDirection ? selectedSourceProjects : selectedDestProjects);
+        List<Project> destProjects = new ArrayList<>(sourceToDestDirection ? selectedDestProjects : selectedSourceProjects);
+
+        // Log the operation details
+        logTextArea.appendText("Direction: " +
+                (sourceToDestDirection ? "Source → Destination" : "Destination → Source") + "\n");
+        logTextArea.appendText("Integrating " + sourceProjects.size() + " source projects to " +
+                destProjects.size() + " destination projects\n");
+
+        // Adjust mappings for direction if needed
+        List<ColumnMapping> directedMappings = new ArrayList<>(mappings);
+        if (!sourceToDestDirection) {
+            // Swap source and destination for each mapping
+            directedMappings = new ArrayList<>();
+            for (ColumnMapping mapping : mappings) {
+                directedMappings.add(new ColumnMapping(
+                        mapping.getDestinationTable(), mapping.getDestinationColumn(),
+                        mapping.getSourceTable(), mapping.getSourceColumn()
+                ));
             }
+        }
+        List<ColumnMapping> integrationMappings = directedMappings;
+
+        // One source row is read per table pair for every project pairing
+        long tablePairs = integrationMappings.stream()
+                .map(m -> m.getSourceTable() + "->" + m.getDestinationTable())
+                .distinct()
+                .count();
+
+        IntegrationTask task = new IntegrationTask("Project integration", progress -> {
+            progress.setExpectedRows(tablePairs * sourceProjects.size() * destProjects.size());
 
             // Create integration service
             DataIntegrationService integrationService = new DataIntegrationService(srcManager, dstManager);
+            integrationService.setProgress(progress);
 
-            int totalRowsUpdated = 0;
+            // A destination project paired with several source projects is written
+            // once, with the values of the last pairing
+            CoalescingUpdateBuffer updates = new CoalescingUpdateBuffer();
 
             // Iterate through all project combinations
             for (Project sourceProject : sourceProjects) {
                 for (Project destProject : destProjects) {
-                    logTextArea.appendText("Integrating source project " + sourceProject.getName() +
+                    appendLog("Integrating source project " + sourceProject.getName() +
                             " (ID: " + sourceProject.getId() + ") to destination project " +
                             destProject.getName() + " (ID: " + destProject.getId() + ")\n");
 
@@ -591,27 +634,52 @@ public class MainController {
                     String sourceWhereClause = "id = " + sourceProject.getId();
                     String destWhereClause = "id = " + destProject.getId();
 
-                    // Perform the integration for this project pair
-                    int rowsUpdated = integrationService.integrateData(
-                            directedMappings, sourceWhereClause, destWhereClause);
-
-                    totalRowsUpdated += rowsUpdated;
+                    // Stage the update for this project pair
+                    int updatesStaged = integrationService.integrateData(
+                            integrationMappings, sourceWhereClause, destWhereClause, updates);
 
-                    logTextArea.appendText("  Updated " + rowsUpdated + " rows\n");
+                    appendLog("  Staged " + updatesStaged + " updates\n");
                 }
             }
 
-            logTextArea.appendText("Integration completed. Total rows updated: " + totalRowsUpdated + "\n");
+            int updatesStaged = updates.getUpdatesStaged();
+            int updatesCoalesced = updates.getUpdatesCoalesced();
+            integrationService.flushUpdates(updates);
+
+            if (updatesCoalesced > 0) {
+                appendLog("Coalesced " + updatesStaged + " staged updates into " +
+                        (updatesStaged - updatesCoalesced) + " destination writes\n");
+            }
+            return updates.getRowsUpdated();
+        }).bindTo(integrationProgressBar, integrationStatusLabel, cancelIntegrationButton);
+
+        task.setOnSucceeded(event -> {
+            logTextArea.appendText("Integration completed. Total rows updated: " + task.getValue() + "\n");
+            executeButton.setDisable(false);
 
             // Enable verify results button if in test mode
             if (testModeEnabled) {
                 verifyResultsButton.setDisable(false);
             }
+        });
+        task.setOnFailed(event -> {
+            if (task.wasCancelled()) {
+                logTextArea.appendText("Integration cancelled; " +
+                        task.getIntegrationProgress().rollbackSummary() + "\n");
+            } else {
+                showError("Integration Error", task.getException().getMessage());
+                logTextArea.appendText("Integration failed: " + task.getException().getMessage() + "\n");
+            }
+            executeButton.setDisable(false);
+        });
 
-        } catch (SQLException e) {
-            showError("Integration Error", e.getMessage());
-            logTextArea.appendText("Integration failed: " + e.getMessage() + "\n");
-        }
+        executeButton.setDisable(true);
+        task.start();
+    }
+
+    // Safe to call from the integration worker thread
+    private void appendLog(String message) {
+        Platform.runLater(() -> logTextArea.appendText(message));
     }
 
     private void verifyIntegrationResults() {
@@ -643,7 +711,8 @@ public class MainController {
         try {
             // Start the H2 console
             org.h2.tools.Console.main("-web", "-browser");
-            logTextArea.appendText("H2 Console opened. Use 'jdbc:h2:mem:sourcedb' or 'jdbc:h2:mem:destdb' as JDBC URL.\n");
+            logTextArea.appendText("H2 Console opened. Use '" + sourceDbManager.getConnectionUrl() + "' or '" +
+                    destDbManager.getConnectionUrl() + "' as JDBC URL.\n");
             logTextArea.appendText("Username: sa, Password: leave blank\n");
         } catch (Exception e) {
             showError("H2 Console Error", "Failed to open H2 Console: " + e.getMessage());
@@ -0,0 +1,207 @@
+package com.dbintegrator.controller;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.Timer;
+import com.dbintegrator.service.IntegrationProgress;
+import com.dbintegrator.service.RunRegistry;
+import com.dbintegrator.util.DatabaseConnectionManager;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.XYChart;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.util.Duration;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Monitoring tab. Samples the metrics registry and the run registry once a
+ * second on the JavaFX thread; nothing is pushed from the integration
+ * threads, so a fast run costs the UI no more than a slow one.
+ */
+public class MonitoringController {
+    private static final Duration SAMPLE_INTERVAL = Duration.seconds(1);
+    // Points kept on the rows/second chart
+    private static final int CHART_POINTS = 120;
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    @FXML private Label runningLabel;
+    @FXML private Label queuedLabel;
+    @FXML private Label failedRunsLabel;
+    @FXML private Label failedRowsLabel;
+    @FXML private Label sampledLabel;
+    @FXML private LineChart<Number, Number> rowsChart;
+    @FXML private TableView<RunRegistry.Run> runsTable;
+    @FXML private TableView<Timer.Snapshot> stagesTable;
+    @FXML private Label sourceLookupsLabel;
+    @FXML private ProgressBar sourceLookupsBar;
+    @FXML private Label destLookupsLabel;
+    @FXML private ProgressBar destLookupsBar;
+    @FXML private Label queuesLabel;
+
+    private final MetricsRegistry metrics = MetricsRegistry.global();
+    private final RunRegistry runs = RunRegistry.global();
+    private final LongAdder rowsRead = metrics.counter(MetricsRegistry.ROWS_READ);
+    private final LongAdder rowsWritten = metrics.counter(MetricsRegistry.ROWS_WRITTEN);
+    private final LongAdder rowsFailed = metrics.counter(MetricsRegistry.ROWS_FAILED);
+
+    private final XYChart.Series<Number, Number> readSeries = new XYChart.Series<>();
+    private final XYChart.Series<Number, Number> writtenSeries = new XYChart.Series<>();
+    private final long startNanos = System.nanoTime();
+    private long lastSampleNanos = startNanos;
+    private long lastRowsRead;
+    private long lastRowsWritten;
+
+    private DatabaseConnectionManager sourceDbManager;
+    private DatabaseConnectionManager destDbManager;
+    private Timeline sampler;
+
+    @FXML
+    public void initialize() {
+        readSeries.setName("Read");
+        writtenSeries.setName("Written");
+        rowsChart.getData().add(readSeries);
+        rowsChart.getData().add(writtenSeries);
+
+        setupRunsTable();
+        setupStagesTable();
+
+        lastRowsRead = rowsRead.sum();
+        lastRowsWritten = rowsWritten.sum();
+
+        sampler = new Timeline(new KeyFrame(SAMPLE_INTERVAL, event -> sample()));
+        sampler.setCycleCount(Timeline.INDEFINITE);
+        sampler.play();
+    }
+
+    public void setSourceDbManager(DatabaseConnectionManager sourceDbManager) {
+        this.sourceDbManager = sourceDbManager;
+    }
+
+    public void setDestDbManager(DatabaseConnectionManager destDbManager) {
+        this.destDbManager = destDbManager;
+    }
+
+    private void setupRunsTable() {
+        runsTable.getColumns().add(column("Job", RunRegistry.Run::getName));
+        runsTable.getColumns().add(column("Status", RunRegistry.Run::getStatus));
+        runsTable.getColumns().add(column("Read", run -> run.getProgress().getRowsRead()));
+        runsTable.getColumns().add(column("Written", run -> run.getProgress().getRowsWritten()));
+        runsTable.getColumns().add(column("Rows/s", run -> run.getStatus() == RunRegistry.Status.RUNNING
+                ? Math.round(run.getProgress().getRowsPerSecond()) : averageRate(run)));
+        runsTable.getColumns().add(column("Elapsed", run -> formatElapsed(run.getElapsedMillis())));
+        runsTable.getColumns().add(column("Error", run -> run.getError() != null ? run.getError() : ""));
+        runsTable.setPlaceholder(new Label("No integration has run yet"));
+    }
+
+    private void setupStagesTable() {
+        stagesTable.getColumns().add(column("Stage", Timer.Snapshot::getName));
+        stagesTable.getColumns().add(column("Count", Timer.Snapshot::getCount));
+        stagesTable.getColumns().add(column("Mean", snapshot -> millis(snapshot.getMeanNanos())));
+        stagesTable.getColumns().add(column("p50", snapshot -> millis(snapshot.getP50Nanos())));
+        stagesTable.getColumns().add(column("p99", snapshot -> millis(snapshot.getP99Nanos())));
+        stagesTable.getColumns().add(column("Max", snapshot -> millis(snapshot.getMaxNanos())));
+        stagesTable.setPlaceholder(new Label("Nothing timed yet"));
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+        long read = rowsRead.sum();
+        long written = rowsWritten.sum();
+        if (seconds > 0) {
+            double x = Math.round((now - startNanos) / 1_000_000_000.0);
+            addPoint(readSeries, x, (read - lastRowsRead) / seconds);
+            addPoint(writtenSeries, x, (written - lastRowsWritten) / seconds);
+        }
+        lastSampleNanos = now;
+        lastRowsRead = read;
+        lastRowsWritten = written;
+
+        // Runs are re-read as a whole; the lists are short
+        runsTable.getItems().setAll(runs.getRuns());
+        runningLabel.setText("Running: " + runs.getRunningCount());
+        queuedLabel.setText("Queued: " + runs.getQueuedCount());
+        failedRunsLabel.setText("Failed runs: " + runs.getFailedCount());
+        failedRowsLabel.setText("Failed rows: " + rowsFailed.sum());
+
+        List<Timer.Snapshot> stages = new ArrayList<>();
+        for (Timer.Snapshot snapshot : metrics.getTimers().values()) {
+            if (snapshot.getCount() > 0) {
+                stages.add(snapshot);
+            }
+        }
+        stagesTable.getItems().setAll(stages);
+
+        showLookups(sourceDbManager, "Source", sourceLookupsLabel, sourceLookupsBar);
+        showLookups(destDbManager, "Destination", destLookupsLabel, destLookupsBar);
+
+        StringBuilder queues = new StringBuilder("Integrations waiting: ").append(runs.getQueuedCount());
+        for (Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+            queues.append("\n").append(gauge.getKey()).append(": ").append(gauge.getValue());
+        }
+        queues.append("\n").append(MetricsRegistry.LOG_DROPPED).append(": ")
+                .append(metrics.counter(MetricsRegistry.LOG_DROPPED).sum());
+        queuesLabel.setText(queues.toString());
+
+        sampledLabel.setText("Updated " + LocalTime.now().format(TIME_FORMAT));
+    }
+
+    /**
+     * Shows how many of the connection permits JdbcTaskExecutor lookups hold.
+     * Other work opens its connections without a permit, so this is lookup
+     * concurrency rather than the number of open connections.
+     */
+    private static void showLookups(DatabaseConnectionManager dbManager, String role, Label label, ProgressBar bar) {
+        if (dbManager == null) {
+            label.setText(role + ": Not connected");
+            bar.setProgress(0);
+            return;
+        }
+        int max = dbManager.getMaxConnections();
+        int inUse = Math.max(0, max - dbManager.getConnectionPermits().availablePermits());
+        label.setText(dbManager.getConnectionInfo() + ": " + inUse + " / " + max);
+        bar.setProgress((double) inUse / max);
+    }
+
+    private static void addPoint(XYChart.Series<Number, Number> series, double x, double rowsPerSecond) {
+        series.getData().add(new XYChart.Data<>(x, Math.round(rowsPerSecond)));
+        if (series.getData().size() > CHART_POINTS) {
+            series.getData().remove(0);
+        }
+    }
+
+    private static long averageRate(RunRegistry.Run run) {
+        long millis = run.getElapsedMillis();
+        IntegrationProgress progress = run.getProgress();
+        return millis > 0 ? Math.round(progress.getRowsRead() * 1000.0 / millis) : 0;
+    }
+
+    private static String formatElapsed(long millis) {
+        long seconds = millis / 1000;
+        return seconds >= 60 ? (seconds / 60) + "m " + (seconds % 60) + "s" : String.format("%.1fs", millis / 1000.0);
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1e6);
+    }
+
+    private static <S, T> TableColumn<S, T> column(String title, Function<S, T> value) {
+        TableColumn<S, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        column.setSortable(false);
+        return column;
+    }
+}
@@ -1,18 +1,26 @@
 package com.dbintegrator.controller;
 
 import com.dbintegrator.model.ColumnMapping;
+import com.dbintegrator.model.IntegrationOptions;
+import com.dbintegrator.model.JobDefinition;
 import com.dbintegrator.model.Resource;
 import com.dbintegrator.model.TableColumn;
 import com.dbintegrator.service.DatabaseMetadataService;
-import com.dbintegrator.service.DataIntegrationService;
+import com.dbintegrator.service.JobRunner;
+import com.dbintegrator.ui.IntegrationTask;
 import com.dbintegrator.ui.ResourceSelectionDialog;
 import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.JdbcTaskExecutor;
+import com.dbintegrator.util.JobStore;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.TestDatabaseManager;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -20,6 +28,8 @@ import java.sql.SQLException;
 import java.util.*;
 
 public class ResourceIntegrationController {
+    private static final Log log = Log.get(ResourceIntegrationController.class);
+
     // FXML Components
     @FXML private Button selectSourceResourceButton;
     @FXML private Button selectDestResourceButton;
@@ -33,6 +43,9 @@ public class ResourceIntegrationController {
     @FXML private Button addResourceMappingButton;
     @FXML private Button removeResourceMappingButton;
     @FXML private Button executeResourceIntegrationButton;
+    @FXML private Label resourceStatusLabel;
+    @FXML private ProgressBar resourceProgressBar;
+    @FXML private Button cancelResourceIntegrationButton;
     @FXML private TextArea logTextArea;
     @FXML private TextArea sourceResourceDetailsArea;
     @FXML private TextArea destResourceDetailsArea;
@@ -52,12 +65,18 @@ public class ResourceIntegrationController {
     private static final String SOURCE_TABLE_NAME = "HR_ALL_PEOPLE"; // EBS resources as source
     private static final String DEST_TABLE_NAME = "RSRC"; // P6 resources as destination
 
+    // Mapping set, match keys and options are kept as a saved job
+    private static final String RESOURCE_JOB_NAME = "resource-sync";
+    private final JobStore jobStore = JobStore.userStore();
+    // Keeps compiled metadata between runs; reset when a connection changes
+    private JobRunner resourceJobRunner;
+
     // Flag to detect if we're in test mode
     private boolean isTestMode = false;
 
     @FXML
     public void initialize() {
-        System.out.println("ResourceIntegrationController - INITIALIZE METHOD CALLED");
+        log.info("ResourceIntegrationController - INITIALIZE METHOD CALLED");
 
         // Initialize UI components
         initializeUIComponents();
@@ -135,17 +154,18 @@ public class ResourceIntegrationController {
     }
 
     public void setSourceDbManager(DatabaseConnectionManager sourceDbManager) {
-        System.out.println("ResourceIntegrationController - setSourceDbManager CALLED");
+        log.info("ResourceIntegrationController - setSourceDbManager CALLED");
         this.sourceDbManager = sourceDbManager;
+        this.resourceJobRunner = null;
         if (sourceDbManager != null) {
             // Check if we're in test mode
             try {
                 Connection conn = sourceDbManager.getConnection();
                 String url = conn.getMetaData().getURL();
-                isTestMode = url.contains("mem:sourcedb") || url.contains("mem:destdb");
+                isTestMode = TestDatabaseManager.isTestDatabaseUrl(url);
                 conn.close();
             } catch (SQLException e) {
-                System.err.println("Error checking database: " + e.getMessage());
+                log.error("Error checking database", "error", e.getMessage());
             }
 
             this.sourceMetadataService = new DatabaseMetadataService(sourceDbManager);
@@ -161,8 +181,9 @@ public class ResourceIntegrationController {
     }
 
     public void setDestDbManager(DatabaseConnectionManager destDbManager) {
-        System.out.println("ResourceIntegrationController - setDestDbManager CALLED");
+        log.info("ResourceIntegrationController - setDestDbManager CALLED");
         this.destDbManager = destDbManager;
+        this.resourceJobRunner = null;
         if (destDbManager != null) {
             this.destMetadataService = new DatabaseMetadataService(destDbManager);
             loadTableColumns(false);
@@ -193,10 +214,10 @@ public class ResourceIntegrationController {
             // In test mode, HR_ALL_PEOPLE is in destDbManager and RSRC is in sourceDbManager
             if (tableName.equals("HR_ALL_PEOPLE") && destDbManager != null) {
                 effectiveDbManager = destDbManager;
-                System.out.println("Using destination DB manager for HR_ALL_PEOPLE table");
+                log.info("Using destination DB manager for HR_ALL_PEOPLE table");
             } else if (tableName.equals("RSRC") && sourceDbManager != null) {
                 effectiveDbManager = sourceDbManager;
-                System.out.println("Using source DB manager for RSRC table");
+                log.info("Using source DB manager for RSRC table");
             }
         }
 
@@ -224,8 +245,11 @@ public class ResourceIntegrationController {
                     // Handle multiple selections for EBS resources
                     selectedSourceResources.clear();
 
-                    for (Integer resourceId : result.get()) {
-                        Resource resource = getResourceById(effectiveDbManager, tableName, resourceId);
+                    // Look the resources up concurrently, within the connection limit
+                    DatabaseConnectionManager lookupDbManager = effectiveDbManager;
+                    List<Resource> resources = JdbcTaskExecutor.mapConcurrently(lookupDbManager, result.get(),
+                            resourceId -> getResourceById(lookupDbManager, tableName, resourceId));
+                    for (Resource resource : resources) {
                         if (resource != null) {
                             selectedSourceResources.add(resource);
                         }
@@ -259,15 +283,14 @@ public class ResourceIntegrationController {
                 checkExecuteButtonStatus();
 
             } catch (SQLException e) {
-                System.err.println("SQL Error retrieving resource: " + e.getMessage());
-                e.printStackTrace();
+                log.error("SQL Error retrieving resource", e);
                 showError("Database Error", "Failed to retrieve resource details: " + e.getMessage());
             }
         }
     }
 
     private Resource getResourceById(DatabaseConnectionManager dbManager, String tableName, int resourceId) throws SQLException {
-        System.out.println("Getting resource by ID: " + resourceId + " from table: " + tableName);
+        log.info("Getting resource by ID", "table", tableName, "id", resourceId);
 
         String query;
         String idColumn;
@@ -303,22 +326,22 @@ public class ResourceIntegrationController {
             }
 
             if (!columnNames.contains(idColumn.toUpperCase())) {
-                System.err.println("ID column '" + idColumn + "' not found in table " + tableName);
+                log.error("ID column not found", "table", tableName, "column", idColumn);
                 columnsExist = false;
             }
             if (!columnNames.contains(nameColumn.toUpperCase())) {
-                System.err.println("Name column '" + nameColumn + "' not found in table " + tableName);
+                log.error("Name column not found", "table", tableName, "column", nameColumn);
                 columnsExist = false;
             }
             if (!columnNames.contains(emailColumn.toUpperCase())) {
-                System.err.println("Email column '" + emailColumn + "' not found in table " + tableName);
+                log.error("Email column not found", "table", tableName, "column", emailColumn);
                 columnsExist = false;
             }
         }
 
         // If columns don't exist, try a more generic approach
         if (!columnsExist) {
-            System.out.println("Attempting generic query approach for " + tableName);
+            log.info("Attempting generic query approach", "table", tableName);
             try (Connection conn = dbManager.getConnection();
                  java.sql.Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery("SELECT * FROM " + tableName + " WHERE " + idColumn + " = " + resourceId)) {
@@ -348,7 +371,7 @@ public class ResourceIntegrationController {
                         String name = rs.getString(nameColIndex);
                         String email = emailColIndex != -1 ? rs.getString(emailColIndex) : "";
 
-                        System.out.println("Found resource: " + name + " (ID: " + id + ") with email: " + email);
+                        log.debug("Found resource", "id", id, "name", name, "email", email);
                         return new Resource(id, name, email);
                     }
                 }
@@ -360,7 +383,7 @@ public class ResourceIntegrationController {
         query = "SELECT " + idColumn + ", " + nameColumn + ", " + emailColumn +
                 " FROM " + tableName + " WHERE " + idColumn + " = ?";
 
-        System.out.println("Executing query: " + query.replace("?", String.valueOf(resourceId)));
+        log.debug("Executing query", "sql", query, "id", resourceId);
 
         try (Connection conn = dbManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(query)) {
@@ -374,10 +397,10 @@ public class ResourceIntegrationController {
                             rs.getString(nameColumn),
                             rs.getString(emailColumn)
                     );
-                    System.out.println("Retrieved resource: " + resource.getName() + " (ID: " + resource.getId() + ")");
+                    log.info("Retrieved resource", "id", resource.getId(), "name", resource.getName());
                     return resource;
                 } else {
-                    System.out.println("No resource found with ID: " + resourceId);
+                    log.info("No resource found", "table", tableName, "id", resourceId);
                 }
             }
         }
@@ -450,8 +473,8 @@ public class ResourceIntegrationController {
 
             // Add null check here
             if (dbManager == null) {
-                System.err.println("Cannot load columns - database manager is null for " +
-                        (isSource ? "source" : "destination") + " table: " + tableName);
+                log.error("Cannot load columns - database manager is null",
+                        "side", isSource ? "source" : "destination", "table", tableName);
                 return;
             }
 
@@ -459,7 +482,7 @@ public class ResourceIntegrationController {
             ListView<TableColumn> listView = isSource ? sourceColumnsListView : destColumnsListView;
 
             if (metadataService == null || listView == null) {
-                System.err.println("Cannot load columns - metadata service or list view is null");
+                log.error("Cannot load columns - metadata service or list view is null");
                 return;
             }
 
@@ -474,21 +497,28 @@ public class ResourceIntegrationController {
                 }
             });
         } catch (SQLException e) {
-            System.err.println("Error loading table columns for " + (isSource ? "source" : "destination") +
-                    " table: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading table columns", "side", isSource ? "source" : "destination", e);
         }
     }
 
-    // Automatic mapping creation between HR_ALL_PEOPLE and RSRC tables
+    // Use the saved resource job's mappings, creating and saving them on first use
     private void autoCreateResourceMappings() {
         if (sourceColumnsListView.getItems().isEmpty() || destColumnsListView.getItems().isEmpty()) {
             logTextArea.appendText("Cannot create mappings: column lists not loaded\n");
             return;
         }
 
-        // Clear existing mappings
-        resourceMappings.clear();
+        // Both column lists finishing loading call this; keep what is already built
+        if (!resourceMappings.isEmpty()) {
+            return;
+        }
+
+        if (loadSavedResourceMappings()) {
+            resourceMappingsListView.setItems(resourceMappings);
+            removeResourceMappingButton.setDisable(false);
+            checkExecuteButtonStatus();
+            return;
+        }
 
         // Create a mapping for known equivalent fields
         Map<String, String> knownMappings = new HashMap<>();
@@ -538,6 +568,81 @@ public class ResourceIntegrationController {
         }
     }
 
+    /**
+     * @return true if the saved resource job supplied at least one mapping
+     */
+    private boolean loadSavedResourceMappings() {
+        JobDefinition savedJob;
+        try {
+            savedJob = jobStore.load(RESOURCE_JOB_NAME);
+        } catch (IOException | IllegalArgumentException e) {
+            logTextArea.appendText("Ignoring saved resource mappings: " + e.getMessage() + "\n");
+            return false;
+        }
+        if (savedJob == null) {
+            return false;
+        }
+
+        // Saved mappings only hold names; take the column details from the loaded lists
+        for (ColumnMapping saved : savedJob.getMappings()) {
+            TableColumn sourceColumn = findColumn(sourceColumnsListView.getItems(), saved.getSourceColumn().getName());
+            TableColumn destColumn = findColumn(destColumnsListView.getItems(), saved.getDestinationColumn().getName());
+            if (sourceColumn != null && destColumn != null) {
+                resourceMappings.add(new ColumnMapping(SOURCE_TABLE_NAME, sourceColumn, DEST_TABLE_NAME, destColumn));
+            } else {
+                logTextArea.appendText("Saved mapping " + saved + " no longer matches the tables, dropped\n");
+            }
+        }
+
+        if (!resourceMappings.isEmpty()) {
+            logTextArea.appendText("Loaded " + resourceMappings.size() + " saved mappings from " +
+                    jobStore.getDirectory() + "\n");
+        }
+        return !resourceMappings.isEmpty();
+    }
+
+    private static TableColumn findColumn(List<TableColumn> columns, String name) {
+        for (TableColumn column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The resource integration as a job; the source filter is set per run
+     */
+    private JobDefinition buildResourceJob() {
+        JobDefinition job = new JobDefinition();
+        job.setName(RESOURCE_JOB_NAME);
+        job.setType(JobDefinition.JobType.MERGE);
+        job.setMappings(new ArrayList<>(resourceMappings));
+
+        // Use email as the match column between EBS and P6
+        job.setSourceMatchColumn("EMAIL_ADDRESS");
+        job.setDestMatchColumn("EMAIL");
+
+        // People sharing an email address would otherwise hit the same RSRC row
+        // several times; only the last one extracted is written
+        IntegrationOptions options = IntegrationOptions.defaults();
+        options.setDedupPolicy(IntegrationOptions.DedupPolicy.LAST);
+        job.setOptions(options);
+        return job;
+    }
+
+    /**
+     * Remember the mappings of a run for the next session; edits that are
+     * never executed are not saved
+     */
+    private void saveResourceJob(JobDefinition job) {
+        try {
+            jobStore.save(job);
+        } catch (IOException e) {
+            log.error("Error saving resource mappings", "directory", jobStore.getDirectory(), e);
+        }
+    }
+
     private void checkMappingAvailability() {
         boolean canMap = !sourceColumnsListView.getItems().isEmpty() &&
                 !destColumnsListView.getItems().isEmpty();
@@ -629,78 +734,104 @@ public class ResourceIntegrationController {
             return;
         }
 
-        try {
-            // For test mode, make sure to use the right DB connections
-            DatabaseConnectionManager ebsDbManager;
-            DatabaseConnectionManager p6DbManager;
+        // For test mode, make sure to use the right DB connections
+        DatabaseConnectionManager ebsDbManager;
+        DatabaseConnectionManager p6DbManager;
 
-            if (isTestMode) {
-                ebsDbManager = destDbManager; // HR_ALL_PEOPLE is in destdb in test mode
-                p6DbManager = sourceDbManager; // RSRC is in sourcedb in test mode
-            } else {
-                ebsDbManager = sourceDbManager; // Normal mode: EBS is the source
-                p6DbManager = destDbManager;    // Normal mode: P6 is the destination
-            }
-
-            // Make sure we have valid database connections
-            if (ebsDbManager == null || p6DbManager == null) {
-                showError("Database Error", "Missing database connection for integration.");
-                return;
-            }
+        if (isTestMode) {
+            ebsDbManager = destDbManager; // HR_ALL_PEOPLE is in destdb in test mode
+            p6DbManager = sourceDbManager; // RSRC is in sourcedb in test mode
+        } else {
+            ebsDbManager = sourceDbManager; // Normal mode: EBS is the source
+            p6DbManager = destDbManager;    // Normal mode: P6 is the destination
+        }
 
-            // Create integration service
-            DataIntegrationService integrationService = new DataIntegrationService(ebsDbManager, p6DbManager);
+        // Make sure we have valid database connections
+        if (ebsDbManager == null || p6DbManager == null) {
+            showError("Database Error", "Missing database connection for integration.");
+            return;
+        }
 
-            int totalRowsMerged = 0;
+        // Log each selected source resource
+        List<Integer> resourceIds = new ArrayList<>();
+        for (Resource sourceResource : selectedSourceResources) {
+            if (logTextArea != null) {
+                logTextArea.appendText("Processing EBS resource: " +
+                        sourceResource.getName() + " (ID: " + sourceResource.getId() + ")\n");
+            }
+            resourceIds.add(sourceResource.getId());
+        }
 
-            // Process each selected source resource
-            for (Resource sourceResource : selectedSourceResources) {
-                // Log current integration
-                if (logTextArea != null) {
-                    logTextArea.appendText("Processing EBS resource: " +
-                            sourceResource.getName() + " (ID: " + sourceResource.getId() + ")\n");
-                }
+        // One merge for all selected resources, so that seeding an empty RSRC
+        // table goes through the initial load path instead of row-by-row merges
+        JobDefinition job = buildResourceJob();
+        saveResourceJob(job);
+        job.setSourceWhereClause(buildIdFilter("PERSON_ID", resourceIds));
 
-                // Create source WHERE clause for this resource
-                String sourceWhereClause = "PERSON_ID = " + sourceResource.getId();
+        if (resourceJobRunner == null) {
+            resourceJobRunner = new JobRunner(ebsDbManager, p6DbManager);
+        }
+        JobRunner runner = resourceJobRunner;
 
-                // Use email as the match column between EBS and P6
-                String sourceMatchColumn = "EMAIL_ADDRESS";
-                String destMatchColumn = "EMAIL";
+        IntegrationTask task = new IntegrationTask("Resource integration", progress -> {
+            progress.setExpectedRows(resourceIds.size());
 
-                // Perform integration using the merge method
-                int rowsMerged = integrationService.mergeData(
-                        resourceMappings,
-                        sourceWhereClause,
-                        destMatchColumn,
-                        sourceMatchColumn
-                );
-
-                totalRowsMerged += rowsMerged;
-            }
+            // Column metadata is read on the first run only; later runs reuse it
+            return runner.run(job, progress);
+        }).bindTo(resourceProgressBar, resourceStatusLabel, cancelResourceIntegrationButton);
 
+        task.setOnSucceeded(event -> {
             if (logTextArea != null) {
                 logTextArea.appendText("Resource integration completed for " +
-                        selectedSourceResources.size() + " resources. " +
-                        "Total rows merged (created or updated): " + totalRowsMerged + "\n");
+                        resourceIds.size() + " resources. " +
+                        "Total rows merged (created or updated): " + task.getValue() + "\n");
+            }
+            checkExecuteButtonStatus();
+        });
+        task.setOnFailed(event -> {
+            if (task.wasCancelled()) {
+                if (logTextArea != null) {
+                    logTextArea.appendText("Resource integration cancelled; " +
+                            task.getIntegrationProgress().rollbackSummary() + "\n");
+                }
+            } else {
+                showError("Integration Error", task.getException().getMessage());
+                if (logTextArea != null) {
+                    logTextArea.appendText("Integration failed: " + task.getException().getMessage() + "\n");
+                }
             }
+            checkExecuteButtonStatus();
+        });
 
-        } catch (SQLException e) {
-            showError("Integration Error", e.getMessage());
-            if (logTextArea != null) {
-                logTextArea.appendText("Integration failed: " + e.getMessage() + "\n");
+        executeResourceIntegrationButton.setDisable(true);
+        task.start();
+    }
+
+    // Oracle allows at most 1000 expressions per IN list, so longer lists are OR-ed together
+    private static String buildIdFilter(String idColumn, List<Integer> ids) {
+        StringBuilder filter = new StringBuilder();
+        for (int start = 0; start < ids.size(); start += 1000) {
+            if (start > 0) {
+                filter.append(" OR ");
+            }
+            filter.append(idColumn).append(" IN (");
+            List<Integer> chunk = ids.subList(start, Math.min(start + 1000, ids.size()));
+            for (int i = 0; i < chunk.size(); i++) {
+                filter.append(i == 0 ? "" : ", ").append(chunk.get(i));
             }
+            filter.append(")");
         }
+        return filter.toString();
     }
 
     public void forceResourceLoading() {
-        System.out.println("RESOURCE INTEGRATION: Forcing resource loading");
+        log.info("RESOURCE INTEGRATION: Forcing resource loading");
         if (sourceDbManager != null) {
-            System.out.println("RESOURCE INTEGRATION: Loading source columns for '" + SOURCE_TABLE_NAME + "' table");
+            log.info("RESOURCE INTEGRATION: Loading source columns", "table", SOURCE_TABLE_NAME);
             loadTableColumns(true);
         }
         if (destDbManager != null) {
-            System.out.println("RESOURCE INTEGRATION: Loading destination columns for '" + DEST_TABLE_NAME + "' table");
+            log.info("RESOURCE INTEGRATION: Loading destination columns", "table", DEST_TABLE_NAME);
             loadTableColumns(false);
         }
     }
@@ -0,0 +1,140 @@
+package com.dbintegrator.controller;
+
+import com.dbintegrator.model.RunHistoryEntry;
+import com.dbintegrator.util.Log;
+import com.dbintegrator.util.RunHistoryStore;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
+import javafx.scene.control.TableView;
+
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Run History tab: the recorded runs of one job with their throughput
+ * against the trailing median. Runs flagged as regressions are highlighted
+ * together with the stage that grew.
+ */
+public class RunHistoryController {
+    private static final Log log = Log.get(RunHistoryController.class);
+
+    // Runs shown per job
+    private static final int HISTORY_LIMIT = 200;
+    private static final String REGRESSION_STYLE = "-fx-background-color: #FFCCCC;";
+
+    @FXML private ComboBox<String> jobComboBox;
+    @FXML private Button refreshHistoryButton;
+    @FXML private Label historySummaryLabel;
+    @FXML private TableView<RunHistoryEntry> historyTable;
+
+    private final RunHistoryStore historyStore = new RunHistoryStore();
+
+    @FXML
+    public void initialize() {
+        setupTable();
+        jobComboBox.setOnAction(event -> loadHistory());
+        refreshHistoryButton.setOnAction(event -> refresh());
+        refresh();
+    }
+
+    private void setupTable() {
+        historyTable.getColumns().add(column("Started", run -> formatTime(run.getStartedMillis())));
+        historyTable.getColumns().add(column("Status", RunHistoryEntry::getStatus));
+        historyTable.getColumns().add(column("Read", RunHistoryEntry::getRowsRead));
+        historyTable.getColumns().add(column("Written", RunHistoryEntry::getRowsWritten));
+        historyTable.getColumns().add(column("Skipped", RunHistoryEntry::getRowsSkipped));
+        historyTable.getColumns().add(column("Failed", RunHistoryEntry::getRowsFailed));
+        historyTable.getColumns().add(column("Elapsed ms", RunHistoryEntry::getElapsedMillis));
+        historyTable.getColumns().add(column("Rows/s", run -> Math.round(run.getRowsPerSecond())));
+        historyTable.getColumns().add(column("Median rows/s", run -> run.getTrailingMedianRowsPerSecond() < 0
+                ? "" : String.valueOf(Math.round(run.getTrailingMedianRowsPerSecond()))));
+        for (String stage : RunHistoryStore.getStages()) {
+            historyTable.getColumns().add(column(stage + " ms", run -> run.getStageMillis(stage)));
+        }
+        historyTable.getColumns().add(column("Regression", RunHistoryController::describeRegression));
+        historyTable.getColumns().add(column("Error", run -> run.getError() != null ? run.getError() : ""));
+
+        historyTable.setRowFactory(table -> new TableRow<>() {
+            @Override
+            protected void updateItem(RunHistoryEntry run, boolean empty) {
+                super.updateItem(run, empty);
+                setStyle(!empty && run != null && run.isRegression() ? REGRESSION_STYLE : "");
+            }
+        });
+        historyTable.setPlaceholder(new Label("No runs recorded"));
+    }
+
+    private void refresh() {
+        String selected = jobComboBox.getValue();
+        try {
+            List<String> jobs = historyStore.listJobs();
+            jobComboBox.getItems().setAll(jobs);
+            if (selected != null && jobs.contains(selected)) {
+                jobComboBox.setValue(selected);
+            } else if (!jobs.isEmpty()) {
+                jobComboBox.setValue(jobs.get(0));
+            }
+        } catch (SQLException e) {
+            log.error("Error reading run history", "error", e.getMessage());
+            historySummaryLabel.setText("Run history unavailable: " + e.getMessage());
+            return;
+        }
+        loadHistory();
+    }
+
+    private void loadHistory() {
+        String job = jobComboBox.getValue();
+        if (job == null) {
+            historyTable.getItems().clear();
+            historySummaryLabel.setText("");
+            return;
+        }
+
+        try {
+            List<RunHistoryEntry> runs = historyStore.load(job, HISTORY_LIMIT);
+            historyTable.getItems().setAll(runs);
+
+            RunHistoryEntry firstRegression = null;
+            int regressions = 0;
+            for (RunHistoryEntry run : runs) {
+                if (run.isRegression()) {
+                    regressions++;
+                    if (firstRegression == null) {
+                        firstRegression = run;
+                    }
+                }
+            }
+            historySummaryLabel.setText(runs.size() + " runs, " + regressions + " below the trailing median" +
+                    (firstRegression != null ? "; first on " + formatTime(firstRegression.getStartedMillis()) : ""));
+        } catch (SQLException e) {
+            log.error("Error reading run history", "job", job, "error", e.getMessage());
+            historySummaryLabel.setText("Run history unavailable: " + e.getMessage());
+        }
+    }
+
+    private static String describeRegression(RunHistoryEntry run) {
+        if (!run.isRegression()) {
+            return "";
+        }
+        String slower = String.format("%.1fx slower", run.getTrailingMedianRowsPerSecond() / run.getRowsPerSecond());
+        return run.getGrownStage() != null ? slower + ", " + run.getGrownStage() + " grew" : slower;
+    }
+
+    private static String formatTime(long millis) {
+        return new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(millis));
+    }
+
+    private static <S, T> TableColumn<S, T> column(String title, Function<S, T> value) {
+        TableColumn<S, T> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(value.apply(cell.getValue())));
+        return column;
+    }
+}
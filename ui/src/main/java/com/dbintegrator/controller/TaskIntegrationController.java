@@ -5,9 +5,11 @@ import com.dbintegrator.model.Project;
 import com.dbintegrator.model.TableColumn;
 import com.dbintegrator.service.DatabaseMetadataService;
 import com.dbintegrator.service.DataIntegrationService;
+import com.dbintegrator.ui.IntegrationTask;
 import com.dbintegrator.ui.MultiProjectSelectionDialog;
 import com.dbintegrator.ui.ProjectSelectionDialog;
 import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.Log;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -23,6 +25,8 @@ import java.util.List;
 import java.util.Optional;
 
 public class TaskIntegrationController {
+    private static final Log log = Log.get(TaskIntegrationController.class);
+
 
     @FXML private Button selectSourceProjectButton;
     @FXML private Button selectDestProjectButton;
@@ -36,6 +40,9 @@ public class TaskIntegrationController {
     @FXML private Button addTaskMappingButton;
     @FXML private Button removeTaskMappingButton;
     @FXML private Button executeTaskIntegrationButton;
+    @FXML private Label taskStatusLabel;
+    @FXML private ProgressBar taskProgressBar;
+    @FXML private Button cancelTaskIntegrationButton;
     @FXML private TextArea logTextArea;
 
     private DatabaseConnectionManager sourceDbManager;
@@ -49,7 +56,7 @@ public class TaskIntegrationController {
 
     @FXML
     public void initialize() {
-        System.out.println("TaskIntegrationController - INITIALIZE METHOD CALLED");
+        log.info("TaskIntegrationController - INITIALIZE METHOD CALLED");
 
         // Initialize UI components
         initializeUIComponents();
@@ -61,19 +68,19 @@ public class TaskIntegrationController {
         if (sourceColumnsListView != null) {
             sourceColumnsListView.setItems(FXCollections.observableArrayList());
         } else {
-            System.err.println("sourceColumnsListView is NULL");
+            log.error("sourceColumnsListView is NULL");
         }
 
         if (destColumnsListView != null) {
             destColumnsListView.setItems(FXCollections.observableArrayList());
         } else {
-            System.err.println("destColumnsListView is NULL");
+            log.error("destColumnsListView is NULL");
         }
 
         if (taskMappingsListView != null) {
             taskMappingsListView.setItems(taskMappings);
         } else {
-            System.err.println("taskMappingsListView is NULL");
+            log.error("taskMappingsListView is NULL");
         }
 
         // Initialize labels
@@ -131,7 +138,7 @@ public class TaskIntegrationController {
     }
 
     public void setSourceDbManager(DatabaseConnectionManager sourceDbManager) {
-        System.out.println("setSourceDbManager CALLED");
+        log.info("setSourceDbManager CALLED");
         this.sourceDbManager = sourceDbManager;
         if (sourceDbManager != null) {
             this.sourceMetadataService = new DatabaseMetadataService(sourceDbManager);
@@ -145,7 +152,7 @@ public class TaskIntegrationController {
     }
 
     public void setDestDbManager(DatabaseConnectionManager destDbManager) {
-        System.out.println("setDestDbManager CALLED");
+        log.info("setDestDbManager CALLED");
         this.destDbManager = destDbManager;
         if (destDbManager != null) {
             this.destMetadataService = new DatabaseMetadataService(destDbManager);
@@ -240,7 +247,7 @@ public class TaskIntegrationController {
 
     private void loadTaskTables(boolean isSource) {
         if ((isSource && sourceDbManager == null) || (!isSource && destDbManager == null)) {
-            System.err.println("Cannot load task tables - database manager is null");
+            log.error("Cannot load task tables - database manager is null");
             return;
         }
 
@@ -249,7 +256,7 @@ public class TaskIntegrationController {
             ComboBox<String> comboBox = isSource ? sourceTaskTableComboBox : destTaskTableComboBox;
 
             if (metadataService == null || comboBox == null) {
-                System.err.println("Cannot load task tables - service or combobox is null");
+                log.error("Cannot load task tables - service or combobox is null");
                 return;
             }
 
@@ -264,7 +271,7 @@ public class TaskIntegrationController {
                 }
             }
 
-            System.out.println((isSource ? "Source" : "Destination") + " Task Tables: " + taskTables.size());
+            log.info("Loaded task tables", "side", isSource ? "source" : "destination", "tables", taskTables.size());
 
             Platform.runLater(() -> {
                 comboBox.getItems().clear();
@@ -275,8 +282,7 @@ public class TaskIntegrationController {
                 }
             });
         } catch (SQLException e) {
-            System.err.println("Error loading task tables: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading task tables", "side", isSource ? "source" : "destination", e);
         }
     }
 
@@ -286,22 +292,21 @@ public class TaskIntegrationController {
             ListView<TableColumn> listView = isSource ? sourceColumnsListView : destColumnsListView;
 
             if (metadataService == null || listView == null) {
-                System.err.println("Cannot load columns - metadata service or list view is null");
+                log.error("Cannot load columns - metadata service or list view is null");
                 return;
             }
 
             List<TableColumn> columns = metadataService.getTableColumns(tableName);
 
-            System.out.println("Loaded " + columns.size() + " columns for " +
-                    (isSource ? "source" : "destination") + " table " + tableName);
+            log.info("Loaded table columns", "side", isSource ? "source" : "destination",
+                    "table", tableName, "columns", columns.size());
 
             Platform.runLater(() -> {
                 listView.setItems(FXCollections.observableArrayList(columns));
                 checkMappingAvailability();
             });
         } catch (SQLException e) {
-            System.err.println("Error loading table columns: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error loading table columns", "table", tableName, e);
         }
     }
 
@@ -409,29 +414,46 @@ public class TaskIntegrationController {
             return;
         }
 
-        try {
-            // Create WHERE clauses for source and destination projects
-            String sourceWhereClause = "project_id = " + selectedSourceProject.getId();
-            String destWhereClause = "project_id = " + selectedDestProject.getId();
+        // Create WHERE clauses for source and destination projects
+        String sourceWhereClause = "project_id = " + selectedSourceProject.getId();
+        String destWhereClause = "project_id = " + selectedDestProject.getId();
+        Project destProject = selectedDestProject;
+        List<ColumnMapping> mappings = new ArrayList<>(taskMappings);
 
+        IntegrationTask task = new IntegrationTask("Task integration", progress -> {
             // Create integration service
             DataIntegrationService integrationService = new DataIntegrationService(sourceDbManager, destDbManager);
+            integrationService.setProgress(progress);
 
             // Perform integration
-            int rowsUpdated = integrationService.integrateData(taskMappings, sourceWhereClause, destWhereClause);
+            return integrationService.integrateData(mappings, sourceWhereClause, destWhereClause);
+        }).bindTo(taskProgressBar, taskStatusLabel, cancelTaskIntegrationButton);
 
+        task.setOnSucceeded(event -> {
             if (logTextArea != null) {
                 logTextArea.appendText("Task integration completed successfully.\n");
-                logTextArea.appendText("Updated " + rowsUpdated + " rows for project " +
-                        selectedDestProject.getName() + " (ID: " + selectedDestProject.getId() + ")\n");
+                logTextArea.appendText("Updated " + task.getValue() + " rows for project " +
+                        destProject.getName() + " (ID: " + destProject.getId() + ")\n");
             }
-
-        } catch (SQLException e) {
-            showError("Integration Error", e.getMessage());
-            if (logTextArea != null) {
-                logTextArea.appendText("Integration failed: " + e.getMessage() + "\n");
+            checkExecuteButtonStatus();
+        });
+        task.setOnFailed(event -> {
+            if (task.wasCancelled()) {
+                if (logTextArea != null) {
+                    logTextArea.appendText("Task integration cancelled; " +
+                            task.getIntegrationProgress().rollbackSummary() + "\n");
+                }
+            } else {
+                showError("Integration Error", task.getException().getMessage());
+                if (logTextArea != null) {
+                    logTextArea.appendText("Integration failed: " + task.getException().getMessage() + "\n");
+                }
             }
-        }
+            checkExecuteButtonStatus();
+        });
+
+        executeTaskIntegrationButton.setDisable(true);
+        task.start();
     }
 
     public void forceProjectLoading() {
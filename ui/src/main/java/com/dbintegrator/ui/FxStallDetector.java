@@ -0,0 +1,166 @@
+package com.dbintegrator.ui;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.Timer;
+import com.dbintegrator.util.Log;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watchdog for the JavaFX application thread. A daemon thread posts a probe
+ * with Platform.runLater every PROBE_INTERVAL and times how long it waits to
+ * run; while a probe is overdue by more than the threshold the FX thread is
+ * stalled, and its stack is captured and logged, naming the code that
+ * blocks it and the handler it was called from:
+ * <pre>
+ * WARN  [fx-stall-detector] FxStallDetector - JavaFX thread blocked millis=312
+ *     at=com.dbintegrator.service.DatabaseMetadataService.getColumns(DatabaseMetadataService.java:88)
+ *     in=com.dbintegrator.controller.MainController.lambda$initialize$2(MainController.java:131) stack=...
+ * WARN  [fx-stall-detector] FxStallDetector - JavaFX thread unblocked millis=1840 at=... in=...
+ * </pre>
+ * Stall durations are measured from when the overdue probe was posted, so
+ * are short by up to one probe interval. Probe latencies (FX_RUN_LATER),
+ * the CSS and layout part of each scene pulse (FX_PULSE) and stalls
+ * (FX_STALL) go to MetricsRegistry and so show on the Monitoring tab.
+ * <p>
+ * The threshold is 250 ms unless set with the system property
+ * {@code dbintegrator.fx.stall.ms}; 0 turns the detector off.
+ */
+public final class FxStallDetector {
+    private static final Log log = Log.get(FxStallDetector.class);
+
+    public static final String THRESHOLD_PROPERTY = "dbintegrator.fx.stall.ms";
+
+    private static final long DEFAULT_THRESHOLD_MILLIS = 250;
+    private static final long PROBE_INTERVAL_MILLIS = 50;
+    // Frames logged per stall, from the top
+    private static final int STACK_DEPTH = 30;
+    private static final String APPLICATION_PACKAGE = "com.dbintegrator.";
+
+    private static final Timer RUN_LATER = MetricsRegistry.global().timer(MetricsRegistry.FX_RUN_LATER);
+    private static final Timer PULSE = MetricsRegistry.global().timer(MetricsRegistry.FX_PULSE);
+    private static final Timer STALL = MetricsRegistry.global().timer(MetricsRegistry.FX_STALL);
+
+    private final long thresholdNanos;
+    private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fx-stall-detector");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Set by the first probe to run
+    private volatile Thread fxThread;
+    // When the outstanding probe was posted; 0 once it has run
+    private final AtomicLong probePostedNanos = new AtomicLong();
+    private volatile long probeRanNanos;
+    // Watchdog thread only: the stall being reported, if any
+    private long stallPostedNanos;
+    private StackTraceElement[] stallStack;
+
+    // Set on the FX thread between the pre- and post-layout pulse listeners
+    private long pulseStartNanos;
+
+    private FxStallDetector(long thresholdNanos) {
+        this.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * Start watching the FX thread and the pulses of a scene
+     * @param scene Main scene; call on the FX thread
+     * @return Running detector, or null if THRESHOLD_PROPERTY turned it off
+     */
+    public static FxStallDetector start(Scene scene) {
+        long thresholdMillis = Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS);
+        if (thresholdMillis <= 0) {
+            log.info("JavaFX stall detector disabled", "property", THRESHOLD_PROPERTY);
+            return null;
+        }
+
+        FxStallDetector detector = new FxStallDetector(TimeUnit.MILLISECONDS.toNanos(thresholdMillis));
+        scene.addPreLayoutPulseListener(() -> detector.pulseStartNanos = PULSE.start());
+        scene.addPostLayoutPulseListener(() -> PULSE.stop(detector.pulseStartNanos));
+        detector.watchdog.scheduleWithFixedDelay(detector::check,
+                PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("JavaFX stall detector started", "thresholdMs", thresholdMillis);
+        return detector;
+    }
+
+    public void stop() {
+        watchdog.shutdownNow();
+    }
+
+    // Watchdog thread: post the next probe, or check on the one outstanding
+    private void check() {
+        try {
+            long now = System.nanoTime();
+            long posted = probePostedNanos.get();
+            if (posted == 0) {
+                if (stallStack != null) {
+                    unblocked(probeRanNanos - stallPostedNanos);
+                }
+                probePostedNanos.set(now);
+                Platform.runLater(() -> probe(now));
+            } else if (stallStack == null && now - posted >= thresholdNanos && fxThread != null) {
+                stallPostedNanos = posted;
+                stallStack = fxThread.getStackTrace();
+                log.warn("JavaFX thread blocked", "millis", (now - posted) / 1_000_000,
+                        "at", blockingFrame(stallStack), "in", handlerFrame(stallStack), "stack", format(stallStack));
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule; keep watching
+            log.warn("JavaFX stall check failed", "error", e.getMessage());
+        }
+    }
+
+    // FX thread
+    private void probe(long postedNanos) {
+        fxThread = Thread.currentThread();
+        long ran = System.nanoTime();
+        RUN_LATER.record(ran - postedNanos);
+        probeRanNanos = ran;
+        probePostedNanos.set(0);
+    }
+
+    private void unblocked(long nanos) {
+        STALL.record(nanos);
+        log.warn("JavaFX thread unblocked", "millis", nanos / 1_000_000,
+                "at", blockingFrame(stallStack), "in", handlerFrame(stallStack));
+        stallStack = null;
+    }
+
+    // Innermost application frame: the code that was blocking
+    private static StackTraceElement blockingFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().startsWith(APPLICATION_PACKAGE)) {
+                return frame;
+            }
+        }
+        return stack.length > 0 ? stack[0] : null;
+    }
+
+    // Outermost application frame: the event handler or callback that ran it
+    private static StackTraceElement handlerFrame(StackTraceElement[] stack) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            if (stack[i].getClassName().startsWith(APPLICATION_PACKAGE)) {
+                return stack[i];
+            }
+        }
+        return null;
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < Math.min(stack.length, STACK_DEPTH); i++) {
+            text.append("\n\tat ").append(stack[i]);
+        }
+        if (stack.length > STACK_DEPTH) {
+            text.append("\n\t... ").append(stack.length - STACK_DEPTH).append(" more");
+        }
+        return text.toString();
+    }
+}
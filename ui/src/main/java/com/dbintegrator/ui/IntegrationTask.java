@@ -0,0 +1,118 @@
+package com.dbintegrator.ui;
+
+import com.dbintegrator.monitoring.MetricsRegistry;
+import com.dbintegrator.monitoring.SqlProfiler;
+import com.dbintegrator.service.IntegrationProgress;
+import com.dbintegrator.service.RunRegistry;
+import com.dbintegrator.util.Log;
+import javafx.concurrent.Task;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs an integration off the JavaFX application thread and publishes its
+ * IntegrationProgress through the Task progress and message properties, so
+ * controllers can bind a progress bar and status label to it.
+ */
+public final class IntegrationTask extends Task<Integer> {
+    private static final Log log = Log.get(IntegrationTask.class);
+
+    @FunctionalInterface
+    public interface Work {
+        int run(IntegrationProgress progress) throws Exception;
+    }
+
+    // Integrations run one at a time on a dedicated worker so they never
+    // compete for the same destination rows
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "integration-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final IntegrationProgress progress = new IntegrationProgress();
+    private final String name;
+    private final Work work;
+    private RunRegistry.Run run;
+
+    /**
+     * @param name Shown for the run on the monitoring tab
+     * @param work Integration to run
+     */
+    public IntegrationTask(String name, Work work) {
+        this.name = name;
+        this.work = work;
+        progress.setListener(this::publish);
+    }
+
+    public IntegrationProgress getIntegrationProgress() {
+        return progress;
+    }
+
+    /**
+     * Bind progress widgets to this task; the cancel button is enabled only while it runs
+     */
+    public IntegrationTask bindTo(ProgressBar progressBar, Label statusLabel, Button cancelButton) {
+        progressBar.progressProperty().bind(progressProperty());
+        statusLabel.textProperty().bind(messageProperty());
+        cancelButton.disableProperty().bind(runningProperty().not());
+        cancelButton.setOnAction(event -> cancelIntegration());
+        return this;
+    }
+
+    public void start() {
+        run = RunRegistry.global().register(name, progress);
+        EXECUTOR.execute(this);
+    }
+
+    /**
+     * Cancel in-flight statements and let the worker roll back. Unlike
+     * Task.cancel() the task keeps running until the rollback has finished,
+     * then fails with the cancellation; check wasCancelled() in the handler.
+     */
+    public void cancelIntegration() {
+        updateMessage("Cancelling...");
+        progress.cancel();
+    }
+
+    public boolean wasCancelled() {
+        return progress.isCancelled();
+    }
+
+    @Override
+    protected Integer call() throws Exception {
+        progress.start();
+        run.started();
+        updateProgress(-1, 1);
+        try {
+            int result = work.run(progress);
+            run.finished(RunRegistry.Status.SUCCEEDED, null);
+            publish(progress);
+            updateProgress(1, 1);
+            return result;
+        } catch (Exception e) {
+            run.finished(progress.isCancelled() ? RunRegistry.Status.CANCELLED : RunRegistry.Status.FAILED,
+                    e.getMessage());
+            throw e;
+        } finally {
+            log.info(MetricsRegistry.global().report());
+            if (SqlProfiler.global().isEnabled()) {
+                log.info(SqlProfiler.global().report(SqlProfiler.DEFAULT_TOP));
+            }
+        }
+    }
+
+    private void publish(IntegrationProgress progress) {
+        double fraction = progress.getFractionDone();
+        if (fraction >= 0) {
+            updateProgress(fraction, 1.0);
+        } else {
+            updateProgress(-1, 1);
+        }
+        updateMessage(progress.summary());
+    }
+}
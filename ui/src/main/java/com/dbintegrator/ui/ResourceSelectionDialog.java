@@ -15,8 +15,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.dbintegrator.util.DatabaseConnectionManager;
+import com.dbintegrator.util.Log;
 
 public class ResourceSelectionDialog extends Dialog<List<Integer>> {
+    private static final Log log = Log.get(ResourceSelectionDialog.class);
+
     private final DatabaseConnectionManager dbManager;
     private final String tableName;
     private final ListView<String> resourcesListView;
@@ -95,11 +98,10 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                                 String idStr = item.substring(startIndex, endIndex).trim();
                                 int id = Integer.parseInt(idStr);
                                 selectedIds.add(id);
-                                System.out.println("Selected resource ID: " + id);
+                                log.info("Selected resource", "id", id);
                             }
                         } catch (Exception e) {
-                            System.err.println("Error parsing resource ID: " + e.getMessage());
-                            e.printStackTrace();
+                            log.error("Error parsing resource ID", e);
                         }
                     }
                 }
@@ -167,7 +169,7 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                 while (tables.next()) {
                     String tableName = tables.getString("TABLE_NAME");
                     existingTables.add(tableName.toUpperCase());
-                    System.out.println("Found table: " + tableName);
+                    log.info("Found table", "table", tableName);
                 }
             }
 
@@ -186,24 +188,24 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                 }
             } else {
                 // Table doesn't exist, try a fallback
-                System.out.println(tableName + " table not found, trying fallback");
+                log.info("Table not found, trying fallback", "table", tableName);
                 if (tableName.equals("HR_ALL_PEOPLE")) {
                     // Try to use RSRC data as a fallback for HR_ALL_PEOPLE
                     if (existingTables.contains("RSRC")) {
-                        System.out.println("HR_ALL_PEOPLE table not found, using RSRC as a fallback");
+                        log.info("Using fallback table", "table", "HR_ALL_PEOPLE", "fallback", "RSRC");
                         resourceList = loadP6Resources(conn);
                     }
                 } else if (tableName.equals("RSRC")) {
                     // Try to use HR_ALL_PEOPLE data as a fallback for RSRC
                     if (existingTables.contains("HR_ALL_PEOPLE")) {
-                        System.out.println("RSRC table not found, using HR_ALL_PEOPLE as a fallback");
+                        log.info("Using fallback table", "table", "RSRC", "fallback", "HR_ALL_PEOPLE");
                         resourceList = loadEBSResources(conn);
                     }
                 }
             }
         } catch (SQLException e) {
+            log.error("Failed to load resources", "table", tableName, e);
             showError("Database Error", "Failed to load resources: " + e.getMessage());
-            e.printStackTrace();
         }
 
         // Set the ListView items
@@ -227,10 +229,10 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
 
             // Try RSRC_ID first, fall back to ID if needed
             String idColumn = columnNames.contains("RSRC_ID") ? "RSRC_ID" : "ID";
-            System.out.println("Using ID column for RSRC table: " + idColumn);
+            log.info("Using ID column", "table", "RSRC", "column", idColumn);
 
             String query = "SELECT " + idColumn + ", NAME, EMAIL FROM RSRC";
-            System.out.println("Executing query: " + query);
+            log.debug("Executing query", "sql", query);
 
             try (java.sql.Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(query)) {
@@ -246,12 +248,11 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                     }
 
                     resourceList.add(displayText);
-                    System.out.println("Found P6 resource: " + displayText);
+                    log.debug("Found P6 resource", "resource", displayText);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Failed to load P6 resources: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to load P6 resources", e);
         }
 
         return resourceList;
@@ -273,11 +274,11 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
             String nameColumn = columnNames.contains("FULL_NAME") ? "FULL_NAME" : "NAME";
             String emailColumn = columnNames.contains("EMAIL_ADDRESS") ? "EMAIL_ADDRESS" : "EMAIL";
 
-            System.out.println("Using columns for HR_ALL_PEOPLE: ID=" + idColumn +
-                    ", Name=" + nameColumn + ", Email=" + emailColumn);
+            log.info("Using columns", "table", "HR_ALL_PEOPLE", "id", idColumn,
+                    "name", nameColumn, "email", emailColumn);
 
             String query = "SELECT " + idColumn + ", " + nameColumn + ", " + emailColumn + " FROM HR_ALL_PEOPLE";
-            System.out.println("Executing query: " + query);
+            log.debug("Executing query", "sql", query);
 
             try (java.sql.Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(query)) {
@@ -293,12 +294,11 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                     }
 
                     resourceList.add(displayText);
-                    System.out.println("Found EBS resource: " + displayText);
+                    log.debug("Found EBS resource", "resource", displayText);
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Failed to load EBS resources: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to load EBS resources", e);
         }
 
         return resourceList;
@@ -339,7 +339,7 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                 }
                 query += " FROM " + tableName;
 
-                System.out.println("Generic query: " + query);
+                log.debug("Generic query", "sql", query);
 
                 try (java.sql.Statement stmt = conn.createStatement();
                      ResultSet rs = stmt.executeQuery(query)) {
@@ -361,8 +361,7 @@ public class ResourceSelectionDialog extends Dialog<List<Integer>> {
                 resourceList.add("Could not identify required columns in table");
             }
         } catch (SQLException e) {
-            System.err.println("Failed to load resources from " + tableName + ": " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to load resources", "table", tableName, e);
         }
 
         return resourceList;